@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Computes the timeout of an ESLint batch from the size of its files and the throughput observed on the batches that
+ * already completed. Until a batch completes, and whenever the estimate would be larger, the timeout is the
+ * configured per file timeout multiplied by the number of files. It never goes below the per file timeout, which
+ * covers the start of Node and ESLint.
+ */
+public class EsLintBatchTimeout {
+    /**
+     * How much slower than the observed throughput a batch may be before it is considered stuck.
+     */
+    public static final int SAFETY_FACTOR = 4;
+
+    private final long timeoutPerFileMs;
+
+    private long observedBytes;
+    private long observedMs;
+
+    public EsLintBatchTimeout(final long timeoutPerFileMs) {
+        this.timeoutPerFileMs = timeoutPerFileMs;
+    }
+
+    /**
+     * Sums the size of the files of a batch.
+     *
+     * @param files the file paths
+     * @return their size in bytes, missing files counting as empty
+     */
+    public static long sizeOf(final List<String> files) {
+        long bytes = 0;
+        for (final String file : files) {
+            bytes += new File(file).length();
+        }
+        return bytes;
+    }
+
+    /**
+     * Returns the timeout of a batch.
+     *
+     * @param fileCount the number of files of the batch
+     * @param bytes     the size of the files of the batch
+     * @return the timeout in milliseconds
+     */
+    public synchronized long timeoutFor(final int fileCount, final long bytes) {
+        final long legacyTimeout = timeoutPerFileMs * fileCount;
+        if (observedBytes == 0 || bytes == 0) {
+            return legacyTimeout;
+        }
+        final double msPerByte = (double) observedMs / observedBytes;
+        final long estimate = (long) Math.ceil(SAFETY_FACTOR * bytes * msPerByte);
+        return Math.min(legacyTimeout, Math.max(timeoutPerFileMs, estimate));
+    }
+
+    /**
+     * Records the duration of a batch that completed.
+     *
+     * @param bytes     the size of the files of the batch
+     * @param elapsedMs the time ESLint took
+     */
+    public synchronized void record(final long bytes, final long elapsedMs) {
+        if (bytes > 0) {
+            observedBytes += bytes;
+            observedMs += Math.max(1, elapsedMs);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.Startable;
+import org.sonar.api.batch.InstantiationStrategy;
+import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.utils.TempFolder;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+
+/**
+ * Keeps a single Node process running the bundled ESLint bridge for the whole scanner run. ESLint, its plugins and
+ * parsers are loaded once and reused by every batch of every module. The process lints one batch at a time, so the
+ * batches are linted one after the other whatever the number of workers.
+ */
+@ScannerSide
+@InstantiationStrategy(InstantiationStrategy.PER_BATCH)
+public class EsLintDaemon implements Startable {
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintDaemon.class);
+
+    private final TempFolder tempFolder;
+    private final Gson gson = new Gson();
+
+    private Process process;
+    private BufferedWriter requests;
+    private BufferedReader responses;
+    private ExecutorService reader;
+    private int nextRequestId;
+
+    public EsLintDaemon(final TempFolder tempFolder) {
+        this.tempFolder = tempFolder;
+    }
+
+    @Override
+    public void start() {
+        // The Node process is only started when the first batch is submitted
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (process == null) {
+            return;
+        }
+        LOG.debug("Stopping the ESLint daemon");
+        try {
+            // Closing stdin lets the bridge drain its queue and exit on its own
+            requests.close();
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (final IOException e) {
+            process.destroyForcibly();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            process.destroyForcibly();
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Lints a batch of files with the warm ESLint process, starting it if needed.
+     *
+     * @param config    the ESLint configuration
+     * @param files     the files to lint
+     * @param timeoutMs the maximum time to wait for the answer
+     * @return the ESLint JSON report, or null if the daemon failed, timed out or could not run ESLint on the batch
+     */
+    public synchronized String lint(final EsLintExecutorConfig config, final List<String> files, final long timeoutMs) {
+        final int requestId = ++nextRequestId;
+        final JsonObject request = new JsonObject();
+        request.addProperty("id", requestId);
+        request.addProperty("eslintPath", config.getPathToEsLint());
+        request.addProperty("configFile", config.getConfigFile());
+        request.addProperty("rulesDir", config.getRulesDir());
+        request.addProperty("cwd", config.getWorkingDir());
+        if (config.getRuleOverrides() != null) {
+            request.add("rules", gson.toJsonTree(config.getRuleOverrides().getRules()));
+        }
+        request.add("files", gson.toJsonTree(files));
+
+        try {
+            ensureStarted(config);
+            requests.write(gson.toJson(request));
+            requests.newLine();
+            requests.flush();
+
+            final Future<String> answer = reader.submit(this::readAnswer);
+            return answer.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (final TimeoutException e) {
+            LOG.warn("The ESLint daemon did not answer within {} ms on a batch of {} files, restarting it", timeoutMs,
+                files.size());
+            kill();
+        } catch (final ExecutionException | IOException e) {
+            LOG.warn("The ESLint daemon failed on a batch of {} files, restarting it", files.size());
+            LOG.debug("ESLint daemon failure", e);
+            kill();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            kill();
+        }
+        return null;
+    }
+
+    private String readAnswer() throws IOException {
+        final String header = responses.readLine();
+        if (header == null) {
+            throw new IOException("The ESLint daemon exited unexpectedly");
+        }
+        final JsonObject status = gson.fromJson(header, JsonObject.class);
+        if (!status.get("ok").getAsBoolean()) {
+            LOG.warn("ESLint failed to lint a batch in the daemon: {}", status.get("error").getAsString());
+            return null;
+        }
+        final String report = responses.readLine();
+        if (report == null) {
+            throw new IOException("The ESLint daemon exited before sending its report");
+        }
+        return report;
+    }
+
+    private void ensureStarted(final EsLintExecutorConfig config) throws IOException {
+        if (process != null && process.isAlive()) {
+            return;
+        }
+        release();
+
+        final File bridge = EsLintScripts.extract(tempFolder, EsLintScripts.BRIDGE_SCRIPT);
+        LOG.info("Starting the ESLint daemon with {}", bridge);
+        final ProcessBuilder builder = new ProcessBuilder("node", bridge.getAbsolutePath());
+        if (config.getWorkingDir() != null) {
+            // Every request also carries its own directory, the daemon serving all the modules of the run
+            builder.directory(new File(config.getWorkingDir()));
+        }
+        process = builder.start();
+        requests = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+        responses = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        reader = Executors.newSingleThreadExecutor(runnable -> newDaemonThread(runnable, "eslint-daemon-reader"));
+
+        final BufferedReader errors = new BufferedReader(new InputStreamReader(process.getErrorStream(), StandardCharsets.UTF_8));
+        newDaemonThread(() -> drain(errors), "eslint-daemon-stderr").start();
+    }
+
+    private static Thread newDaemonThread(final Runnable runnable, final String name) {
+        final Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static void drain(final BufferedReader errors) {
+        try {
+            String line;
+            //noinspection NestedAssignment
+            while ((line = errors.readLine()) != null) {
+                LOG.debug("ESLint daemon: {}", line);
+            }
+        } catch (final IOException e) {
+            LOG.debug("ESLint daemon error stream closed", e);
+        }
+    }
+
+    private void kill() {
+        if (process != null) {
+            process.destroyForcibly();
+        }
+        release();
+    }
+
+    private void release() {
+        if (reader != null) {
+            reader.shutdownNow();
+        }
+        process = null;
+        requests = null;
+        responses = null;
+        reader = null;
+    }
+}
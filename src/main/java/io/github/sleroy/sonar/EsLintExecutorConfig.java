@@ -13,6 +13,8 @@ package io.github.sleroy.sonar;
 import java.io.File;
 import java.util.Objects;
 
+import io.github.sleroy.sonar.model.EsLintConfig;
+
 public class EsLintExecutorConfig {
     public static final String ESLINT_FALLBACK_PATH = "node_modules" + File.separatorChar + "eslint"
         + File.separatorChar + "bin"
@@ -23,6 +25,7 @@ public class EsLintExecutorConfig {
     public static final String CONFIG_YAML2_FILENAME = ".eslintrc.yaml";
     public static final String CONFIG_FILENAME = ".eslintrc";
     public static final int MAX_TIMEOUT = 10000;
+    public static final int DEFAULT_BATCH_SIZE = 500;
 
     private String pathToEsLint;
     private String configFile;
@@ -31,6 +34,28 @@ public class EsLintExecutorConfig {
 
     private Integer timeoutMs;
 
+    private int workers = 1;
+
+    private boolean daemon;
+
+    private boolean fileList;
+
+    private int batchSize = DEFAULT_BATCH_SIZE;
+
+    private String nativeCacheDir;
+
+    private String outputDir;
+
+    private String workingDir;
+
+    private boolean streamOutput;
+
+    private EsLintConfig ruleOverrides;
+
+    private EsLintRuleTimings ruleTimings;
+
+    private EsLintMetrics metrics = new EsLintMetrics();
+
     public String getConfigFile() {
         return configFile;
     }
@@ -47,6 +72,43 @@ public class EsLintExecutorConfig {
         return timeoutMs;
     }
 
+    /**
+     * Returns the number of ESLint processes that may run at the same time.
+     *
+     * @return the number of workers, at least one
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    /**
+     * Tells whether the batches are linted by a long-lived ESLint process rather than by a new process each.
+     *
+     * @return true when the daemon engine is used
+     */
+    public boolean isDaemon() {
+        return daemon;
+    }
+
+    /**
+     * Tells whether the files to lint are handed to ESLint through a file list rather than on the command line.
+     *
+     * @return true when a file list is used
+     */
+    public boolean isFileList() {
+        return fileList;
+    }
+
+    /**
+     * Returns the maximum number of files linted by a single ESLint run, when the files are not passed on the
+     * command line.
+     *
+     * @return the batch size, at least one
+     */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
     /**
      * Checks if is path to eslint is the same at the argument
      *
@@ -73,10 +135,124 @@ public class EsLintExecutorConfig {
         this.timeoutMs = timeoutMs;
     }
 
+    /**
+     * Returns the directory receiving the ESLint --cache files.
+     *
+     * @return the directory, or null when the ESLint cache is not used
+     */
+    public String getNativeCacheDir() {
+        return nativeCacheDir;
+    }
+
+    public void setNativeCacheDir(final String nativeCacheDir) {
+        this.nativeCacheDir = nativeCacheDir;
+    }
+
+    /**
+     * Returns the directory receiving the ESLint reports.
+     *
+     * @return the directory, or null to use the temporary folder of the analysis
+     */
+    public String getOutputDir() {
+        return outputDir;
+    }
+
+    public void setOutputDir(final String outputDir) {
+        this.outputDir = outputDir;
+    }
+
+    /**
+     * Returns the directory ESLint runs from, where it resolves .eslintignore and the ignorePatterns of the
+     * configuration given with --config.
+     *
+     * @return the directory, or null to run from the directory of the scanner
+     */
+    public String getWorkingDir() {
+        return workingDir;
+    }
+
+    public void setWorkingDir(final String workingDir) {
+        this.workingDir = workingDir;
+    }
+
+    /**
+     * Tells whether ESLint writes its reports on its standard output, read while ESLint runs, instead of files.
+     *
+     * @return true to stream the reports
+     */
+    public boolean isStreamOutput() {
+        return streamOutput;
+    }
+
+    public void setStreamOutput(final boolean streamOutput) {
+        this.streamOutput = streamOutput;
+    }
+
+    /**
+     * Returns the rules set on top of the ESLint configuration files.
+     *
+     * @return the rule overrides, or null if there is none
+     */
+    public EsLintConfig getRuleOverrides() {
+        return ruleOverrides;
+    }
+
+    public void setRuleOverrides(final EsLintConfig ruleOverrides) {
+        this.ruleOverrides = ruleOverrides;
+    }
+
+    /**
+     * Returns the collector of the time ESLint spends in every rule. ESLint writes its reports to files while it is
+     * set, its standard output carrying the timing tables.
+     *
+     * @return the rule timings, or null when rules are not timed
+     */
+    public EsLintRuleTimings getRuleTimings() {
+        return ruleTimings;
+    }
+
+    public void setRuleTimings(final EsLintRuleTimings ruleTimings) {
+        this.ruleTimings = ruleTimings;
+    }
+
+    /**
+     * Returns the collector of the time and volumes of the phases of the analysis.
+     *
+     * @return the metrics
+     */
+    public EsLintMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(final EsLintMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public void setDaemon(final boolean daemon) {
+        this.daemon = daemon;
+    }
+
+    public void setFileList(final boolean fileList) {
+        this.fileList = fileList;
+    }
+
+    public void setBatchSize(final int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    public void setWorkers(final int workers) {
+        this.workers = Math.max(1, workers);
+    }
+
     @Override
     public String toString() {
         return "EsLintExecutorConfig [pathToEsLint=" + pathToEsLint + ", configFile=" + configFile + ", rulesDir="
-            + rulesDir + ", timeoutMs=" + timeoutMs + "]";
+            + rulesDir + ", timeoutMs=" + timeoutMs + ", workers=" + workers
+            + ", daemon=" + daemon + ", fileList=" + fileList + ", batchSize=" + batchSize
+            + ", nativeCacheDir=" + nativeCacheDir + ", outputDir=" + outputDir + ", workingDir=" + workingDir
+            + ", streamOutput=" + streamOutput
+            + ", ruleOverrides=" + (ruleOverrides == null ? null : ruleOverrides.getRules())
+            + ", ruleTimings=" + (ruleTimings != null) + "]";
     }
 
 }
@@ -10,6 +10,7 @@
  */
 package io.github.sleroy.sonar;
 
+import java.io.File;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -21,6 +22,7 @@ import io.github.sleroy.sonar.api.PathResolver;
  * A factory for creating EsLintExecutorConfig objects.
  */
 public class EsLintExecutorConfigFactory {
+    static final String NATIVE_CACHE_DIR = "eslint";
 
     private static int evaluateTimeoutSetting(final SensorContext ctx) {
         return Math.max(
@@ -28,6 +30,11 @@ public class EsLintExecutorConfigFactory {
             ctx.config().getInt(EsLintPlugin.SETTING_ES_LINT_TIMEOUT).orElse(EsLintExecutorConfig.MAX_TIMEOUT));
     }
 
+    private static int evaluateWorkersSetting(final SensorContext ctx) {
+        return ctx.config().getInt(EsLintPlugin.SETTING_ES_LINT_WORKERS)
+            .orElse(Runtime.getRuntime().availableProcessors());
+    }
+
     /**
      * Buildsw the configuration from the settings.
      *
@@ -55,7 +62,23 @@ public class EsLintExecutorConfigFactory {
         resolver.getPathFromSetting(ctx, EsLintPlugin.SETTING_ES_LINT_RULES_DIR, null)
             .ifPresent(path -> toReturn.setRulesDir(path));
 
+        toReturn.setWorkingDir(ctx.fileSystem().baseDir().getAbsolutePath());
         toReturn.setTimeoutMs(evaluateTimeoutSetting(ctx));
+        toReturn.setWorkers(evaluateWorkersSetting(ctx));
+        toReturn.setDaemon(ctx.config().getBoolean(EsLintPlugin.SETTING_ES_LINT_DAEMON).orElse(Boolean.FALSE));
+        toReturn.setFileList(ctx.config().getBoolean(EsLintPlugin.SETTING_ES_LINT_FILE_LIST).orElse(Boolean.FALSE));
+        toReturn.setBatchSize(ctx.config().getInt(EsLintPlugin.SETTING_ES_LINT_BATCH_SIZE)
+            .orElse(EsLintExecutorConfig.DEFAULT_BATCH_SIZE));
+        if (ctx.config().getBoolean(EsLintPlugin.SETTING_ES_LINT_NATIVE_CACHE).orElse(Boolean.FALSE)) {
+            final File cacheDir = EsLintResultCache.resolveCacheDir(ctx.config(), ctx.fileSystem().baseDir());
+            toReturn.setNativeCacheDir(new File(cacheDir, NATIVE_CACHE_DIR).getAbsolutePath());
+        }
+        ctx.config().get(EsLintPlugin.SETTING_ES_LINT_OUTPUT_DIR)
+            .ifPresent(dir -> toReturn.setOutputDir(new File(dir).getAbsolutePath()));
+        toReturn.setStreamOutput(ctx.config().getBoolean(EsLintPlugin.SETTING_ES_LINT_STREAM_OUTPUT).orElse(Boolean.FALSE));
+        if (ctx.config().getInt(EsLintPlugin.SETTING_ES_LINT_RULE_TIMING).orElse(0) > 0) {
+            toReturn.setRuleTimings(new EsLintRuleTimings());
+        }
 
         return toReturn;
     }
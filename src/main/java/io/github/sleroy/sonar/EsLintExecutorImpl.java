@@ -6,29 +6,84 @@ import org.slf4j.LoggerFactory;
 import org.sonar.api.utils.System2;
 import org.sonar.api.utils.TempFolder;
 import org.sonar.api.utils.command.Command;
+import org.sonar.api.utils.command.CommandException;
 import org.sonar.api.utils.command.CommandExecutor;
 import org.sonar.api.utils.command.StreamConsumer;
 import org.sonar.api.utils.command.StringStreamConsumer;
+import org.sonar.api.utils.command.TimeoutException;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
 
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
 import java.io.UnsupportedEncodingException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.IntFunction;
 
 public class EsLintExecutorImpl implements EsLintExecutor {
     public static final int MAX_COMMAND_LENGTH = 4096;
+    /**
+     * The number of batches, each with an ESLint cache of its own, that files are spread over with the native cache. It
+     * is a power of two and does not depend on the analysis, so that a file always lands in the same ESLint cache.
+     */
+    public static final int NATIVE_CACHE_BUCKETS = 16;
+    /**
+     * Once this many files could not be linted, failing batches are given up instead of being split further.
+     */
+    public static final int MAX_SKIPPED_FILES = 10;
     private static final Logger LOG = LoggerFactory.getLogger(EsLintExecutorImpl.class);
+    private static final ScheduledExecutorService WATCHDOG = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "eslint-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
     private final TempFolder tempFolder;
     private final boolean mustQuoteSpaceContainingPaths;
+    private final EsLintDaemon daemon;
+    private final Map<String, Optional<String>> printedConfigs = new ConcurrentHashMap<>();
 
     public EsLintExecutorImpl(System2 system, TempFolder tempFolder) {
+        this(system, tempFolder, new EsLintDaemon(tempFolder));
+    }
+
+    public EsLintExecutorImpl(System2 system, TempFolder tempFolder, EsLintDaemon daemon) {
         this.mustQuoteSpaceContainingPaths = system.isOsWindows();
         this.tempFolder = tempFolder;
+        this.daemon = daemon;
     }
 
     protected BufferedReader getBufferedReaderForFile(File file) throws FileNotFoundException, UnsupportedEncodingException {
@@ -52,10 +107,19 @@ public class EsLintExecutorImpl implements EsLintExecutor {
     }
 
     private Command getBaseCommand(EsLintExecutorConfig config, String tempPath) {
-        Command command =
-                Command
-                        .create("node")
-                        .addArgument(this.preparePath(config.getPathToEsLint()));
+        return this.getBaseCommand(config, tempPath, null, null);
+    }
+
+    private Command getBaseCommand(EsLintExecutorConfig config, String tempPath, File fileList, File cacheFile) {
+        Command command = Command.create("node");
+        if (fileList != null) {
+            // The wrapper reads the files to lint from the list instead of the command line
+            command
+                    .addArgument(this.preparePath(EsLintScripts.extract(this.tempFolder, EsLintScripts.FILE_LIST_SCRIPT).getAbsolutePath()))
+                    .addArgument(this.preparePath(fileList.getAbsolutePath()));
+        }
+        command
+                .addArgument(this.preparePath(config.getPathToEsLint()));
         command
                 .addArgument("-f")
                 .addArgument("json");
@@ -77,14 +141,184 @@ public class EsLintExecutorImpl implements EsLintExecutor {
                 .addArgument("--config")
                 .addArgument(this.preparePath(config.getConfigFile()));
 
+        if (config.getRuleOverrides() != null) {
+            // Sorted, so that the ESLint cache sees the same command line on every analysis
+            for (Map.Entry<String, Object> rule : new TreeMap<>(config.getRuleOverrides().getRules()).entrySet()) {
+                command
+                        .addArgument("--rule")
+                        .addArgument(rule.getKey() + ": " + toLevn(rule.getValue()));
+            }
+        }
+
+        if (config.getRuleTimings() != null) {
+            command.setEnvironmentVariable("TIMING", "all");
+        }
 
+        if (cacheFile != null) {
+            command
+                    .addArgument("--cache")
+                    .addArgument("--cache-location")
+                    .addArgument(this.preparePath(cacheFile.getAbsolutePath()));
+            // The default metadata strategy misses every file after a fresh checkout, only ESLint 7.21+ knows content
+            if (EsLintResultCache.isAtLeast(EsLintResultCache.readEsLintVersion(config.getPathToEsLint()), 7, 21)) {
+                command
+                        .addArgument("--cache-strategy")
+                        .addArgument("content");
+            }
+        }
+
+
+        setWorkingDirectory(command, config);
         command.setNewShell(false);
 
         return command;
     }
 
+    /**
+     * Writes a rule setting the way ESLint reads --rule options. Arrays are written without quotes, which cannot
+     * survive the command line on every platform.
+     */
+    private static String toLevn(Object value) {
+        if (value instanceof Object[]) {
+            List<String> items = new ArrayList<>();
+            for (Object item : (Object[]) value) {
+                items.add(toLevn(item));
+            }
+            return "[" + String.join(", ", items) + "]";
+        }
+        return String.valueOf(value);
+    }
+
+    @Override
+    public Set<String> getEnabledRules(EsLintExecutorConfig config, String file) {
+        JsonObject printedConfig = this.printConfig(config, file);
+        Set<String> enabledRules = new HashSet<>();
+        if (printedConfig != null && printedConfig.has("rules")) {
+            for (Map.Entry<String, JsonElement> rule : printedConfig.getAsJsonObject("rules").entrySet()) {
+                if (isEnabled(rule.getValue())) {
+                    enabledRules.add(rule.getKey());
+                }
+            }
+        }
+        return enabledRules;
+    }
+
+    @Override
+    public Optional<List<String>> getIgnorePatterns(EsLintExecutorConfig config, String file) {
+        JsonObject printedConfig = this.printConfig(config, file);
+        if (printedConfig == null) {
+            return Optional.empty();
+        }
+        // ESLint prints the ignorePatterns since 6.0, older versions have none
+        List<String> patterns = new ArrayList<>();
+        JsonElement ignorePatterns = printedConfig.get("ignorePatterns");
+        if (ignorePatterns != null && ignorePatterns.isJsonArray()) {
+            for (JsonElement pattern : ignorePatterns.getAsJsonArray()) {
+                patterns.add(pattern.getAsString());
+            }
+        }
+        return Optional.of(patterns);
+    }
+
+    @Override
+    public String getPrintedConfig(EsLintExecutorConfig config, String file) {
+        // Printed once per configuration and file, however many settings are read from it
+        String key = config.getConfigFile() + '\u0000' + config.getRulesDir() + '\u0000' + config.getWorkingDir() + '\u0000' + file;
+        return this.printedConfigs.computeIfAbsent(key, k -> Optional.ofNullable(this.runPrintConfig(config, file))).orElse(null);
+    }
+
+    /**
+     * @return the configuration ESLint resolved for a file, or null if it could not print it
+     */
+    private JsonObject printConfig(EsLintExecutorConfig config, String file) {
+        String printedConfig = this.getPrintedConfig(config, file);
+        if (printedConfig == null) {
+            return null;
+        }
+        try {
+            return new Gson().fromJson(printedConfig, JsonObject.class);
+        } catch (JsonParseException e) {
+            LOG.warn("EsLint printed an unreadable configuration for {}", file, e);
+            return null;
+        }
+    }
+
+    private String runPrintConfig(EsLintExecutorConfig config, String file) {
+        Command command = Command.create("node")
+                .addArgument(this.preparePath(config.getPathToEsLint()))
+                .addArgument("--config")
+                .addArgument(this.preparePath(config.getConfigFile()));
+        String rulesDir = config.getRulesDir();
+        if (rulesDir != null && !rulesDir.isEmpty()) {
+            command
+                    .addArgument("--rules-dir")
+                    .addArgument(this.preparePath(rulesDir));
+        }
+        command
+                .addArgument("--print-config")
+                .addArgument(this.preparePath(file));
+        setWorkingDirectory(command, config);
+        command.setNewShell(false);
+
+        StringStreamConsumer stdOutConsumer = new StringStreamConsumer();
+        StringStreamConsumer stdErrConsumer = new StringStreamConsumer();
+        try {
+            int exitCode = this.getCommandOutput(command, stdOutConsumer, stdErrConsumer, config.getTimeoutMs());
+            if (exitCode != 0) {
+                LOG.warn("EsLint could not print its configuration for {}: {}", file, stdErrConsumer.getOutput());
+                return null;
+            }
+            return stdOutConsumer.getOutput();
+        } catch (TimeoutException | IllegalStateException e) {
+            LOG.warn("EsLint could not print its configuration for {}", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Runs ESLint from the base directory of the project, where it resolves .eslintignore and the ignorePatterns of
+     * the configuration given with --config.
+     */
+    private static void setWorkingDirectory(Command command, EsLintExecutorConfig config) {
+        if (config.getWorkingDir() != null) {
+            command.setDirectory(new File(config.getWorkingDir()));
+        }
+    }
+
+    /**
+     * Tells whether a rule setting of the printed configuration, a severity or an array starting with it, is on.
+     */
+    private static boolean isEnabled(JsonElement setting) {
+        JsonElement severity = setting.isJsonArray() && setting.getAsJsonArray().size() > 0 ? setting.getAsJsonArray().get(0) : setting;
+        if (!severity.isJsonPrimitive()) {
+            return false;
+        }
+        String value = severity.getAsString();
+        return !"0".equals(value) && !"off".equals(value);
+    }
+
     @Override
     public List<String> execute(EsLintExecutorConfig config, List<String> files) {
+        // Reports are gathered per batch, so that they are returned in batch order whatever the completion order
+        Map<Integer, List<String>> reports = new ConcurrentSkipListMap<>();
+        this.run(config, files, batchIndex -> report -> reports
+                .computeIfAbsent(batchIndex, i -> Collections.synchronizedList(new ArrayList<>()))
+                .add(this.readReport(report)));
+
+        List<String> toReturn = new ArrayList<>(reports.size());
+        reports.values().forEach(toReturn::addAll);
+        return toReturn;
+    }
+
+    @Override
+    public void execute(EsLintExecutorConfig config, List<String> files, Consumer<Reader> reportConsumer) {
+        this.run(config, files, batchIndex -> reportConsumer);
+    }
+
+    /**
+     * Lints the files batch by batch, handing every report to the consumer of its batch.
+     */
+    private void run(EsLintExecutorConfig config, List<String> files, IntFunction<Consumer<Reader>> reportConsumers) {
         if (config == null) {
             throw new IllegalArgumentException("config");
         }
@@ -92,18 +326,87 @@ public class EsLintExecutorImpl implements EsLintExecutor {
             throw new IllegalArgumentException("files");
         }
 
-        // New up a command that's everything we need except the files to process
-        // We'll use this as our reference for chunking up files, if we need to
-        File eslintOutputFile = this.tempFolder.newFile();
-        String eslintOutputFilePath = eslintOutputFile.getAbsolutePath();
-        Command baseCommand = this.getBaseCommand(config, eslintOutputFilePath);
+        // Every batch writes into its own output file, so that batches may run side by side
+        List<File> outputFiles = new ArrayList<>(100);
+        List<List<String>> batches;
+        File nativeCacheDir = config.getNativeCacheDir() == null || config.isDaemon() ? null : new File(config.getNativeCacheDir());
+        if (nativeCacheDir != null) {
+            // ESLint drops from its cache the files it did not lint, so a file must always land in the same batch
+            batches = this.splitByStableBucket(files, config);
+            if (!nativeCacheDir.isDirectory() && !nativeCacheDir.mkdirs()) {
+                LOG.warn("Cannot create the ESLint cache directory {}", nativeCacheDir);
+            }
+        } else if (config.isDaemon() || config.isFileList()) {
+            // Paths are not passed on the command line, batches are only bounded by the configured size
+            batches = this.splitBySize(files, config);
+        } else {
+            // New up a command that's everything we need except the files to process
+            // We'll use this as our reference for chunking up files, if we need to
+            File eslintOutputFile = this.newOutputFile(config);
+            outputFiles.add(eslintOutputFile);
+            batches = this.splitByCommandLength(files, this.getBaseCommand(config, eslintOutputFile == null ? null : eslintOutputFile.getAbsolutePath()));
+        }
+
+        LOG.debug("Split {} files into  {} batches for processing", files.size(), batches.size());
+
+        BatchSupervisor supervisor = new BatchSupervisor(config.getTimeoutMs());
+        if (config.isDaemon()) {
+            this.executeWithDaemon(config, batches, supervisor, reportConsumers);
+        } else {
+            for (int i = outputFiles.size(), ni = batches.size(); i < ni; i++) {
+                // Empty buckets are not linted
+                outputFiles.add(batches.get(i).isEmpty() ? null : this.newOutputFile(config));
+            }
+            LOG.debug("Using temporary paths for EsLint output: {}", outputFiles);
+
+            int workers = Math.min(config.getWorkers(), batches.size());
+            if (workers <= 1) {
+                for (int i = 0, ni = batches.size(); i < ni; i++) {
+                    this.executeBatch(config, batches.get(i), outputFiles.get(i), cacheFile(nativeCacheDir, i), supervisor, reportConsumers.apply(i));
+                }
+            } else {
+                LOG.debug("Running {} batches with {} EsLint workers", batches.size(), workers);
+                this.executeConcurrently(config, batches, outputFiles, nativeCacheDir, workers, supervisor, reportConsumers);
+            }
+        }
 
-        LOG.debug("Using a temporary path for EsLint output: {}", eslintOutputFilePath);
+        if (!supervisor.skippedFiles.isEmpty()) {
+            LOG.warn("EsLint could not lint {} files, they have no issue: {}", supervisor.skippedFiles.size(), supervisor.skippedFiles);
+        }
+    }
 
-        StreamConsumer stdOutConsumer = new StringStreamConsumer();
-        StreamConsumer stdErrConsumer = new StringStreamConsumer();
+    /**
+     * Lints the batches with the daemon. Its single warm Node process serves the batches one after the other, so the
+     * workers are not used. A batch the daemon could not lint is linted again by a new EsLint process, which splits it
+     * as usual if it fails too.
+     */
+    private void executeWithDaemon(EsLintExecutorConfig config, List<List<String>> batches, BatchSupervisor supervisor, IntFunction<Consumer<Reader>> reportConsumers) {
+        if (config.getRuleTimings() != null) {
+            LOG.warn("EsLint rules cannot be timed by the daemon, run EsLint without the daemon to time them");
+        }
+        LOG.debug("The EsLint daemon lints the {} batches one after the other, the {} workers are not used", batches.size(), config.getWorkers());
+        for (int i = 0, ni = batches.size(); i < ni; i++) {
+            List<String> thisBatch = batches.get(i);
+            EsLintMetrics.Timer run = config.getMetrics().start(EsLintMetrics.PHASE_BATCH_RUN);
+            EsLintFlightRecorder.Event executed = EsLintFlightRecorder.BATCH_EXECUTED.begin().set("files", thisBatch.size());
+            String report = this.daemon.lint(config, thisBatch, (long) config.getTimeoutMs() * thisBatch.size());
+            if (report == null) {
+                executed.set("exitCode", -1).set("outputBytes", -1).commit();
+                // An empty report would read as a batch without issues
+                LOG.warn("The EsLint daemon could not lint a batch of {} files, linting it with a new EsLint process", thisBatch.size());
+                this.executeBatch(config, thisBatch, this.newOutputFile(config), null, supervisor, reportConsumers.apply(i));
+                continue;
+            }
+            executed.set("exitCode", 0).set("outputBytes", report.length()).commit();
+            run.stop(thisBatch.size(), EsLintBatchTimeout.sizeOf(thisBatch), 0);
+            reportConsumers.apply(i).accept(new StringReader(report));
+        }
+    }
 
-        List<String> toReturn = new ArrayList<>(100);
+    /**
+     * Splits the files so that each batch fits on a command line along with the base command.
+     */
+    private List<List<String>> splitByCommandLength(List<String> files, Command baseCommand) {
         int baseCommandLength = baseCommand.toCommandLine().length();
         int availableForBatching = MAX_COMMAND_LENGTH - baseCommandLength;
 
@@ -113,10 +416,11 @@ public class EsLintExecutorImpl implements EsLintExecutor {
 
         int currentBatchLength = 0;
         for (int i = 0, ni = files.size(); i < ni; i++) {
-            String nextPath = this.preparePath(files.get(i).trim());
+            String nextPath = files.get(i).trim();
+            int nextPathLength = this.preparePath(nextPath).length();
 
             // +1 for the space we'll be adding between filenames
-            if (currentBatchLength + nextPath.length() + 1 > availableForBatching) {
+            if (currentBatchLength + nextPathLength + 1 > availableForBatching) {
                 // Too long to add to this batch, create new
                 currentBatch = new ArrayList<>(100);
                 currentBatchLength = 0;
@@ -124,55 +428,381 @@ public class EsLintExecutorImpl implements EsLintExecutor {
             }
 
             currentBatch.add(nextPath);
-            currentBatchLength += nextPath.length() + 1;
+            currentBatchLength += nextPathLength + 1;
         }
+        return batches;
+    }
 
-        LOG.debug("Split {} files into  {} batches for processing", files.size(), batches.size());
+    /**
+     * Splits the files into batches of at most the configured size. Smaller batches are used when there are not
+     * enough files to keep every worker busy.
+     */
+    private List<List<String>> splitBySize(List<String> files, EsLintExecutorConfig config) {
+        int batchSize = Math.max(1, Math.min(config.getBatchSize(), (files.size() + config.getWorkers() - 1) / config.getWorkers()));
 
-        for (int i = 0, ni = batches.size(); i < ni; i++) {
-            StringBuilder outputBuilder = new StringBuilder();
-            List<String> thisBatch = batches.get(i);
-            Command thisCommand = this.getBaseCommand(config, eslintOutputFilePath);
+        List<List<String>> batches = new ArrayList<>(files.size() / batchSize + 1);
+        List<String> currentBatch = new ArrayList<>(batchSize);
+        batches.add(currentBatch);
+
+        for (int i = 0, ni = files.size(); i < ni; i++) {
+            if (currentBatch.size() == batchSize) {
+                currentBatch = new ArrayList<>(batchSize);
+                batches.add(currentBatch);
+            }
+            currentBatch.add(files.get(i).trim());
+        }
+        return batches;
+    }
+
+    /**
+     * Splits the files into the {@link #NATIVE_CACHE_BUCKETS} buckets, picked from a hash of their path relative to
+     * the working directory. A file thus stays in the same bucket whatever the number of files, the number of workers
+     * or the directory the project is checked out in. The buckets left empty are not linted.
+     */
+    private List<List<String>> splitByStableBucket(List<String> files, EsLintExecutorConfig config) {
+        Path workingDir = config.getWorkingDir() == null ? null : Paths.get(config.getWorkingDir()).toAbsolutePath().normalize();
+
+        List<List<String>> batches = new ArrayList<>(NATIVE_CACHE_BUCKETS);
+        for (int i = 0; i < NATIVE_CACHE_BUCKETS; i++) {
+            batches.add(new ArrayList<>(files.size() / NATIVE_CACHE_BUCKETS + 1));
+        }
+        for (int i = 0, ni = files.size(); i < ni; i++) {
+            String path = files.get(i).trim();
+            Path file = Paths.get(path);
+            String relativePath = workingDir != null && file.isAbsolute() && file.normalize().startsWith(workingDir)
+                ? workingDir.relativize(file.normalize()).toString() : path;
+            batches.get(bucketOf(relativePath)).add(path);
+        }
+        return batches;
+    }
+
+    /**
+     * Returns the native cache bucket of a file.
+     *
+     * @param relativePath the path of the file relative to the working directory
+     * @return the index of its bucket
+     */
+    static int bucketOf(String relativePath) {
+        // String#hashCode is specified, so the bucket is the same on every JVM
+        int hash = relativePath.replace('\\', '/').hashCode();
+        return (hash ^ (hash >>> 16)) & (NATIVE_CACHE_BUCKETS - 1);
+    }
+
+    private static File cacheFile(File nativeCacheDir, int batchIndex) {
+        return nativeCacheDir == null ? null : new File(nativeCacheDir, "bucket-" + batchIndex + ".eslintcache");
+    }
+
+    /**
+     * Runs the batches on a bounded pool of workers. The reports are handed to their consumer from the worker
+     * threads, as soon as each batch completes.
+     */
+    private void executeConcurrently(EsLintExecutorConfig config, List<List<String>> batches, List<File> outputFiles, File nativeCacheDir, int workers, BatchSupervisor supervisor, IntFunction<Consumer<Reader>> reportConsumers) {
+        ExecutorService pool = Executors.newFixedThreadPool(workers, new WorkerThreadFactory());
+        try {
+            List<Future<?>> pending = new ArrayList<>(batches.size());
+            for (int i = 0, ni = batches.size(); i < ni; i++) {
+                List<String> thisBatch = batches.get(i);
+                File thisOutputFile = outputFiles.get(i);
+                File thisCacheFile = cacheFile(nativeCacheDir, i);
+                Consumer<Reader> thisReportConsumer = reportConsumers.apply(i);
+                pending.add(pool.submit(() -> this.executeBatch(config, thisBatch, thisOutputFile, thisCacheFile, supervisor, thisReportConsumer)));
+            }
+
+            for (Future<?> batchResult : pending) {
+                this.waitForBatch(batchResult);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void waitForBatch(Future<?> batchResult) {
+        try {
+            batchResult.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for EsLint to complete", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("EsLint execution failed", e.getCause());
+        }
+    }
+
+    /**
+     * Lints a batch. A batch that times out, makes ESLint exit abnormally or gives an unreadable report is split in two
+     * halves which are linted again, down to the single file that ESLint cannot lint, which is then skipped.
+     */
+    private void executeBatch(EsLintExecutorConfig config, List<String> thisBatch, File eslintOutputFile, File cacheFile, BatchSupervisor supervisor, Consumer<Reader> reportConsumer) {
+        if (thisBatch.isEmpty() || this.runBatch(config, thisBatch, eslintOutputFile, cacheFile, supervisor.timeouts, reportConsumer)) {
+            return;
+        }
+
+        if (thisBatch.size() == 1) {
+            LOG.error("EsLint cannot lint {}, the file is skipped", thisBatch.get(0));
+            supervisor.skippedFiles.add(thisBatch.get(0));
+            return;
+        }
+        if (supervisor.skippedFiles.size() >= MAX_SKIPPED_FILES) {
+            LOG.error("EsLint failed on too many files, a batch of {} files is skipped", thisBatch.size());
+            supervisor.skippedFiles.addAll(thisBatch);
+            return;
+        }
 
+        LOG.warn("EsLint failed on a batch of {} files, linting it again in two halves", thisBatch.size());
+        int middle = thisBatch.size() / 2;
+        // The halves do not use the ESLint cache, which would forget the files of the other half
+        this.executeBatch(config, thisBatch.subList(0, middle), this.newOutputFile(config), null, supervisor, reportConsumer);
+        this.executeBatch(config, thisBatch.subList(middle, thisBatch.size()), this.newOutputFile(config), null, supervisor, reportConsumer);
+    }
+
+    /**
+     * Runs ESLint once on a batch, reading its report from the output file, or from its standard output when there
+     * is no output file.
+     *
+     * @return false if ESLint timed out, exited abnormally or wrote an unreadable report
+     */
+    private boolean runBatch(EsLintExecutorConfig config, List<String> thisBatch, File eslintOutputFile, File cacheFile, EsLintBatchTimeout timeouts, Consumer<Reader> reportConsumer) {
+        EsLintMetrics.Timer prepare = config.getMetrics().start(EsLintMetrics.PHASE_BATCH_PREPARE);
+        // Cache buckets are not bounded by the command line length, they always go through a file list
+        File fileList = config.isFileList() || cacheFile != null ? this.writeFileList(thisBatch) : null;
+        Command thisCommand = this.getBaseCommand(config, eslintOutputFile == null ? null : eslintOutputFile.getAbsolutePath(), fileList, cacheFile);
+
+        if (fileList == null) {
             for (int fileIndex = 0, nf = thisBatch.size(); fileIndex < nf; fileIndex++) {
-                thisCommand.addArgument(thisBatch.get(fileIndex));
+                thisCommand.addArgument(this.preparePath(thisBatch.get(fileIndex)));
+            }
+        }
+
+        StringStreamConsumer stdOutConsumer = new StringStreamConsumer();
+        StringStreamConsumer stdErrConsumer = new StringStreamConsumer();
+        prepare.stop(thisBatch.size(), 0, 0);
+
+        long bytes = EsLintBatchTimeout.sizeOf(thisBatch);
+        long timeoutMs = timeouts.timeoutFor(thisBatch.size(), bytes);
+        // ESLint creates the report itself, so that a crash cannot leave an older report behind
+        if (eslintOutputFile != null && eslintOutputFile.exists() && !eslintOutputFile.delete()) {
+            LOG.debug("Could not delete the EsLint output file {}", eslintOutputFile);
+        }
+        EsLintFlightRecorder.Event executed = null;
+        try {
+            long start = System.nanoTime();
+            EsLintMetrics.Timer run = config.getMetrics().start(EsLintMetrics.PHASE_BATCH_RUN);
+            executed = EsLintFlightRecorder.BATCH_EXECUTED.begin().set("files", thisBatch.size());
+            int exitCode = eslintOutputFile == null
+                    ? this.streamCommandOutput(thisCommand, stdErrConsumer, timeoutMs, reportConsumer)
+                    : this.getCommandOutput(thisCommand, stdOutConsumer, stdErrConsumer, timeoutMs);
+            run.stop(thisBatch.size(), bytes, 0);
+            executed.set("exitCode", exitCode)
+                    .set("outputBytes", eslintOutputFile == null ? -1 : eslintOutputFile.length())
+                    .commit();
+            // ESLint exits with 1 when it found problems, and with 2 when it crashed or could not be configured
+            if (exitCode >= 2) {
+                LOG.warn("EsLint exited with code {} on a batch of {} files: {}", exitCode, thisBatch.size(), stdErrConsumer.getOutput());
+                return false;
+            }
+            timeouts.record(bytes, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            if (config.getRuleTimings() != null && config.getRuleTimings().addTimingTable(stdOutConsumer.getOutput()) == 0) {
+                LOG.debug("EsLint printed no rule timing for a batch of {} files", thisBatch.size());
+            }
+            if (eslintOutputFile != null) {
+                EsLintMetrics.Timer read = config.getMetrics().start(EsLintMetrics.PHASE_BATCH_READ);
+                long reportBytes = eslintOutputFile.length();
+                this.readOutputFile(eslintOutputFile, reportConsumer);
+                read.stop(thisBatch.size(), reportBytes, 0);
+            }
+            return true;
+        } catch (TimeoutException e) {
+            if (executed != null) {
+                executed.set("exitCode", -1).set("outputBytes", -1).commit();
+            }
+            LOG.warn("EsLint did not complete a batch of {} files within {} ms", thisBatch.size(), timeoutMs);
+            LOG.debug("EsLint timeout", e);
+            return false;
+        } catch (JsonParseException e) {
+            LOG.warn("EsLint wrote an unreadable report for a batch of {} files", thisBatch.size());
+            LOG.debug("EsLint report error", e);
+            return false;
+        } finally {
+            if (fileList != null && !fileList.delete()) {
+                LOG.debug("Could not delete the EsLint file list {}", fileList);
             }
+            if (eslintOutputFile != null && eslintOutputFile.exists() && !eslintOutputFile.delete()) {
+                LOG.debug("Could not delete the EsLint output file {}", eslintOutputFile);
+            }
+        }
+    }
 
-            LOG.debug("Executing EsLint with command: {}", thisCommand.toCommandLine());
+    /**
+     * Creates the file receiving the report of a batch, in the configured output directory if there is one.
+     */
+    private File newOutputFile(EsLintExecutorConfig config) {
+        // The timing tables take the standard output when rules are timed
+        if (config.isStreamOutput() && config.getRuleTimings() == null) {
+            return null;
+        }
+        if (config.getOutputDir() == null) {
+            return this.tempFolder.newFile();
+        }
+        try {
+            Path outputDir = Files.createDirectories(new File(config.getOutputDir()).toPath());
+            return Files.createTempFile(outputDir, "eslint-", ".json").toFile();
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create an EsLint output file in " + config.getOutputDir(), e);
+        }
+    }
 
-            // Timeout is specified per file, not per batch (which can vary a lot)
-            // so multiply it up
-            String commandOutput = this.getCommandOutput(thisCommand, stdOutConsumer, stdErrConsumer, eslintOutputFile, config.getTimeoutMs() * thisBatch.size());
-            toReturn.add(commandOutput);
+    private File writeFileList(List<String> thisBatch) {
+        File fileList = this.tempFolder.newFile("eslint-files", ".txt");
+        try {
+            Files.write(fileList.toPath(), thisBatch, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot write the list of files to lint into " + fileList, e);
         }
+        return fileList;
+    }
 
-        return toReturn;
+    private int getCommandOutput(Command thisCommand, StreamConsumer stdOutConsumer, StreamConsumer stdErrConsumer, long timeoutMs) {
+        LOG.debug("Executing EsLint with command: {}", thisCommand.toCommandLine());
+
+        return this.createExecutor().execute(thisCommand, stdOutConsumer, stdErrConsumer, timeoutMs);
+    }
+
+    protected Process startProcess(Command command) throws IOException {
+        List<String> commandLine = new ArrayList<>(command.getArguments().size() + 1);
+        commandLine.add(command.getExecutable());
+        commandLine.addAll(command.getArguments());
+        ProcessBuilder builder = new ProcessBuilder(commandLine);
+        if (command.getDirectory() != null) {
+            builder.directory(command.getDirectory());
+        }
+        builder.environment().putAll(command.getEnvironmentVariables());
+        return builder.start();
     }
 
-    private String getCommandOutput(Command thisCommand, StreamConsumer stdOutConsumer, StreamConsumer stdErrConsumer, File tslintOutputFile, Integer timeoutMs) {
+    /**
+     * Runs ESLint and hands its standard output to the consumer while ESLint writes it, so the report is parsed as it
+     * arrives and is never held whole in memory. The files of a batch that times out or fails once part of its report
+     * was read have already been handed over, and are reported again when the batch is split: the consumer keeps the
+     * first report of a file, as {@link EsLintPipeline} does.
+     *
+     * @return the exit code of ESLint
+     */
+    private int streamCommandOutput(Command thisCommand, StreamConsumer stdErrConsumer, long timeoutMs, Consumer<Reader> reportConsumer) {
         LOG.debug("Executing EsLint with command: {}", thisCommand.toCommandLine());
 
-        // Timeout is specified per file, not per batch (which can vary a lot)
-        // so multiply it up
-        this.createExecutor().execute(thisCommand, stdOutConsumer, stdErrConsumer, timeoutMs);
+        Process process;
+        try {
+            process = this.startProcess(thisCommand);
+        } catch (IOException e) {
+            throw new CommandException(thisCommand, e);
+        }
+        Thread errorDrain = new Thread(() -> drain(process.getErrorStream(), stdErrConsumer), "eslint-stderr");
+        errorDrain.setDaemon(true);
+        errorDrain.start();
+
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> watchdog = WATCHDOG.schedule(() -> {
+            timedOut.set(true);
+            process.destroyForcibly();
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+        try (Reader report = new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8)) {
+            reportConsumer.accept(report);
+            // Read what the consumer left, ESLint would otherwise block on a full pipe
+            char[] buffer = new char[8192];
+            //noinspection StatementWithEmptyBody
+            while (report.read(buffer) != -1) {
+            }
+            process.waitFor();
+            errorDrain.join(TimeUnit.SECONDS.toMillis(1));
+        } catch (IOException | JsonParseException e) {
+            // A killed ESLint leaves a truncated report behind
+            if (!timedOut.get()) {
+                throw e instanceof JsonParseException ? (JsonParseException) e : new CommandException(thisCommand, e);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for EsLint to complete", e);
+        } finally {
+            watchdog.cancel(false);
+            if (process.isAlive()) {
+                process.destroyForcibly();
+            }
+        }
 
-        StringBuilder outputBuilder = new StringBuilder();
+        if (timedOut.get()) {
+            throw new TimeoutException(thisCommand, "Timeout exceeded: " + timeoutMs + " ms", null);
+        }
+        return process.exitValue();
+    }
+
+    private static void drain(InputStream stream, StreamConsumer consumer) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            //noinspection NestedAssignment
+            while ((line = reader.readLine()) != null) {
+                consumer.consumeLine(line);
+            }
+        } catch (IOException e) {
+            LOG.debug("EsLint error stream closed", e);
+        }
+    }
 
+    private void readOutputFile(File tslintOutputFile, Consumer<Reader> reportConsumer) {
         try (final BufferedReader reader = this.getBufferedReaderForFile(tslintOutputFile)) {
+            reportConsumer.accept(reader);
+            return;
+        } catch (FileNotFoundException ex) {
+            LOG.warn("EsLint did not write its report into {}", tslintOutputFile);
+        } catch (IOException ex) {
+            LOG.error("Failed to re-read EsLint output", ex);
+        }
+
+        reportConsumer.accept(new StringReader(""));
+    }
 
+    private String readReport(Reader report) {
+        StringBuilder outputBuilder = new StringBuilder();
+
+        try {
+            BufferedReader reader = report instanceof BufferedReader ? (BufferedReader) report : new BufferedReader(report);
 
             String str;
             //noinspection NestedAssignment
             while ((str = reader.readLine()) != null) {
                 outputBuilder.append(str);
             }
-
-
-            return outputBuilder.toString();
         } catch (IOException ex) {
             LOG.error("Failed to re-read EsLint output", ex);
         }
 
-        return "";
+        return outputBuilder.toString();
+    }
+
+    /**
+     * State shared by the batches of one execution: the timeout estimate and the files that could not be linted.
+     */
+    private static final class BatchSupervisor {
+        private final EsLintBatchTimeout timeouts;
+        private final List<String> skippedFiles = Collections.synchronizedList(new ArrayList<>());
+
+        private BatchSupervisor(int timeoutPerFileMs) {
+            this.timeouts = new EsLintBatchTimeout(timeoutPerFileMs);
+        }
+    }
+
+    /**
+     * Names the worker threads so that they can be told apart in thread dumps and logs.
+     */
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "eslint-worker-" + this.counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
     }
 }
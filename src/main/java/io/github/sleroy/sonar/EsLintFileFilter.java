@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Finds the files not worth linting before ESLint is started: the files ESLint ignores, the files above the maximum
+ * size, and the minified, bundled or generated ones. A file is read once at most, in a single pass counting its lines,
+ * and only its first and last bytes are looked at.
+ */
+public class EsLintFileFilter {
+    /**
+     * Why a file is skipped.
+     */
+    public enum Reason {
+        IGNORED, TOO_LARGE, MINIFIED_NAME, MINIFIED, GENERATED, SOURCE_MAP
+    }
+
+    /**
+     * Average line length above which a file is considered minified.
+     */
+    static final int MINIFIED_LINE_LENGTH = 200;
+    /**
+     * Size under which the average line length is not looked at, a short one-line file being common.
+     */
+    static final int MINIFIED_MIN_SIZE = 1024;
+
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintFileFilter.class);
+    private static final int HEADER_SIZE = 1024;
+    private static final int TRAILER_SIZE = 512;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String[] GENERATED_MARKERS = { "@generated", "do not edit", "auto-generated",
+        "autogenerated", "automatically generated", "code generated by" };
+
+    private final EsLintIgnore ignore;
+    private final boolean skipGenerated;
+    private final long maxFileSize;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+
+    /**
+     * @param skipGenerated true to skip the minified, bundled and generated files
+     * @param maxFileSize   the size in bytes above which files are skipped, 0 for no limit
+     */
+    public EsLintFileFilter(final boolean skipGenerated, final long maxFileSize) {
+        this(null, skipGenerated, maxFileSize);
+    }
+
+    /**
+     * @param ignore        the files ESLint ignores, or null
+     * @param skipGenerated true to skip the minified, bundled and generated files
+     * @param maxFileSize   the size in bytes above which files are skipped, 0 for no limit
+     */
+    public EsLintFileFilter(final EsLintIgnore ignore, final boolean skipGenerated, final long maxFileSize) {
+        this.ignore = ignore;
+        this.skipGenerated = skipGenerated;
+        this.maxFileSize = maxFileSize;
+    }
+
+    /**
+     * @return true if the filter may skip files
+     */
+    public boolean isEnabled() {
+        return ignore != null || skipGenerated || maxFileSize > 0;
+    }
+
+    /**
+     * Tells whether a file is skipped. The filter is not thread safe.
+     *
+     * @param file the file
+     * @return why the file is skipped, or null if it is linted
+     */
+    public Reason check(final File file) {
+        if (ignore != null && ignore.isIgnored(file.toPath())) {
+            return Reason.IGNORED;
+        }
+        final long size = file.length();
+        if (maxFileSize > 0 && size > maxFileSize) {
+            return Reason.TOO_LARGE;
+        }
+        if (!skipGenerated) {
+            return null;
+        }
+        final String name = file.getName().toLowerCase(Locale.ENGLISH);
+        if (name.endsWith(".min.js") || name.endsWith("-min.js")) {
+            return Reason.MINIFIED_NAME;
+        }
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            return scan(input, size);
+        } catch (final IOException e) {
+            LOG.debug("Cannot read {}, it is linted", file, e);
+            return null;
+        }
+    }
+
+    private Reason scan(final RandomAccessFile input, final long size) throws IOException {
+        long lines = 1;
+        int read;
+        boolean first = true;
+        while ((read = input.read(buffer)) > 0) {
+            if (first && isGenerated(new String(buffer, 0, Math.min(read, HEADER_SIZE), StandardCharsets.UTF_8))) {
+                return Reason.GENERATED;
+            }
+            first = false;
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+        if (size >= MINIFIED_MIN_SIZE && size / lines > MINIFIED_LINE_LENGTH) {
+            return Reason.MINIFIED;
+        }
+
+        final int trailerSize = (int) Math.min(size, TRAILER_SIZE);
+        input.seek(size - trailerSize);
+        input.readFully(buffer, 0, trailerSize);
+        final String trailer = new String(buffer, 0, trailerSize, StandardCharsets.UTF_8);
+        return trailer.contains("# sourceMappingURL=") || trailer.contains("@ sourceMappingURL=")
+            ? Reason.SOURCE_MAP : null;
+    }
+
+    /**
+     * Looks for a generated-code marker in the comments a file starts with, before its first token, so that code
+     * merely mentioning one, such as isAutoGenerated(), is still linted.
+     */
+    static boolean isGenerated(final String header) {
+        final String leadingComments = leadingComments(header).toLowerCase(Locale.ENGLISH);
+        for (final String marker : GENERATED_MARKERS) {
+            if (leadingComments.contains(marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String leadingComments(final String header) {
+        final StringBuilder comments = new StringBuilder();
+        int i = header.startsWith("\uFEFF") ? 1 : 0;
+        if (header.startsWith("#!", i)) {
+            i = lineEnd(header, i);
+        }
+        while (true) {
+            while (i < header.length() && Character.isWhitespace(header.charAt(i))) {
+                i++;
+            }
+            if (header.startsWith("//", i)) {
+                final int end = lineEnd(header, i);
+                comments.append(header, i + 2, end).append('\n');
+                i = end;
+            } else if (header.startsWith("/*", i)) {
+                final int close = header.indexOf("*/", i + 2);
+                final int end = close < 0 ? header.length() : close;
+                comments.append(header, i + 2, end).append('\n');
+                i = close < 0 ? end : close + 2;
+            } else {
+                return comments.toString();
+            }
+        }
+    }
+
+    private static int lineEnd(final String text, final int from) {
+        final int end = text.indexOf('\n', from);
+        return end < 0 ? text.length() : end;
+    }
+}
@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Java Flight Recorder events of the plugin, recorded along with those of the scanner JVM. The plugin runs on Java 8
+ * scanners, so the event types are not compiled against jdk.jfr: they are defined at runtime through
+ * jdk.jfr.EventFactory when the JVM has it, Java 11 and 8u262 onwards, and events do nothing otherwise. Events are
+ * only created while the JVM records.
+ */
+public final class EsLintFlightRecorder {
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintFlightRecorder.class);
+    private static final String CATEGORY = "ESLint";
+
+    private static final Api API = Api.load();
+
+    /**
+     * An ESLint run on a batch: its number of files, its exit code, -1 when it timed out, and the size of its report,
+     * -1 when the report was streamed.
+     */
+    public static final EventType BATCH_EXECUTED = new EventType("io.github.sleroy.sonar.eslint.BatchExecuted",
+        "ESLint Batch Executed", Field.number("files", "Files"), Field.number("exitCode", "Exit Code"),
+        Field.bytes("outputBytes", "Output Size"));
+
+    /**
+     * The parse of a report: its number of files and messages, and its size in characters.
+     */
+    public static final EventType BATCH_PARSED = new EventType("io.github.sleroy.sonar.eslint.BatchParsed",
+        "ESLint Batch Parsed", Field.number("files", "Files"), Field.number("messages", "Messages"),
+        Field.bytes("reportChars", "Report Size"));
+
+    /**
+     * The save of the issues of a file.
+     */
+    public static final EventType ISSUES_SAVED = new EventType("io.github.sleroy.sonar.eslint.IssuesSaved",
+        "ESLint Issues Saved", Field.text("file", "File"), Field.number("issues", "Issues"));
+
+    private EsLintFlightRecorder() {
+    }
+
+    /**
+     * @return true if the JVM supports the events of the plugin
+     */
+    public static boolean isSupported() {
+        return API != null;
+    }
+
+    /**
+     * A type of event, defined when the JVM supports Flight Recorder.
+     */
+    public static final class EventType {
+        private final String name;
+        private final Field[] fields;
+        private final Map<String, Integer> fieldIndexes = new HashMap<>();
+        private final Object factory;
+
+        private EventType(final String name, final String label, final Field... fields) {
+            this.name = name;
+            this.fields = fields;
+            for (int i = 0; i < fields.length; i++) {
+                fieldIndexes.put(fields[i].name, i);
+            }
+            factory = API == null ? null : API.define(name, label, fields);
+        }
+
+        /**
+         * @return the name of the event type
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Starts an event, timed until it is committed.
+         *
+         * @return the event, which does nothing when the JVM does not record
+         */
+        public Event begin() {
+            if (factory == null || !API.isRecording()) {
+                return Event.NONE;
+            }
+            return new Event(this, API.begin(factory));
+        }
+    }
+
+    /**
+     * An event being timed.
+     */
+    public static final class Event {
+        private static final Event NONE = new Event(null, null);
+
+        private final EventType type;
+        private final Object event;
+
+        private Event(final EventType type, final Object event) {
+            this.type = type;
+            this.event = event;
+        }
+
+        /**
+         * Sets a field of the event.
+         *
+         * @param field the name of the field
+         * @param value its value, numbers being converted to the type of the field
+         * @return this event
+         */
+        public Event set(final String field, final Object value) {
+            if (event != null) {
+                final int index = type.fieldIndexes.get(field);
+                final Class<?> fieldType = type.fields[index].type;
+                Object converted = value;
+                if (value instanceof Number) {
+                    converted = fieldType == long.class ? (Object) ((Number) value).longValue()
+                        : (Object) ((Number) value).intValue();
+                }
+                API.set(event, index, converted);
+            }
+            return this;
+        }
+
+        /**
+         * Ends the event and records it.
+         */
+        public void commit() {
+            if (event != null) {
+                API.commit(event);
+            }
+        }
+    }
+
+    private static final class Field {
+        private final Class<?> type;
+        private final String name;
+        private final String label;
+        private final String contentType;
+
+        private Field(final Class<?> type, final String name, final String label, final String contentType) {
+            this.type = type;
+            this.name = name;
+            this.label = label;
+            this.contentType = contentType;
+        }
+
+        private static Field number(final String name, final String label) {
+            return new Field(int.class, name, label, null);
+        }
+
+        private static Field bytes(final String name, final String label) {
+            return new Field(long.class, name, label, "jdk.jfr.DataAmount");
+        }
+
+        private static Field text(final String name, final String label) {
+            return new Field(String.class, name, label, null);
+        }
+    }
+
+    /**
+     * The jdk.jfr methods the events go through.
+     */
+    private static final class Api {
+        private final Constructor<?> annotationElement;
+        private final Constructor<?> valueDescriptor;
+        private final Method createFactory;
+        private final Method newEvent;
+        private final Method isInitialized;
+        private final Method begin;
+        private final Method set;
+        private final Method commit;
+        private final Class<? extends Annotation> nameAnnotation;
+        private final Class<? extends Annotation> labelAnnotation;
+        private final Class<? extends Annotation> categoryAnnotation;
+
+        private Api() throws ReflectiveOperationException {
+            final Class<?> eventClass = Class.forName("jdk.jfr.Event");
+            final Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+            annotationElement = Class.forName("jdk.jfr.AnnotationElement").getConstructor(Class.class, Object.class);
+            valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor")
+                .getConstructor(Class.class, String.class, List.class);
+            createFactory = factoryClass.getMethod("create", List.class, List.class);
+            newEvent = factoryClass.getMethod("newEvent");
+            isInitialized = Class.forName("jdk.jfr.FlightRecorder").getMethod("isInitialized");
+            begin = eventClass.getMethod("begin");
+            set = eventClass.getMethod("set", int.class, Object.class);
+            commit = eventClass.getMethod("commit");
+            nameAnnotation = annotation("jdk.jfr.Name");
+            labelAnnotation = annotation("jdk.jfr.Label");
+            categoryAnnotation = annotation("jdk.jfr.Category");
+        }
+
+        private static Api load() {
+            try {
+                return new Api();
+            } catch (final ReflectiveOperationException | LinkageError e) {
+                LOG.debug("Java Flight Recorder is not available, the ESLint events are not recorded");
+                return null;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Class<? extends Annotation> annotation(final String name) throws ClassNotFoundException {
+            return (Class<? extends Annotation>) Class.forName(name);
+        }
+
+        private Object define(final String name, final String label, final Field... fields) {
+            try {
+                final List<Object> typeAnnotations = Arrays.asList(
+                    annotationElement.newInstance(nameAnnotation, name),
+                    annotationElement.newInstance(labelAnnotation, label),
+                    annotationElement.newInstance(categoryAnnotation, new String[] { CATEGORY }));
+                final List<Object> descriptors = new ArrayList<>(fields.length);
+                for (final Field field : fields) {
+                    final List<Object> fieldAnnotations = new ArrayList<>(2);
+                    fieldAnnotations.add(annotationElement.newInstance(labelAnnotation, field.label));
+                    if (field.contentType != null) {
+                        fieldAnnotations.add(annotationElement.newInstance(annotation(field.contentType), "BYTES"));
+                    }
+                    descriptors.add(valueDescriptor.newInstance(field.type, field.name,
+                        Collections.unmodifiableList(fieldAnnotations)));
+                }
+                return createFactory.invoke(null, typeAnnotations, descriptors);
+            } catch (final ReflectiveOperationException | RuntimeException e) {
+                LOG.debug("Cannot define the {} event", name, e);
+                return null;
+            }
+        }
+
+        private boolean isRecording() {
+            try {
+                return (Boolean) isInitialized.invoke(null);
+            } catch (final ReflectiveOperationException e) {
+                return false;
+            }
+        }
+
+        private Object begin(final Object factory) {
+            try {
+                final Object event = newEvent.invoke(factory);
+                begin.invoke(event);
+                return event;
+            } catch (final ReflectiveOperationException e) {
+                LOG.debug("Cannot start a Flight Recorder event", e);
+                return null;
+            }
+        }
+
+        private void set(final Object event, final int index, final Object value) {
+            try {
+                set.invoke(event, index, value);
+            } catch (final InvocationTargetException | IllegalAccessException e) {
+                LOG.debug("Cannot set the field {} of a Flight Recorder event", index, e);
+            }
+        }
+
+        private void commit(final Object event) {
+            try {
+                commit.invoke(event);
+            } catch (final InvocationTargetException | IllegalAccessException e) {
+                LOG.debug("Cannot commit a Flight Recorder event", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,325 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+
+/**
+ * The files ESLint ignores, so that they are not sent to it: ESLint would only answer with a "File ignored" warning.
+ * The patterns are the default ones of ESLint, those of .eslintignore, or of the eslintIgnore entry of package.json,
+ * and the ignorePatterns of the configuration, as ESLint prints them whatever the format of the configuration file.
+ * When ESLint cannot print them, they are only read from a JSON configuration file. They follow the .gitignore syntax
+ * and are relative to the project base directory, the directory ESLint runs from, which is also where ESLint resolves
+ * the ignorePatterns of a configuration given with --config.
+ * <p>
+ * All of the above only holds for the eslintrc configurations. A flat configuration, eslint.config.js and its
+ * variants, reads no .eslintignore, does not ignore dotfiles and keeps its ignores in the configuration itself, so
+ * only node_modules and .git are left out for it, the other files being left to ESLint.
+ * <p>
+ * Every pattern is compiled once to a regular expression. As with .gitignore, the files of an ignored directory stay
+ * ignored whatever the patterns negated after it, so every directory is only matched once.
+ */
+public class EsLintIgnore {
+    public static final String IGNORE_FILE_NAME = ".eslintignore";
+
+    /**
+     * Ignored by ESLint with an eslintrc configuration unless negated: dependencies and dotfiles.
+     */
+    static final List<String> DEFAULT_PATTERNS = Arrays.asList("/**/node_modules/*", ".*");
+    /**
+     * Ignored by ESLint with a flat configuration: dependencies and the Git directory.
+     */
+    static final List<String> FLAT_DEFAULT_PATTERNS = Arrays.asList("**/node_modules/", ".git/");
+    /**
+     * The names of the flat configuration files, in the order ESLint looks them up.
+     */
+    static final List<String> FLAT_CONFIG_FILES = Arrays.asList("eslint.config.js", "eslint.config.mjs",
+        "eslint.config.cjs", "eslint.config.ts", "eslint.config.mts", "eslint.config.cts");
+
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintIgnore.class);
+    private static final String PACKAGE_JSON = "package.json";
+    private static final String REGEX_SPECIAL_CHARACTERS = ".()+|^${}\\";
+
+    private final Path baseDir;
+    private final List<Rule> rules = new ArrayList<>();
+    private final Map<Path, Boolean> ignoredDirectories = new HashMap<>(256);
+
+    /**
+     * @param baseDir  the directory the patterns are relative to
+     * @param patterns the patterns, in the .gitignore syntax, later ones overriding earlier ones
+     */
+    public EsLintIgnore(final Path baseDir, final List<String> patterns) {
+        this.baseDir = baseDir.toAbsolutePath().normalize();
+        for (final String pattern : patterns) {
+            final Rule rule = Rule.compile(pattern);
+            if (rule != null) {
+                rules.add(rule);
+            }
+        }
+    }
+
+    /**
+     * Reads the ignore patterns of a project, those of the configuration being read from the configuration file.
+     *
+     * @param baseDir    the base directory of the project
+     * @param configFile the ESLint configuration file, or null
+     * @return the ignored files
+     */
+    public static EsLintIgnore load(final File baseDir, final String configFile) {
+        return load(baseDir, configFile, null);
+    }
+
+    /**
+     * Reads the ignore patterns of a project.
+     *
+     * @param baseDir        the base directory of the project
+     * @param configFile     the ESLint configuration file, or null
+     * @param configPatterns the ignorePatterns ESLint printed for the configuration, or null if it could not
+     * @return the ignored files
+     */
+    public static EsLintIgnore load(final File baseDir, final String configFile, final List<String> configPatterns) {
+        if (isFlatConfig(baseDir, configFile)) {
+            LOG.debug("ESLint uses a flat configuration, only its default ignore patterns are read");
+            return new EsLintIgnore(baseDir.toPath(), FLAT_DEFAULT_PATTERNS);
+        }
+        final List<String> patterns = new ArrayList<>(DEFAULT_PATTERNS);
+        final File ignoreFile = new File(baseDir, IGNORE_FILE_NAME);
+        final File packageJson = new File(baseDir, PACKAGE_JSON);
+        if (ignoreFile.isFile()) {
+            try {
+                patterns.addAll(Files.readAllLines(ignoreFile.toPath(), StandardCharsets.UTF_8));
+            } catch (final IOException e) {
+                LOG.warn("Cannot read {}, the files it ignores are left to ESLint", ignoreFile, e);
+            }
+        } else if (packageJson.isFile()) {
+            patterns.addAll(readPatterns(packageJson, "eslintIgnore"));
+        }
+
+        if (configPatterns != null) {
+            // ESLint 6+ also prints the patterns of .eslintignore, read twice they still match the same files
+            patterns.addAll(configPatterns);
+        } else if (configFile != null) {
+            final File config = new File(configFile).isAbsolute() ? new File(configFile) : new File(baseDir, configFile);
+            final String name = config.getName().toLowerCase(Locale.ENGLISH);
+            if (PACKAGE_JSON.equals(name)) {
+                patterns.addAll(readPatterns(config, "eslintConfig", "ignorePatterns"));
+            } else if (name.endsWith(".json") || ".eslintrc".equals(name)) {
+                patterns.addAll(readPatterns(config, "ignorePatterns"));
+            } else {
+                LOG.info("The ignorePatterns of {} cannot be read without ESLint, the files they ignore are sent to ESLint",
+                    config);
+            }
+        }
+
+        final EsLintIgnore ignore = new EsLintIgnore(baseDir.toPath(), patterns);
+        LOG.debug("{} ESLint ignore patterns read", ignore.rules.size());
+        return ignore;
+    }
+
+    /**
+     * Tells whether ESLint reads a flat configuration: the configuration file is an eslint.config file, or there is
+     * none and the base directory holds one.
+     *
+     * @param baseDir    the base directory of the project
+     * @param configFile the ESLint configuration file, or null
+     * @return true for a flat configuration, false for an eslintrc one
+     */
+    public static boolean isFlatConfig(final File baseDir, final String configFile) {
+        if (configFile != null) {
+            return FLAT_CONFIG_FILES.contains(new File(configFile).getName().toLowerCase(Locale.ENGLISH));
+        }
+        for (final String name : FLAT_CONFIG_FILES) {
+            if (new File(baseDir, name).isFile()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tells whether ESLint ignores a file. The matcher is not thread safe.
+     *
+     * @param path the absolute path of the file
+     * @return true if ESLint would not lint the file
+     */
+    public boolean isIgnored(final Path path) {
+        final Path file = path.toAbsolutePath().normalize();
+        if (rules.isEmpty() || !file.startsWith(baseDir) || file.equals(baseDir)) {
+            return false;
+        }
+        final Path directory = file.getParent();
+        if (!directory.equals(baseDir) && isIgnoredDirectory(directory)) {
+            return true;
+        }
+        return matches(baseDir.relativize(file), false);
+    }
+
+    private boolean isIgnoredDirectory(final Path directory) {
+        final Boolean known = ignoredDirectories.get(directory);
+        if (known != null) {
+            return known;
+        }
+        final Path parent = directory.getParent();
+        final boolean ignored = !parent.equals(baseDir) && isIgnoredDirectory(parent)
+            || matches(baseDir.relativize(directory), true);
+        ignoredDirectories.put(directory, ignored);
+        return ignored;
+    }
+
+    private boolean matches(final Path relativePath, final boolean directory) {
+        final String path = relativePath.toString().replace('\\', '/');
+        final String name = relativePath.getFileName().toString();
+        boolean ignored = false;
+        for (final Rule rule : rules) {
+            if (ignored == rule.negated && rule.matches(path, name, directory)) {
+                ignored = !rule.negated;
+            }
+        }
+        return ignored;
+    }
+
+    /**
+     * Reads a list of patterns from a JSON file.
+     *
+     * @param jsonFile the file
+     * @param keys     the keys leading to the list
+     * @return the patterns, none if the file has no such list
+     */
+    private static List<String> readPatterns(final File jsonFile, final String... keys) {
+        final List<String> patterns = new ArrayList<>();
+        try (Reader reader = Files.newBufferedReader(jsonFile.toPath(), StandardCharsets.UTF_8)) {
+            final JsonReader jsonReader = new JsonReader(reader);
+            // Configuration files may hold comments
+            jsonReader.setLenient(true);
+            JsonElement element = new JsonParser().parse(jsonReader);
+            for (final String key : keys) {
+                element = element != null && element.isJsonObject() ? ((JsonObject) element).get(key) : null;
+            }
+            if (element != null && element.isJsonArray()) {
+                for (final JsonElement pattern : (JsonArray) element) {
+                    patterns.add(pattern.getAsString());
+                }
+            } else if (element != null && element.isJsonPrimitive()) {
+                patterns.add(element.getAsString());
+            }
+        } catch (final IOException | JsonParseException | IllegalStateException e) {
+            LOG.debug("Cannot read the ignore patterns of {}, they are left to ESLint", jsonFile, e);
+        }
+        return patterns;
+    }
+
+    /**
+     * Translates a glob to a regular expression: * and ? stay within a directory, ** crosses directories.
+     */
+    static String toRegex(final String glob) {
+        final StringBuilder regex = new StringBuilder(glob.length() * 2);
+        int i = 0;
+        while (i < glob.length()) {
+            final char c = glob.charAt(i);
+            if (c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                final boolean wholeSegment = (i == 0 || glob.charAt(i - 1) == '/')
+                    && i + 2 < glob.length() && glob.charAt(i + 2) == '/';
+                regex.append(wholeSegment ? "(?:.*/)?" : ".*");
+                i += wholeSegment ? 3 : 2;
+                continue;
+            }
+            if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else if (c == '[' && glob.indexOf(']', i + 2) > 0) {
+                final int end = glob.indexOf(']', i + 2);
+                final String range = glob.substring(i + 1, end);
+                regex.append('[').append(range.charAt(0) == '!' ? "^" + range.substring(1) : range).append(']');
+                i = end;
+            } else if (c == '\\' && i + 1 < glob.length()) {
+                i++;
+                regex.append(Pattern.quote(String.valueOf(glob.charAt(i))));
+            } else {
+                if (REGEX_SPECIAL_CHARACTERS.indexOf(c) >= 0) {
+                    regex.append('\\');
+                }
+                regex.append(c);
+            }
+            i++;
+        }
+        return regex.toString();
+    }
+
+    /**
+     * A compiled pattern.
+     */
+    private static final class Rule {
+        private final Pattern regex;
+        private final boolean negated;
+        private final boolean directoryOnly;
+        private final boolean anchored;
+
+        private Rule(final Pattern regex, final boolean negated, final boolean directoryOnly, final boolean anchored) {
+            this.regex = regex;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+            this.anchored = anchored;
+        }
+
+        private static Rule compile(final String line) {
+            String pattern = line.trim();
+            if (pattern.isEmpty() || pattern.charAt(0) == '#') {
+                return null;
+            }
+            final boolean negated = pattern.charAt(0) == '!';
+            if (negated) {
+                pattern = pattern.substring(1);
+            } else if (pattern.startsWith("\\#") || pattern.startsWith("\\!")) {
+                pattern = pattern.substring(1);
+            }
+            final boolean directoryOnly = pattern.endsWith("/");
+            if (directoryOnly) {
+                pattern = pattern.substring(0, pattern.length() - 1);
+            }
+            // A pattern holding a slash is relative to the base directory, the others match at any depth
+            final boolean anchored = pattern.indexOf('/') >= 0;
+            if (pattern.startsWith("/")) {
+                pattern = pattern.substring(1);
+            }
+            if (pattern.isEmpty()) {
+                return null;
+            }
+            return new Rule(Pattern.compile(toRegex(pattern)), negated, directoryOnly, anchored);
+        }
+
+        private boolean matches(final String path, final String name, final boolean directory) {
+            return (directory || !directoryOnly) && regex.matcher(anchored ? path : name).matches();
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Wall time, CPU time and volumes of the phases of an analysis, written as a JSON report so that analyses can be
+ * compared from one build to the next. A phase run several times, once per batch for instance, adds up; the batches
+ * of concurrent workers add up too, so their wall time may exceed the one of the analysis. Phases may also contain
+ * one another: batch.read covers the parse of the report it reads, and batch.run does when reports are streamed.
+ * <p>
+ * CPU time is the one of the scanner threads. The CPU time of the ESLint processes is not known to the JVM.
+ * <p>
+ * When a trace is set, every timed run of a phase is also added to it as a span.
+ */
+public class EsLintMetrics {
+    public static final String REPORT_FILE_NAME = "eslint-metrics.json";
+
+    public static final String PHASE_CONFIG = "config";
+    public static final String PHASE_FILE_MAP = "filemap";
+    public static final String PHASE_PREFILTER = "prefilter";
+    public static final String PHASE_LINT = "lint";
+    /**
+     * Writing the file list and building the command of a batch. Starting the ESLint process is part of the run.
+     */
+    public static final String PHASE_BATCH_PREPARE = "batch.prepare";
+    public static final String PHASE_BATCH_RUN = "batch.run";
+    public static final String PHASE_BATCH_READ = "batch.read";
+    public static final String PHASE_PARSE = "parse";
+    public static final String PHASE_SAVE = "save";
+    public static final String PHASE_IMPORT = "import";
+
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintMetrics.class);
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    private final long startedAt = System.currentTimeMillis();
+    private final long start = System.nanoTime();
+    private final Map<String, Phase> phases = new LinkedHashMap<>();
+    private volatile EsLintTrace trace;
+
+    /**
+     * Starts timing a phase on the current thread.
+     *
+     * @param phase the name of the phase
+     * @return the timer to stop once the phase completes, on the same thread
+     */
+    public Timer start(final String phase) {
+        return new Timer(phase);
+    }
+
+    /**
+     * Adds a run of a phase.
+     *
+     * @param phase     the name of the phase
+     * @param wallNanos its wall time
+     * @param cpuNanos  the CPU time of the thread running it
+     * @param files     the number of files it handled
+     * @param bytes     the number of bytes it read
+     * @param issues    the number of issues it handled
+     */
+    public synchronized void record(final String phase, final long wallNanos, final long cpuNanos, final int files,
+                                    final long bytes, final long issues) {
+        final Phase stats = phases.computeIfAbsent(phase, p -> new Phase());
+        stats.count++;
+        stats.wallNanos += wallNanos;
+        stats.cpuNanos += cpuNanos;
+        stats.files += files;
+        stats.bytes += bytes;
+        stats.issues += issues;
+    }
+
+    /**
+     * @return the timeline receiving the timed runs, or null when the analysis is not traced
+     */
+    public EsLintTrace getTrace() {
+        return trace;
+    }
+
+    public void setTrace(final EsLintTrace trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * @return the names of the recorded phases, in the order they were first recorded
+     */
+    public synchronized List<String> getPhases() {
+        return new ArrayList<>(phases.keySet());
+    }
+
+    /**
+     * @param phase the name of a phase
+     * @return the number of times it ran, 0 if it never did
+     */
+    public synchronized int getCount(final String phase) {
+        final Phase stats = phases.get(phase);
+        return stats == null ? 0 : stats.count;
+    }
+
+    /**
+     * Writes the phases as JSON.
+     *
+     * <pre>
+     * {"startedAt":1700000000000,"wallMs":5120.4,"phases":[{"name":"batch.run","count":8,"wallMs":4410.2,
+     * "cpuMs":12.5,"files":4000,"bytes":18000000,"issues":0,"filesPerSecond":907.0,"issuesPerSecond":0.0}]}
+     * </pre>
+     *
+     * @param reportFile the file to write
+     */
+    public void writeReport(final File reportFile) {
+        try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(reportFile.toPath(), StandardCharsets.UTF_8))) {
+            writer.setIndent("  ");
+            writer.beginObject();
+            writer.name("startedAt").value(startedAt);
+            writer.name("wallMs").value(toMillis(System.nanoTime() - start));
+            writer.name("phases").beginArray();
+            synchronized (this) {
+                for (final Map.Entry<String, Phase> phase : phases.entrySet()) {
+                    final Phase stats = phase.getValue();
+                    final double seconds = stats.wallNanos / (double) TimeUnit.SECONDS.toNanos(1);
+                    writer.beginObject();
+                    writer.name("name").value(phase.getKey());
+                    writer.name("count").value(stats.count);
+                    writer.name("wallMs").value(toMillis(stats.wallNanos));
+                    writer.name("cpuMs").value(toMillis(stats.cpuNanos));
+                    writer.name("files").value(stats.files);
+                    writer.name("bytes").value(stats.bytes);
+                    writer.name("issues").value(stats.issues);
+                    writer.name("filesPerSecond").value(seconds == 0 ? 0 : round(stats.files / seconds));
+                    writer.name("issuesPerSecond").value(seconds == 0 ? 0 : round(stats.issues / seconds));
+                    writer.endObject();
+                }
+            }
+            writer.endArray();
+            writer.endObject();
+            LOG.debug("ESLint metrics written to {}", reportFile);
+        } catch (final IOException e) {
+            LOG.warn("Cannot write the ESLint metrics {}", reportFile, e);
+        }
+    }
+
+    private static double toMillis(final long nanos) {
+        return round(nanos / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
+    private static double round(final double value) {
+        return Math.round(value * 10) / 10.0;
+    }
+
+    private static long threadCpuTime() {
+        return THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : 0;
+    }
+
+    /**
+     * Times a run of a phase.
+     */
+    public final class Timer {
+        private final String phase;
+        private final long wallStart = System.nanoTime();
+        private final long cpuStart = threadCpuTime();
+
+        private Timer(final String phase) {
+            this.phase = phase;
+        }
+
+        /**
+         * Records the run, with the volumes it handled.
+         *
+         * @param files  the number of files
+         * @param bytes  the number of bytes read
+         * @param issues the number of issues
+         */
+        public void stop(final int files, final long bytes, final long issues) {
+            stop(files, bytes, issues, 0);
+        }
+
+        /**
+         * Records the run, leaving out the time it spent waiting for another phase.
+         *
+         * @param files       the number of files
+         * @param bytes       the number of bytes read
+         * @param issues      the number of issues
+         * @param waitedNanos the wall time spent waiting
+         */
+        public void stop(final int files, final long bytes, final long issues, final long waitedNanos) {
+            final long wallEnd = System.nanoTime();
+            record(phase, wallEnd - wallStart - waitedNanos, threadCpuTime() - cpuStart, files, bytes, issues);
+            final EsLintTrace currentTrace = trace;
+            if (currentTrace != null) {
+                currentTrace.addSpan(phase, wallStart, wallEnd, files, bytes, issues, waitedNanos);
+            }
+        }
+    }
+
+    private static final class Phase {
+        private int count;
+        private long wallNanos;
+        private long cpuNanos;
+        private int files;
+        private long bytes;
+        private long issues;
+    }
+}
@@ -10,71 +10,308 @@
  */
 package io.github.sleroy.sonar;
 
+import java.io.EOFException;
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.regex.Pattern;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Collector;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import javax.annotation.Nonnull;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.sonar.api.batch.ScannerSide;
+import org.sonar.api.config.Configuration;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonIOException;
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.MalformedJsonException;
 
 import io.github.sleroy.sonar.api.EsLintParser;
 import io.github.sleroy.sonar.model.EsLintFile;
+import io.github.sleroy.sonar.model.EsLintFileIssues;
 import io.github.sleroy.sonar.model.EsLintIssue;
 
 @ScannerSide
 public class EsLintParserImpl implements EsLintParser {
     private static final Logger	 LOG		 = LoggerFactory.getLogger(EsLintParserImpl.class);
-    private static final Pattern REPLACE_PATTERN = Pattern.compile("\\]\\[");
 
-    private static String getFixedUpOutput(final String toParse) {
-	if (toParse.contains("][")) {
-	    // Pre 4.0.0-versions of TsLint return nonsense for its JSON output
-	    // when faced with multiple files so we need to fix it up before we
-	    // do anything else
-	    return EsLintParserImpl.REPLACE_PATTERN.matcher(toParse).replaceAll(",");
-	}
+    private final Gson gson = new GsonBuilder().create();
+    private final boolean lean;
+    private final AtomicLong skippedChars = new AtomicLong();
+
+    public EsLintParserImpl() {
+	this(true);
+    }
+
+    public EsLintParserImpl(final Configuration settings) {
+	this(settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_LEAN_PARSING).orElse(Boolean.TRUE));
+    }
 
-	return toParse;
+    /**
+     * @param lean when true, only the members the sensor uses are read and the others, such as the source of the
+     *             files, the fixes and the suggestions, are skipped without being deserialised
+     */
+    public EsLintParserImpl(final boolean lean) {
+	this.lean = lean;
     }
 
     @Override
     public @Nonnull Map<String, List<EsLintIssue>> parse(final List<String> toParse) {
-	final GsonBuilder builder = new GsonBuilder();
-	final Gson gson = builder.create();
+	final int parallelism = Math.min(toParse.size(), Runtime.getRuntime().availableProcessors());
+	if (parallelism <= 1) {
+	    return groupByFile(toParse.stream());
+	}
 
-	final List<EsLintFile> allScannedFiles = new ArrayList<>(100);
+	// Batches are parsed in parallel on a pool of their own, leaving the common pool alone
+	final ForkJoinPool pool = new ForkJoinPool(parallelism);
+	try {
+	    return pool.submit(() -> groupByFile(toParse.parallelStream())).get();
+	} catch (final InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    throw new IllegalStateException("Interrupted while parsing the EsLint reports", e);
+	} catch (final ExecutionException e) {
+	    if (e.getCause() instanceof RuntimeException) {
+		throw (RuntimeException) e.getCause();
+	    }
+	    throw new IllegalStateException("Cannot parse the EsLint reports", e.getCause());
+	} finally {
+	    pool.shutdown();
+	}
+    }
 
-	for (final String batch : toParse) {
-	    final EsLintFile[] batchIssues = gson.fromJson(EsLintParserImpl.getFixedUpOutput(batch),
-		    EsLintFile[].class);
+    /**
+     * Remaps the issues of the batches by file name. The stream is ordered and the collector is not concurrent, so
+     * the issues of a file reported by several batches keep the order of the batches, however they were scheduled.
+     */
+    private Map<String, List<EsLintIssue>> groupByFile(final Stream<String> batches) {
+	return batches.flatMap(batch -> {
+	    final List<EsLintFile> files = new ArrayList<>();
+	    parse(new StringReader(batch), files::add);
+	    return files.stream();
+	}).collect(Collectors.groupingBy(f -> f.getFilePath().replace('\\', '/'),
+		Collector.of(ArrayList::new, EsLintParserImpl::addMessages, (left, right) -> {
+		    left.addAll(right);
+		    return left;
+		})));
+    }
 
-	    if (batchIssues == null) {
-		continue;
+    private static void addMessages(final List<EsLintIssue> issues, final EsLintFile file) {
+	if (file.getMessages() != null) {
+	    issues.addAll(file.getMessages());
+	}
+    }
+
+    @Override
+    public void parse(final Reader rawOutput, final Consumer<EsLintFile> fileConsumer) {
+	read(rawOutput, (reader, counter) -> {
+	    final EsLintFile file = lean ? readFile(reader, counter) : gson.fromJson(reader, EsLintFile.class);
+	    if (file != null) {
+		fileConsumer.accept(file);
 	    }
-	    allScannedFiles.addAll(Arrays.asList(batchIssues));
+	});
+    }
+
+    @Override
+    public void parseIssues(final Reader rawOutput, final BiConsumer<String, EsLintFileIssues> fileConsumer) {
+	if (!lean) {
+	    EsLintParser.super.parseIssues(rawOutput, fileConsumer);
+	    return;
+	}
+	read(rawOutput, (reader, counter) -> readFileIssues(reader, counter, fileConsumer));
+    }
+
+    /**
+     * Reads the files of a report one at a time.
+     */
+    private void read(final Reader rawOutput, final ReportFileReader fileReader) {
+	// Pre 4.0.0-versions of TsLint return nonsense for its JSON output
+	// when faced with multiple files, one array after the other, which
+	// the lenient reader accepts as several documents
+	final CountingReader counter = new CountingReader(rawOutput);
+	final JsonReader reader = new JsonReader(counter);
+	reader.setLenient(true);
+	try {
+	    if (isEmpty(reader)) {
+		return;
+	    }
+	    while (reader.peek() != JsonToken.END_DOCUMENT) {
+		if (reader.peek() == JsonToken.NULL) {
+		    reader.nextNull();
+		    continue;
+		}
+		// Only one file of the report is in memory at a time
+		reader.beginArray();
+		while (reader.hasNext()) {
+		    fileReader.read(reader, counter);
+		}
+		reader.endArray();
+	    }
+	} catch (final EOFException | MalformedJsonException | IllegalStateException e) {
+	    throw new JsonSyntaxException(e);
+	} catch (final IOException e) {
+	    throw new JsonIOException(e);
 	}
+    }
 
-	// Remap by filename
-	final Map<String, List<EsLintFile>> fileBag = allScannedFiles
-		.stream().collect(Collectors.groupingBy(f -> f.getFilePath().replace('\\', '/')));
+    /**
+     * Reads one linted file of a report.
+     */
+    @FunctionalInterface
+    private interface ReportFileReader {
+	void read(JsonReader reader, CountingReader counter) throws IOException;
+    }
 
-	// Reduce all issues
-	final Map<String, List<EsLintIssue>> toIssues = fileBag.entrySet().stream()
-		.collect(Collectors.toMap(
-			Entry::getKey, v -> v.getValue().stream().map(EsLintFile::getMessages)
-				.flatMap(List::stream)
-				.collect(Collectors.toList())));
+    @Override
+    public long getSkippedChars() {
+	return skippedChars.get();
+    }
 
-	return toIssues;
+    /**
+     * Reads a linted file, keeping only its path and the members of its messages that the sensor uses.
+     */
+    private EsLintFile readFile(final JsonReader reader, final CountingReader counter) throws IOException {
+	if (reader.peek() == JsonToken.NULL) {
+	    reader.nextNull();
+	    return null;
+	}
+	final EsLintFile file = new EsLintFile();
+	reader.beginObject();
+	while (reader.hasNext()) {
+	    switch (reader.nextName()) {
+	    case "filePath":
+		file.setFilePath(nextStringOrNull(reader));
+		break;
+	    case "messages":
+		file.setMessages(readIssues(reader, counter));
+		break;
+	    case "errorCount":
+		file.setErrorCount(reader.nextInt());
+		break;
+	    case "warningCount":
+		file.setWarningCount(reader.nextInt());
+		break;
+	    default:
+		skip(reader, counter);
+		break;
+	    }
+	}
+	reader.endObject();
+	return file;
+    }
+
+    private List<EsLintIssue> readIssues(final JsonReader reader, final CountingReader counter) throws IOException {
+	if (reader.peek() == JsonToken.NULL) {
+	    reader.nextNull();
+	    return null;
+	}
+	return EsLintFileIssues.read(reader, skipped -> skip(skipped, counter)).toIssues();
+    }
+
+    /**
+     * Reads a linted file straight into its issues, without creating an object per message.
+     */
+    private void readFileIssues(final JsonReader reader, final CountingReader counter,
+	    final BiConsumer<String, EsLintFileIssues> fileConsumer) throws IOException {
+	if (reader.peek() == JsonToken.NULL) {
+	    reader.nextNull();
+	    return;
+	}
+	String filePath = null;
+	EsLintFileIssues issues = null;
+	reader.beginObject();
+	while (reader.hasNext()) {
+	    switch (reader.nextName()) {
+	    case "filePath":
+		filePath = nextStringOrNull(reader);
+		break;
+	    case "messages":
+		issues = EsLintFileIssues.read(reader, skipped -> skip(skipped, counter));
+		break;
+	    default:
+		skip(reader, counter);
+		break;
+	    }
+	}
+	reader.endObject();
+	fileConsumer.accept(filePath, issues == null ? new EsLintFileIssues(0) : issues);
+    }
+
+    /**
+     * Skips a value without deserialising it and accounts for its size. The reader hands characters to the JSON
+     * reader a buffer at a time, so a single count is only accurate to a buffer, but the errors even out over a report.
+     */
+    private void skip(final JsonReader reader, final CountingReader counter) throws IOException {
+	final long before = counter.count;
+	reader.skipValue();
+	skippedChars.addAndGet(counter.count - before);
+    }
+
+    private static String nextStringOrNull(final JsonReader reader) throws IOException {
+	if (reader.peek() == JsonToken.NULL) {
+	    reader.nextNull();
+	    return null;
+	}
+	return reader.nextString();
+    }
+
+    /**
+     * Tells whether the report has no content at all, which ESLint gives when it crashed before writing anything.
+     */
+    private static boolean isEmpty(final JsonReader reader) throws IOException {
+	try {
+	    reader.peek();
+	    return false;
+	} catch (final EOFException e) {
+	    return true;
+	}
+    }
+
+    /**
+     * Counts the characters read from the report.
+     */
+    static final class CountingReader extends FilterReader {
+	private long count;
+
+	CountingReader(final Reader in) {
+	    super(in);
+	}
+
+	long getCount() {
+	    return count;
+	}
+
+	@Override
+	public int read() throws IOException {
+	    final int c = super.read();
+	    if (c != -1) {
+		count++;
+	    }
+	    return c;
+	}
+
+	@Override
+	public int read(final char[] buffer, final int offset, final int length) throws IOException {
+	    final int read = super.read(buffer, offset, length);
+	    if (read > 0) {
+		count += read;
+	    }
+	    return read;
+	}
     }
 }
\ No newline at end of file
@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.github.sleroy.sonar.api.EsLintExecutor;
+import io.github.sleroy.sonar.api.EsLintParser;
+import io.github.sleroy.sonar.model.EsLintIssueStore;
+
+/**
+ * Lints, parses and saves at the same time. ESLint runs on a thread of its own and every file of its reports is
+ * handed to the calling thread as soon as it is parsed, while the other batches are still being linted. Parsed files
+ * wait in an {@link EsLintIssueStore} until they are handed over, and parsing blocks once {@link #CAPACITY} of them
+ * are waiting, so memory does not grow with the number of issues of the analysis.
+ * <p>
+ * Files are handed over in the order their reports are parsed. With several workers, batches finish in no particular
+ * order, so neither the order of the files given to {@link #run} nor the one of the batches is kept: handlers must not
+ * depend on it. Handing the batches over in order would mean holding every batch that finishes early, whatever its
+ * size, which is what {@link #CAPACITY} prevents.
+ */
+public class EsLintPipeline {
+    /**
+     * The number of parsed files that may wait to be handed over.
+     */
+    public static final int CAPACITY = 256;
+
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintPipeline.class);
+    // File paths never hold a NUL character
+    private static final String END_OF_REPORTS = "\u0000";
+
+    private final EsLintExecutor executor;
+    private final EsLintParser parser;
+
+    /**
+     * Receives the issues of the linted files, one file at a time and in no guaranteed order, on the thread running
+     * the pipeline.
+     */
+    @FunctionalInterface
+    public interface FileHandler {
+        /**
+         * @param filePath the path of the file, with forward slashes
+         * @param issues   the store holding the issues of the file, which are released once the handler returns
+         */
+        void handle(String filePath, EsLintIssueStore issues);
+    }
+
+    public EsLintPipeline(final EsLintExecutor executor, final EsLintParser parser) {
+        this.executor = executor;
+        this.parser = parser;
+    }
+
+    /**
+     * Lints files and hands their issues over as they are parsed. A file reported twice, which happens when a batch
+     * is split after part of its report was streamed, is only handed over once: its second report is dropped before
+     * it reaches the store, so it never replaces the issues the handler may be reading.
+     *
+     * @param config  the ESLint configuration
+     * @param files   the files to lint
+     * @param handler receives the issues of every reported file
+     */
+    public void run(final EsLintExecutorConfig config, final List<String> files, final FileHandler handler) {
+        final EsLintIssueStore issues = new EsLintIssueStore();
+        final BlockingQueue<String> parsedFiles = new ArrayBlockingQueue<>(CAPACITY);
+        final AtomicBoolean cancelled = new AtomicBoolean();
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        // The workers of the executor may parse several reports at once
+        final Set<String> reportedFiles = ConcurrentHashMap.newKeySet(files.size());
+
+        final Thread lintThread = new Thread(() -> {
+            try {
+                executor.execute(config, files, report -> {
+                    final EsLintParserImpl.CountingReader countingReport = new EsLintParserImpl.CountingReader(report);
+                    final ParseVolumes volumes = new ParseVolumes();
+                    final EsLintMetrics.Timer parse = config.getMetrics().start(EsLintMetrics.PHASE_PARSE);
+                    final EsLintFlightRecorder.Event parsed = EsLintFlightRecorder.BATCH_PARSED.begin();
+                    parser.parseIssues(countingReport, (reportedPath, fileIssues) -> {
+                        if (cancelled.get() || reportedPath == null) {
+                            return;
+                        }
+                        final String filePath = reportedPath.replace('\\', '/');
+                        if (!reportedFiles.add(filePath)) {
+                            LOG.debug("The file {} was reported again, its first report is kept", filePath);
+                            return;
+                        }
+                        issues.put(filePath, fileIssues);
+                        volumes.files++;
+                        volumes.issues += issues.issueCount(filePath);
+                        final long waitStart = System.nanoTime();
+                        handOver(parsedFiles, filePath, cancelled);
+                        volumes.waitedNanos += System.nanoTime() - waitStart;
+                    });
+                    // The time spent waiting for the handler is not parsing time
+                    parse.stop(volumes.files, countingReport.getCount(), volumes.issues, volumes.waitedNanos);
+                    parsed.set("files", volumes.files).set("messages", volumes.issues)
+                        .set("reportChars", countingReport.getCount()).commit();
+                });
+            } catch (final RuntimeException e) {
+                failure.set(e);
+            } finally {
+                handOver(parsedFiles, END_OF_REPORTS, cancelled);
+            }
+        }, "eslint-pipeline");
+        lintThread.setDaemon(true);
+        lintThread.start();
+
+        boolean completed = false;
+        try {
+            String filePath;
+            //noinspection NestedAssignment
+            while (!END_OF_REPORTS.equals(filePath = parsedFiles.take())) {
+                handler.handle(filePath, issues);
+                issues.remove(filePath);
+            }
+            completed = true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for EsLint to complete", e);
+        } finally {
+            if (!completed) {
+                // Nobody takes the parsed files anymore, ESLint is stopped
+                cancelled.set(true);
+                lintThread.interrupt();
+            }
+        }
+
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * What the parse of a report went through, filled on the thread parsing it.
+     */
+    private static final class ParseVolumes {
+        private int files;
+        private long issues;
+        private long waitedNanos;
+    }
+
+    private static void handOver(final BlockingQueue<String> parsedFiles, final String filePath,
+                                 final AtomicBoolean cancelled) {
+        try {
+            //noinspection StatementWithEmptyBody
+            while (!cancelled.get() && !parsedFiles.offer(filePath, 100, TimeUnit.MILLISECONDS)) {
+                // Waits for the handler to catch up
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -60,6 +60,192 @@ import org.sonar.api.PropertyType;
                 description = "Maximum time to wait for ESLint execution to finish before aborting (in milliseconds)",
                 project = true,
                 global = false
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_WORKERS,
+                defaultValue = "",
+                type = PropertyType.INTEGER,
+                name = "ESLint workers",
+                description = "Number of ESLint processes run concurrently, one batch of files each. Not used with the daemon. Defaults to the number of available processors",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_DAEMON,
+                defaultValue = "false",
+                type = PropertyType.BOOLEAN,
+                name = "ESLint daemon",
+                description = "Lint every batch of every module with a single long-lived Node process instead of starting ESLint for each batch. The daemon lints the batches one after the other, and a batch it cannot lint in time is linted again by a new ESLint process",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_FILE_LIST,
+                defaultValue = "false",
+                type = PropertyType.BOOLEAN,
+                name = "Pass files to ESLint through a file list",
+                description = "Hand the files to lint to ESLint through a temporary file list instead of the command line, which lifts the command line length limit on batches",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_BATCH_SIZE,
+                defaultValue = "500",
+                type = PropertyType.INTEGER,
+                name = "ESLint batch size",
+                description = "Maximum number of files linted by a single ESLint run when files are not passed on the command line",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_CACHE,
+                defaultValue = "false",
+                type = PropertyType.BOOLEAN,
+                name = "Cache ESLint results",
+                description = "Keep the ESLint results of every file in a persistent cache and only lint the files whose content, ESLint configuration, ESLint version or rules directory changed",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_CACHE_DIR,
+                defaultValue = EsLintResultCache.DEFAULT_CACHE_DIR,
+                type = PropertyType.STRING,
+                name = "ESLint cache directory",
+                description = "Directory holding the ESLint result cache, relative to the project base directory. It has to be kept between analyses",
+                project = true,
+                global = false
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_CACHE_SIZE,
+                defaultValue = "100000",
+                type = PropertyType.INTEGER,
+                name = "ESLint cache size",
+                description = "Maximum number of files kept in the ESLint result cache, the least recently used ones are evicted first",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_NATIVE_CACHE,
+                defaultValue = "false",
+                type = PropertyType.BOOLEAN,
+                name = "Use the ESLint cache",
+                description = "Run ESLint with --cache, storing its cache in the ESLint cache directory so that unchanged files are not linted again. Not used by the ESLint daemon",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_CHANGED_FILES_ONLY,
+                defaultValue = "false",
+                type = PropertyType.BOOLEAN,
+                name = "Lint changed files only",
+                description = "Only lint the files the scanner reports as added or changed, for pull request and short-lived branch analyses. Unchanged files get the issues last recorded in the ESLint cache directory for the same content and configuration, and are linted when there are none. Other analyses lint every file",
+                project = true,
+                global = false
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_OUTPUT_DIR,
+                type = PropertyType.STRING,
+                name = "ESLint output directory",
+                description = "Directory receiving the ESLint reports, a tmpfs mount for instance. Each batch writes its own report, deleted once parsed. Defaults to the temporary folder of the analysis",
+                project = false,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_STREAM_OUTPUT,
+                defaultValue = "false",
+                type = PropertyType.BOOLEAN,
+                name = "Stream ESLint reports",
+                description = "Read the ESLint reports from its standard output while ESLint writes them, instead of writing them to disk and reading them back",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_PROFILE_RULES_ONLY,
+                defaultValue = "false",
+                type = PropertyType.BOOLEAN,
+                name = "Run the quality profile rules only",
+                description = "Switch off, on the ESLint command line, the rules of the ESLint configuration that are not active in the quality profile, so that ESLint does not spend time on issues that would be dropped",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_LEAN_PARSING,
+                defaultValue = "true",
+                type = PropertyType.BOOLEAN,
+                name = "Lean ESLint report parsing",
+                description = "Only keep the parts of the ESLint reports that issues are built from. The source of the files, the fixes and the suggestions are skipped while parsing",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_RULE_TIMING,
+                defaultValue = "0",
+                type = PropertyType.INTEGER,
+                name = "ESLint rule timing",
+                description = "Number of the most expensive ESLint rules logged at the end of the analysis, 0 to not time the rules. ESLint runs with TIMING=all and the time of every rule, summed over all the batches, is written to eslint-rule-timing.txt in the working directory",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_TRACE,
+                defaultValue = "false",
+                type = PropertyType.BOOLEAN,
+                name = "ESLint trace",
+                description = "Write the timeline of the analysis to eslint-trace.json in the working directory, in the trace event format read by chrome://tracing and Perfetto. Every worker gets a track with the preparation, run and report read of its batches",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_REPORT_PATHS,
+                type = PropertyType.STRING,
+                multiValues = true,
+                name = "ESLint report paths",
+                description = "ESLint JSON reports to import instead of running ESLint, comma separated. Paths are absolute or relative to the project base directory and may hold * ? and ** wildcards. Reports written from another directory or machine are mapped to the project files",
+                project = true,
+                global = false
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_SHARD,
+                type = PropertyType.STRING,
+                name = "ESLint shard",
+                description = "Lint only one shard of the files, written as index/count such as 3/8, so that several machines lint the project side by side. The shard writes its issues to eslint-shard-3-of-8.json in the shard directory instead of saving them; an analysis importing the shard results through sonar.eslint.reportPaths merges them",
+                project = true,
+                global = false
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_SHARD_DIR,
+                type = PropertyType.STRING,
+                name = "ESLint shard directory",
+                description = "Directory receiving the result file of a shard, relative to the project base directory. Defaults to the working directory",
+                project = true,
+                global = false
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_SKIP_GENERATED,
+                defaultValue = "false",
+                type = PropertyType.BOOLEAN,
+                name = "Skip generated files",
+                description = "Do not lint the minified, bundled and generated files: *.min.js files, files whose average line is longer than 200 characters, files starting with a generated-code header such as @generated or DO NOT EDIT, and files ending with a sourceMappingURL comment",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_MAX_FILE_SIZE,
+                defaultValue = "0",
+                type = PropertyType.INTEGER,
+                name = "Maximum file size",
+                description = "Size in KB above which files are not linted, 0 for no limit",
+                project = true,
+                global = true
+        ),
+        @Property(
+                key = EsLintPlugin.SETTING_ES_LINT_SKIP_IGNORED,
+                defaultValue = "false",
+                type = PropertyType.BOOLEAN,
+                name = "Skip ignored files",
+                description = "Do not send ESLint the files it ignores: node_modules directories, and with an eslintrc configuration dotfiles, the patterns of .eslintignore and the ignorePatterns of the configuration. Off by default, ESLint then matches them itself",
+                project = true,
+                global = true
         )
 })
 public class EsLintPlugin implements Plugin {
@@ -69,6 +255,27 @@ public class EsLintPlugin implements Plugin {
     public static final String SETTING_ES_LINT_TIMEOUT = "sonar.eslint.eslinttimeout";
     public static final String SETTING_ES_LINT_RULES_DIR = "sonar.eslint.eslintrulesdir";
     public static final String SETTING_ES_RULE_CONFIGS = "sonar.eslint.ruleconfigs";
+    public static final String SETTING_ES_LINT_WORKERS = "sonar.eslint.workers";
+    public static final String SETTING_ES_LINT_DAEMON = "sonar.eslint.daemon";
+    public static final String SETTING_ES_LINT_FILE_LIST = "sonar.eslint.filelist";
+    public static final String SETTING_ES_LINT_BATCH_SIZE = "sonar.eslint.batchsize";
+    public static final String SETTING_ES_LINT_CACHE = "sonar.eslint.cache";
+    public static final String SETTING_ES_LINT_CACHE_DIR = "sonar.eslint.cachedir";
+    public static final String SETTING_ES_LINT_CACHE_SIZE = "sonar.eslint.cachesize";
+    public static final String SETTING_ES_LINT_NATIVE_CACHE = "sonar.eslint.nativecache";
+    public static final String SETTING_ES_LINT_CHANGED_FILES_ONLY = "sonar.eslint.changedfilesonly";
+    public static final String SETTING_ES_LINT_OUTPUT_DIR = "sonar.eslint.outputdir";
+    public static final String SETTING_ES_LINT_STREAM_OUTPUT = "sonar.eslint.streamoutput";
+    public static final String SETTING_ES_LINT_LEAN_PARSING = "sonar.eslint.leanparsing";
+    public static final String SETTING_ES_LINT_PROFILE_RULES_ONLY = "sonar.eslint.profilerulesonly";
+    public static final String SETTING_ES_LINT_RULE_TIMING = "sonar.eslint.ruletiming";
+    public static final String SETTING_ES_LINT_TRACE = "sonar.eslint.trace";
+    public static final String SETTING_ES_LINT_REPORT_PATHS = "sonar.eslint.reportPaths";
+    public static final String SETTING_ES_LINT_SHARD = "sonar.eslint.shard";
+    public static final String SETTING_ES_LINT_SHARD_DIR = "sonar.eslint.sharddir";
+    public static final String SETTING_ES_LINT_SKIP_GENERATED = "sonar.eslint.skipgenerated";
+    public static final String SETTING_ES_LINT_MAX_FILE_SIZE = "sonar.eslint.maxfilesize";
+    public static final String SETTING_ES_LINT_SKIP_IGNORED = "sonar.eslint.skipignored";
 
 
     @Override
@@ -84,6 +291,7 @@ public class EsLintPlugin implements Plugin {
 
         // Additional services to be DI'd into the above
         ctx.addExtension(PathResolverImpl.class);
+        ctx.addExtension(EsLintDaemon.class);
         ctx.addExtension(EsLintExecutorImpl.class);
         ctx.addExtension(EsLintParserImpl.class);
 
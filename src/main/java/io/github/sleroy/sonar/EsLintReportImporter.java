@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+
+/**
+ * Finds the ESLint reports written before the analysis and maps the files they report to the files of the project.
+ * A report may have been written on another machine, from another directory: its paths are then matched to the
+ * project files by their longest common end, and the root it reveals is reused for the next paths.
+ */
+public class EsLintReportImporter {
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintReportImporter.class);
+    private static final String GLOB_CHARACTERS = "*?[{";
+
+    private final Path baseDir;
+    private final Map<String, InputFile> byAbsolutePath;
+    private final Map<String, InputFile> byRelativePath;
+    private final List<String> roots = new ArrayList<>();
+
+    /**
+     * @param baseDir the base directory of the project
+     * @param files   the files reports are mapped to
+     */
+    public EsLintReportImporter(final File baseDir, final Collection<InputFile> files) {
+        this.baseDir = baseDir.toPath().toAbsolutePath().normalize();
+        byAbsolutePath = new HashMap<>(files.size());
+        byRelativePath = new HashMap<>(files.size());
+        for (final InputFile file : files) {
+            final Path path = Paths.get(file.uri()).normalize();
+            byAbsolutePath.put(toSlashes(path.toString()), file);
+            if (path.startsWith(this.baseDir)) {
+                byRelativePath.put(toSlashes(this.baseDir.relativize(path).toString()), file);
+            }
+        }
+    }
+
+    /**
+     * Finds the report files. Patterns are paths, absolute or relative to the base directory, which may hold
+     * wildcards: {@code *} and {@code ?} within a directory, {@code **} across directories.
+     *
+     * @param baseDir  the base directory of the project
+     * @param patterns the report paths or patterns
+     * @return the report files, in the order of the patterns, then of their paths
+     */
+    public static List<File> findReports(final File baseDir, final String[] patterns) {
+        final List<File> reports = new ArrayList<>();
+        for (final String rawPattern : patterns) {
+            final String pattern = toSlashes(rawPattern.trim());
+            if (pattern.isEmpty()) {
+                continue;
+            }
+            final int firstGlob = indexOfGlob(pattern);
+            if (firstGlob < 0) {
+                final File report = resolve(baseDir, pattern);
+                if (report.isFile()) {
+                    reports.add(report);
+                } else {
+                    LOG.warn("The ESLint report {} does not exist", report);
+                }
+                continue;
+            }
+
+            // Walks the directory before the first wildcard
+            final int rootEnd = pattern.lastIndexOf('/', firstGlob);
+            final File root = rootEnd < 0 ? baseDir : resolve(baseDir, rootEnd == 0 ? "/" : pattern.substring(0, rootEnd));
+            final String glob = pattern.substring(rootEnd + 1);
+            final List<File> found = walk(root.toPath(), glob);
+            if (found.isEmpty()) {
+                LOG.warn("No ESLint report matches {}", pattern);
+            }
+            reports.addAll(found);
+        }
+        return reports;
+    }
+
+    /**
+     * Returns the project file of a path of a report.
+     *
+     * @param reportedPath the path ESLint reported
+     * @return the file, or null if no project file matches
+     */
+    public InputFile resolve(final String reportedPath) {
+        final String path = toSlashes(reportedPath);
+        InputFile file = byAbsolutePath.get(path);
+        if (file != null) {
+            return file;
+        }
+        file = byRelativePath.get(path);
+        if (file != null) {
+            return file;
+        }
+        for (final String root : roots) {
+            if (path.startsWith(root)) {
+                file = byRelativePath.get(path.substring(root.length()));
+                if (file != null) {
+                    return file;
+                }
+            }
+        }
+
+        // The longest end of the path naming a project file reveals the root the report was written from
+        int slash = path.indexOf('/');
+        while (slash >= 0) {
+            file = byRelativePath.get(path.substring(slash + 1));
+            if (file != null) {
+                final String root = path.substring(0, slash + 1);
+                roots.add(root);
+                LOG.info("ESLint report paths under {} are mapped to {}", root, baseDir);
+                return file;
+            }
+            slash = path.indexOf('/', slash + 1);
+        }
+        return null;
+    }
+
+    /**
+     * @return the roots of the reports written from another directory, found so far
+     */
+    public List<String> getRoots() {
+        return roots;
+    }
+
+    private static List<File> walk(final Path root, final String glob) {
+        if (!Files.isDirectory(root)) {
+            return new ArrayList<>();
+        }
+        final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        // **/ also matches no directory at all
+        final PathMatcher topLevelMatcher = glob.startsWith("**/")
+            ? FileSystems.getDefault().getPathMatcher("glob:" + glob.substring(3)) : matcher;
+        try (Stream<Path> paths = Files.walk(root)) {
+            return paths.filter(Files::isRegularFile)
+                .filter(path -> {
+                    final Path relative = root.relativize(path);
+                    return matcher.matches(relative) || topLevelMatcher.matches(relative);
+                })
+                .sorted()
+                .map(Path::toFile)
+                .collect(Collectors.toList());
+        } catch (final IOException e) {
+            LOG.warn("Cannot look for ESLint reports in {}", root, e);
+            return new ArrayList<>();
+        }
+    }
+
+    private static File resolve(final File baseDir, final String path) {
+        final File file = new File(path);
+        return file.isAbsolute() ? file : new File(baseDir, path);
+    }
+
+    private static int indexOfGlob(final String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (GLOB_CHARACTERS.indexOf(pattern.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String toSlashes(final String path) {
+        return path.replace('\\', '/');
+    }
+}
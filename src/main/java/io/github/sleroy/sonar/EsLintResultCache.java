@@ -0,0 +1,596 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.config.Configuration;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import io.github.sleroy.sonar.model.EsLintFileIssues;
+
+/**
+ * Persistent cache of ESLint results. Entries are keyed by the content of the linted file, its path relative to the
+ * base directory and everything in the ESLint environment that may change the result: the effective configuration
+ * printed by ESLint, the content of every configuration file ESLint may resolve for the linted files, the versions of
+ * ESLint, of its plugins and parser, the content of the custom rules directory and the rules overridden on the command
+ * line. The least recently used entries are evicted above the size cap.
+ * <p>
+ * Configuration files are looked up from the directory of each linted file up to the base directory. Shareable
+ * configurations and modules loaded by JavaScript configuration files are not tracked, apart from the plugins and
+ * parser of the printed configuration: clear the cache directory when they change.
+ */
+public class EsLintResultCache {
+    public static final String DEFAULT_CACHE_DIR = ".eslint-sonar-cache";
+    public static final String CACHE_FILE_NAME = "eslint-results.json";
+    public static final int DEFAULT_MAX_ENTRIES = 100000;
+
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintResultCache.class);
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    /**
+     * The names of the eslintrc configuration files, package.json being only used for its eslintConfig member.
+     */
+    private static final List<String> ESLINTRC_FILES = Arrays.asList(".eslintrc.js", ".eslintrc.cjs", ".eslintrc.yaml",
+        ".eslintrc.yml", ".eslintrc.json", ".eslintrc", "package.json");
+
+    private final File cacheFile;
+    private final Path baseDir;
+    private final String environment;
+    private final Map<String, EsLintFileIssues> entries;
+
+    private int hits;
+    private int misses;
+
+    EsLintResultCache(final File cacheFile, final Path baseDir, final String environment, final int maxEntries) {
+        this.cacheFile = cacheFile;
+        this.baseDir = baseDir;
+        this.environment = environment;
+        // Access ordered, so that iteration goes from the least to the most recently used entry
+        this.entries = new LinkedHashMap<String, EsLintFileIssues>(1024, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<String, EsLintFileIssues> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Opens the cache stored in a directory, creating an empty one if there is none yet.
+     *
+     * @param cacheDir   the directory holding the cache
+     * @param baseDir    the base directory that linted file paths are made relative to
+     * @param config     the ESLint configuration of this analysis
+     * @param maxEntries the maximum number of cached files
+     * @return the cache
+     */
+    public static EsLintResultCache load(final File cacheDir, final Path baseDir, final EsLintExecutorConfig config, final int maxEntries) {
+        return load(cacheDir, baseDir, config, null, maxEntries);
+    }
+
+    /**
+     * Opens the cache stored in a directory, creating an empty one if there is none yet.
+     *
+     * @param cacheDir      the directory holding the cache
+     * @param baseDir       the base directory that linted file paths are made relative to
+     * @param config        the ESLint configuration of this analysis
+     * @param printedConfig the configuration printed by ESLint, or null to only rely on the configuration file
+     * @param maxEntries    the maximum number of cached files
+     * @return the cache
+     */
+    public static EsLintResultCache load(final File cacheDir, final Path baseDir, final EsLintExecutorConfig config,
+                                         final String printedConfig, final int maxEntries) {
+        return load(cacheDir, baseDir, config, printedConfig, Collections.emptyList(), maxEntries);
+    }
+
+    /**
+     * Opens the cache stored in a directory, creating an empty one if there is none yet.
+     *
+     * @param cacheDir      the directory holding the cache
+     * @param baseDir       the base directory that linted file paths are made relative to
+     * @param config        the ESLint configuration of this analysis
+     * @param printedConfig the configuration printed by ESLint, or null to only rely on the configuration files
+     * @param paths         the paths of the linted files, whose directories are searched for configuration files
+     * @param maxEntries    the maximum number of cached files
+     * @return the cache
+     */
+    public static EsLintResultCache load(final File cacheDir, final Path baseDir, final EsLintExecutorConfig config,
+                                         final String printedConfig, final Collection<String> paths,
+                                         final int maxEntries) {
+        return load(cacheDir, baseDir, environmentOf(config, baseDir, printedConfig, paths), maxEntries);
+    }
+
+    /**
+     * Opens the cache stored in a directory, creating an empty one if there is none yet.
+     *
+     * @param cacheDir    the directory holding the cache
+     * @param baseDir     the base directory that linted file paths are made relative to
+     * @param environment the ESLint environment of this analysis, as computed by environmentOf
+     * @param maxEntries  the maximum number of cached files
+     * @return the cache
+     */
+    public static EsLintResultCache load(final File cacheDir, final Path baseDir, final String environment,
+                                         final int maxEntries) {
+        final EsLintResultCache cache = new EsLintResultCache(new File(cacheDir, CACHE_FILE_NAME), baseDir,
+            environment, Math.max(1, maxEntries));
+        cache.read();
+        return cache;
+    }
+
+    /**
+     * Computes the cache key of a file.
+     *
+     * @param file the file to lint
+     * @return the key of its results
+     * @throws IOException when the file cannot be read
+     */
+    public String keyOf(final InputFile file) throws IOException {
+        final MessageDigest digest = newDigest();
+        digest.update(environment.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(relativePath(baseDir, file).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(contentHash(file).getBytes(StandardCharsets.UTF_8));
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Returns the cached issues of a file.
+     *
+     * @param key the file key
+     * @return the issues, or null if the file has to be linted
+     */
+    public EsLintFileIssues get(final String key) {
+        final EsLintFileIssues issues = entries.get(key);
+        if (issues == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return issues;
+    }
+
+    public void put(final String key, final EsLintFileIssues issues) {
+        entries.put(key, issues);
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Writes the cache back to disk. The file is replaced atomically so that an interrupted analysis never leaves a
+     * truncated cache behind.
+     */
+    public void save() {
+        try {
+            Files.createDirectories(cacheFile.getParentFile().toPath());
+            final File partFile = new File(cacheFile.getParentFile(), cacheFile.getName() + ".part");
+            try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(partFile.toPath(), StandardCharsets.UTF_8))) {
+                writer.beginObject();
+                writer.name("entries").beginObject();
+                for (final Map.Entry<String, EsLintFileIssues> entry : entries.entrySet()) {
+                    writer.name(entry.getKey());
+                    entry.getValue().write(writer);
+                }
+                writer.endObject();
+                writer.endObject();
+            }
+            Files.move(partFile.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException e) {
+            LOG.warn("Cannot write the ESLint result cache {}", cacheFile, e);
+        }
+    }
+
+    private void read() {
+        if (!cacheFile.isFile()) {
+            LOG.debug("No ESLint result cache found at {}", cacheFile);
+            return;
+        }
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(cacheFile.toPath(), StandardCharsets.UTF_8))) {
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("entries".equals(reader.nextName())) {
+                    reader.beginObject();
+                    while (reader.hasNext()) {
+                        final String key = reader.nextName();
+                        entries.put(key, EsLintFileIssues.read(reader));
+                    }
+                    reader.endObject();
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+        } catch (final IOException | JsonParseException | IllegalStateException e) {
+            LOG.warn("Ignoring the unreadable ESLint result cache {}", cacheFile, e);
+            entries.clear();
+        }
+    }
+
+    /**
+     * Describes everything, apart from the file itself, that ESLint results depend on.
+     *
+     * @param config        the ESLint configuration
+     * @param baseDir       the base directory relative paths are resolved against
+     * @param printedConfig the configuration printed by ESLint, or null to only hash the configuration file
+     */
+    static String environmentOf(final EsLintExecutorConfig config, final Path baseDir, final String printedConfig) {
+        return environmentOf(config, baseDir, printedConfig, Collections.emptyList());
+    }
+
+    /**
+     * Describes everything, apart from the file itself, that ESLint results depend on. The printed configuration only
+     * applies to the file it was printed for, so the configuration files of every linted file are hashed as well:
+     * nested configurations and overrides then invalidate the cache too.
+     *
+     * @param config        the ESLint configuration
+     * @param baseDir       the base directory relative paths are resolved against
+     * @param printedConfig the configuration printed by ESLint, or null
+     * @param paths         the paths of the linted files
+     */
+    static String environmentOf(final EsLintExecutorConfig config, final Path baseDir, final String printedConfig,
+                                final Collection<String> paths) {
+        final MessageDigest digest = newDigest();
+        update(digest, readEsLintVersion(config.getPathToEsLint()));
+        if (config.getRulesDir() != null) {
+            updateWithDirectory(digest, resolve(baseDir, config.getRulesDir()));
+        }
+        digest.update((byte) 0);
+        if (config.getRuleOverrides() != null) {
+            digest.update(new Gson().toJson(new TreeMap<>(config.getRuleOverrides().getRules())).getBytes(StandardCharsets.UTF_8));
+        }
+        digest.update((byte) 0);
+        final Path configFile = config.getConfigFile() == null ? null : resolve(baseDir, config.getConfigFile());
+        if (printedConfig != null) {
+            updateWithPrintedConfig(digest, baseDir, configFile, config.getPathToEsLint(), printedConfig);
+        }
+        digest.update((byte) 0);
+        for (final Path file : configFilesOf(baseDir, configFile, paths)) {
+            updateWithConfigFile(digest, baseDir, file);
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Lists the configuration files ESLint may resolve for the linted files: the configuration file of the settings,
+     * and the eslintrc, package.json and flat configuration files of the directories of the linted files and of their
+     * parents, up to the base directory.
+     *
+     * @param baseDir    the base directory
+     * @param configFile the configuration file of the settings, or null
+     * @param paths      the paths of the linted files
+     * @return the configuration files, sorted
+     */
+    static Set<Path> configFilesOf(final Path baseDir, final Path configFile, final Collection<String> paths) {
+        final Set<Path> configFiles = new TreeSet<>();
+        if (configFile != null) {
+            configFiles.add(configFile.toAbsolutePath().normalize());
+        }
+        final Path root = baseDir.toAbsolutePath().normalize();
+        final Set<Path> searchedDirs = new HashSet<>();
+        for (final String path : paths) {
+            for (Path dir = resolve(root, path).normalize().getParent(); dir != null && dir.startsWith(root)
+                && searchedDirs.add(dir); dir = dir.getParent()) {
+                for (final String name : ESLINTRC_FILES) {
+                    addIfFile(configFiles, dir.resolve(name));
+                }
+                for (final String name : EsLintIgnore.FLAT_CONFIG_FILES) {
+                    addIfFile(configFiles, dir.resolve(name));
+                }
+            }
+        }
+        return configFiles;
+    }
+
+    private static void addIfFile(final Set<Path> files, final Path file) {
+        if (Files.isRegularFile(file)) {
+            files.add(file);
+        }
+    }
+
+    /**
+     * Hashes the path of a configuration file, relative to the base directory when it is under it, and its content.
+     * Only the eslintConfig member of a package.json is hashed, so that a dependency upgrade does not clear the cache.
+     */
+    private static void updateWithConfigFile(final MessageDigest digest, final Path baseDir, final Path file) {
+        final Path root = baseDir.toAbsolutePath().normalize();
+        final String name = file.startsWith(root) ? root.relativize(file).toString().replace('\\', '/') : file.toString();
+        if ("package.json".equals(file.getFileName().toString())) {
+            final JsonObject manifest = readManifest(file.toFile());
+            if (manifest != null && manifest.has("eslintConfig")) {
+                update(digest, name);
+                update(digest, new Gson().toJson(manifest.get("eslintConfig")));
+            }
+            return;
+        }
+        update(digest, name);
+        try {
+            digest.update(Files.readAllBytes(file));
+        } catch (final IOException e) {
+            LOG.debug("Cannot read the ESLint configuration {}", file, e);
+        }
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Hashes the effective configuration, with the versions of the plugins and parser it loads. Absolute paths under
+     * the base directory, such as the one of the parser, are hashed relative to it, so that the key does not change
+     * from one checkout directory to the next.
+     */
+    private static void updateWithPrintedConfig(final MessageDigest digest, final Path baseDir, final Path configFile,
+                                                final String pathToEsLint, final String printedConfig) {
+        final JsonObject config;
+        try {
+            config = new Gson().fromJson(printedConfig, JsonObject.class);
+        } catch (final JsonParseException e) {
+            LOG.debug("Cannot read the configuration printed by ESLint", e);
+            update(digest, printedConfig);
+            return;
+        }
+        if (config == null) {
+            return;
+        }
+        final Gson gson = new Gson();
+        final String escapedBaseDir = gson.toJson(baseDir.toAbsolutePath().toString());
+        update(digest, gson.toJson(config).replace(escapedBaseDir.substring(1, escapedBaseDir.length() - 1), "<baseDir>"));
+
+        // Plugins and parsers are resolved from the project, or from ESLint itself before ESLint 6
+        final List<Path> searchDirs = new ArrayList<>(3);
+        searchDirs.add(baseDir);
+        if (configFile != null && configFile.getParent() != null) {
+            searchDirs.add(configFile.getParent());
+        }
+        if (pathToEsLint != null) {
+            searchDirs.add(Paths.get(pathToEsLint).toAbsolutePath().getParent().getParent());
+        }
+        final JsonElement parser = config.get("parser");
+        if (parser != null && parser.isJsonPrimitive()) {
+            final Path parserPath = Paths.get(parser.getAsString());
+            update(digest, parserPath.isAbsolute() && Files.exists(parserPath) ? readOwningPackage(parserPath)
+                : readPackageVersion(parser.getAsString(), searchDirs));
+        }
+        final JsonElement plugins = config.get("plugins");
+        if (plugins != null && plugins.isJsonArray()) {
+            final Set<String> names = new TreeSet<>();
+            for (final JsonElement plugin : plugins.getAsJsonArray()) {
+                names.add(plugin.getAsString());
+            }
+            for (final String name : names) {
+                update(digest, name + '@' + readPackageVersion(pluginPackageOf(name), searchDirs));
+            }
+        }
+    }
+
+    /**
+     * Returns the package of an ESLint plugin, as ESLint resolves it from the name given in the configuration.
+     */
+    static String pluginPackageOf(final String name) {
+        if (name.startsWith("@")) {
+            final int slash = name.indexOf('/');
+            if (slash < 0) {
+                return name + "/eslint-plugin";
+            }
+            final String plugin = name.substring(slash + 1);
+            return plugin.startsWith("eslint-plugin") ? name : name.substring(0, slash + 1) + "eslint-plugin-" + plugin;
+        }
+        return name.startsWith("eslint-plugin-") ? name : "eslint-plugin-" + name;
+    }
+
+    /**
+     * Reads the version of a package installed in the node_modules of a directory or of its parents.
+     *
+     * @return the version, or null if the package cannot be found
+     */
+    private static String readPackageVersion(final String packageName, final List<Path> searchDirs) {
+        for (final Path searchDir : searchDirs) {
+            for (Path dir = searchDir.toAbsolutePath(); dir != null; dir = dir.getParent()) {
+                final File packageJson = dir.resolve("node_modules").resolve(packageName).resolve("package.json").toFile();
+                if (packageJson.isFile()) {
+                    return readVersion(packageJson);
+                }
+            }
+        }
+        LOG.debug("Cannot find the version of {}", packageName);
+        return null;
+    }
+
+    /**
+     * Reads the name and version of the package a file belongs to.
+     */
+    private static String readOwningPackage(final Path file) {
+        for (Path dir = file.getParent(); dir != null; dir = dir.getParent()) {
+            final File packageJson = dir.resolve("package.json").toFile();
+            final JsonObject manifest = packageJson.isFile() ? readManifest(packageJson) : null;
+            if (manifest != null && manifest.has("name")) {
+                return manifest.get("name").getAsString() + '@' + readVersion(packageJson);
+            }
+        }
+        return file.getFileName().toString();
+    }
+
+    /**
+     * Hashes the names and content of the files of a directory, or only its path when it does not exist.
+     */
+    private static void updateWithDirectory(final MessageDigest digest, final Path directory) {
+        if (!Files.isDirectory(directory)) {
+            update(digest, directory.toString());
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (final Path file : files.filter(Files::isRegularFile).sorted().collect(Collectors.toList())) {
+                update(digest, directory.relativize(file).toString().replace('\\', '/'));
+                digest.update(Files.readAllBytes(file));
+            }
+        } catch (final IOException | UncheckedIOException e) {
+            LOG.debug("Cannot read the custom rules of {}", directory, e);
+            update(digest, directory.toString());
+        }
+    }
+
+    private static Path resolve(final Path baseDir, final String path) {
+        final Path resolved = Paths.get(path);
+        return resolved.isAbsolute() ? resolved : baseDir.resolve(resolved);
+    }
+
+    private static void update(final MessageDigest digest, final String value) {
+        digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Reads the version of ESLint from the package.json next to its bin/eslint.js.
+     *
+     * @param pathToEsLint the path to eslint.js
+     * @return the version, or null if it cannot be found
+     */
+    static String readEsLintVersion(final String pathToEsLint) {
+        if (pathToEsLint == null) {
+            return null;
+        }
+        final File binDir = new File(pathToEsLint).getAbsoluteFile().getParentFile();
+        return readVersion(new File(binDir.getParentFile(), "package.json"));
+    }
+
+    private static String readVersion(final File packageJson) {
+        final JsonObject manifest = readManifest(packageJson);
+        return manifest != null && manifest.has("version") ? manifest.get("version").getAsString() : null;
+    }
+
+    private static JsonObject readManifest(final File packageJson) {
+        try (BufferedReader reader = Files.newBufferedReader(packageJson.toPath(), StandardCharsets.UTF_8)) {
+            return new Gson().fromJson(reader, JsonObject.class);
+        } catch (final IOException | JsonParseException e) {
+            LOG.debug("Cannot read the package manifest {}", packageJson, e);
+            return null;
+        }
+    }
+
+    /**
+     * Resolves the directory holding the persistent ESLint caches.
+     *
+     * @param settings the plugin settings
+     * @param baseDir  the project base directory
+     * @return the cache directory
+     */
+    public static File resolveCacheDir(final Configuration settings, final File baseDir) {
+        final File cacheDir = new File(settings.get(EsLintPlugin.SETTING_ES_LINT_CACHE_DIR).orElse(DEFAULT_CACHE_DIR));
+        return cacheDir.isAbsolute() ? cacheDir : new File(baseDir, cacheDir.getPath());
+    }
+
+    /**
+     * Returns the path of a file relative to the base directory, with forward slashes.
+     */
+    static String relativePath(final Path baseDir, final InputFile file) {
+        return baseDir.relativize(Paths.get(file.uri())).toString().replace('\\', '/');
+    }
+
+    /**
+     * Hashes the content of a file.
+     *
+     * @param file the file
+     * @return the hexadecimal SHA-256 of its content
+     * @throws IOException when the file cannot be read
+     */
+    static String contentHash(final InputFile file) throws IOException {
+        final MessageDigest digest = newDigest();
+        try (InputStream stream = Files.newInputStream(Paths.get(file.uri()))) {
+            final byte[] buffer = new byte[8192];
+            int read;
+            //noinspection NestedAssignment
+            while ((read = stream.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return toHex(digest.digest());
+    }
+
+    /**
+     * Compares two ESLint versions on their major and minor numbers.
+     *
+     * @param version the version to check, may be null
+     * @param major   the minimal major version
+     * @param minor   the minimal minor version
+     * @return true if the version is known and at least major.minor
+     */
+    static boolean isAtLeast(final String version, final int major, final int minor) {
+        if (version == null) {
+            return false;
+        }
+        final String[] numbers = version.split("[.-]");
+        try {
+            final int versionMajor = Integer.parseInt(numbers[0]);
+            final int versionMinor = numbers.length > 1 ? Integer.parseInt(numbers[1]) : 0;
+            return versionMajor > major || versionMajor == major && versionMinor >= minor;
+        } catch (final NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (final NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(final byte[] bytes) {
+        final char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.fs.InputFile;
+
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import io.github.sleroy.sonar.model.EsLintFileIssues;
+
+/**
+ * The last known ESLint issues of every file, along with the hash of the content they were found in. It fills the
+ * gaps when ESLint does not report a file it was given, which older ESLint versions do for the files found in their
+ * own cache, and stands in for the unchanged files when only the changed ones are linted. Issues are only handed
+ * back when neither the file content nor the ESLint environment, as hashed by the result cache, changed since they
+ * were recorded.
+ */
+public class EsLintResultSnapshot {
+    public static final String SNAPSHOT_FILE_NAME = "eslint-last-results.json";
+
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintResultSnapshot.class);
+
+    private final File snapshotFile;
+    private final Path baseDir;
+    private final String environment;
+    private final Map<String, Entry> entries = new HashMap<>(1024);
+
+    EsLintResultSnapshot(final File snapshotFile, final Path baseDir, final String environment) {
+        this.snapshotFile = snapshotFile;
+        this.baseDir = baseDir;
+        this.environment = String.valueOf(environment);
+    }
+
+    /**
+     * Opens the snapshot stored in a directory, creating an empty one if there is none yet.
+     *
+     * @param dir         the directory holding the snapshot
+     * @param baseDir     the base directory that file paths are made relative to
+     * @param environment the ESLint environment of this analysis, the recorded issues being dropped when it changed
+     * @return the snapshot
+     */
+    public static EsLintResultSnapshot load(final File dir, final Path baseDir, final String environment) {
+        final EsLintResultSnapshot snapshot = new EsLintResultSnapshot(new File(dir, SNAPSHOT_FILE_NAME), baseDir,
+            environment);
+        snapshot.read();
+        return snapshot;
+    }
+
+    /**
+     * Returns the last known issues of a file.
+     *
+     * @param file the file
+     * @return the issues, or null if the file is unknown or it or the environment changed since
+     */
+    public EsLintFileIssues get(final InputFile file) {
+        final Entry entry = entries.get(EsLintResultCache.relativePath(baseDir, file));
+        if (entry == null) {
+            return null;
+        }
+        try {
+            if (!entry.hash.equals(EsLintResultCache.contentHash(file))) {
+                return null;
+            }
+        } catch (final IOException e) {
+            LOG.debug("Cannot hash {}", file, e);
+            return null;
+        }
+        entry.used = true;
+        return entry.issues;
+    }
+
+    /**
+     * Records the issues ESLint just found in a file.
+     *
+     * @param file   the file
+     * @param issues its issues
+     */
+    public void put(final InputFile file, final EsLintFileIssues issues) {
+        try {
+            final Entry entry = new Entry(EsLintResultCache.contentHash(file), issues);
+            entry.used = true;
+            entries.put(EsLintResultCache.relativePath(baseDir, file), entry);
+        } catch (final IOException e) {
+            LOG.debug("Cannot hash {}, its issues are not recorded", file, e);
+        }
+    }
+
+    /**
+     * Writes the snapshot back to disk. Only the files seen during this analysis are kept.
+     */
+    public void save() {
+        try {
+            Files.createDirectories(snapshotFile.getParentFile().toPath());
+            final File partFile = new File(snapshotFile.getParentFile(), snapshotFile.getName() + ".part");
+            try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(partFile.toPath(), StandardCharsets.UTF_8))) {
+                writer.beginObject();
+                writer.name("environment").value(environment);
+                writer.name("entries").beginObject();
+                for (final Map.Entry<String, Entry> entry : entries.entrySet()) {
+                    if (!entry.getValue().used) {
+                        continue;
+                    }
+                    writer.name(entry.getKey()).beginObject();
+                    writer.name("hash").value(entry.getValue().hash);
+                    writer.name("issues");
+                    entry.getValue().issues.write(writer);
+                    writer.endObject();
+                }
+                writer.endObject();
+                writer.endObject();
+            }
+            Files.move(partFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (final IOException e) {
+            LOG.warn("Cannot write the ESLint result snapshot {}", snapshotFile, e);
+        }
+    }
+
+    private void read() {
+        if (!snapshotFile.isFile()) {
+            return;
+        }
+        try (JsonReader reader = new JsonReader(Files.newBufferedReader(snapshotFile.toPath(), StandardCharsets.UTF_8))) {
+            String recordedEnvironment = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                if ("environment".equals(name)) {
+                    recordedEnvironment = reader.nextString();
+                } else if ("entries".equals(name)) {
+                    readEntries(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (!environment.equals(recordedEnvironment)) {
+                LOG.info("The ESLint environment changed since the last analysis, its results are not reused");
+                entries.clear();
+            }
+        } catch (final IOException | JsonParseException | IllegalStateException e) {
+            LOG.warn("Ignoring the unreadable ESLint result snapshot {}", snapshotFile, e);
+            entries.clear();
+        }
+    }
+
+    private void readEntries(final JsonReader reader) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            final String path = reader.nextName();
+            String hash = null;
+            EsLintFileIssues issues = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                final String name = reader.nextName();
+                if ("hash".equals(name)) {
+                    hash = reader.nextString();
+                } else if ("issues".equals(name)) {
+                    issues = EsLintFileIssues.read(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            if (hash != null && issues != null) {
+                entries.put(path, new Entry(hash, issues));
+            }
+        }
+        reader.endObject();
+    }
+
+    private static final class Entry {
+        private final String hash;
+        private final EsLintFileIssues issues;
+        private boolean used;
+
+        private Entry(final String hash, final EsLintFileIssues issues) {
+            this.hash = hash;
+            this.issues = issues;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.server.debt.DebtRemediationFunction.Type;
+
+import io.github.sleroy.sonar.model.EsLintRule;
+
+/**
+ * The core ESLint rules of the plugin, loaded once and shared by the rules definition, the profile and the sensor.
+ * <p>
+ * The build precompiles eslint-rules.properties into eslint-rules.catalog: the rules, sorted, with their defaults
+ * resolved, in a binary form read without parsing the properties again. When the catalog is missing, from an IDE
+ * build for instance, or was written by another version, the properties are parsed instead.
+ */
+public final class EsLintRuleCatalog {
+    @SuppressWarnings("HardcodedFileSeparator")
+    public static final String CORE_RULES_PROPERTIES_RESOURCE_PATH = "/eslint/eslint-rules.properties";
+    @SuppressWarnings("HardcodedFileSeparator")
+    public static final String CORE_RULES_CATALOG_RESOURCE_PATH = "/eslint/eslint-rules.catalog";
+
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintRuleCatalog.class);
+    private static final int MAGIC = 0x45534C52;
+    private static final int VERSION = 1;
+
+    private EsLintRuleCatalog() {
+    }
+
+    /**
+     * @return the core rules, sorted by key, which must not be modified
+     */
+    public static List<EsLintRule> coreRules() {
+        return CoreRules.RULES;
+    }
+
+    /**
+     * Precompiles the core rules.
+     *
+     * @param args the properties to read and the catalog to write
+     * @throws IOException if a file cannot be read or written
+     */
+    public static void main(final String[] args) throws IOException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("Usage: EsLintRuleCatalog <eslint-rules.properties> <eslint-rules.catalog>");
+        }
+        final List<EsLintRule> rules = new ArrayList<>(512);
+        try (InputStream properties = new BufferedInputStream(Files.newInputStream(Paths.get(args[0])))) {
+            EsRulesDefinition.loadRules(properties, rules);
+        }
+        final Path catalog = Paths.get(args[1]);
+        Files.createDirectories(catalog.toAbsolutePath().getParent());
+        try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(catalog))) {
+            write(rules, output);
+        }
+        LOG.info("{} ESLint rules precompiled to {}", rules.size(), catalog);
+    }
+
+    /**
+     * Loads the core rules from the catalog, or from the properties when there is no usable catalog.
+     *
+     * @return the core rules
+     */
+    static List<EsLintRule> load() {
+        try (InputStream catalog = EsLintRuleCatalog.class.getResourceAsStream(CORE_RULES_CATALOG_RESOURCE_PATH)) {
+            if (catalog != null) {
+                final List<EsLintRule> rules = read(new BufferedInputStream(catalog));
+                if (rules != null) {
+                    return rules;
+                }
+                LOG.debug("The ESLint rule catalog was written by another version, the rules are parsed instead");
+            }
+        } catch (final IOException e) {
+            LOG.warn("Cannot read the ESLint rule catalog, the rules are parsed instead", e);
+        }
+        return parse();
+    }
+
+    /**
+     * Parses the core rules from the properties.
+     *
+     * @return the core rules
+     */
+    static List<EsLintRule> parse() {
+        final List<EsLintRule> rules = new ArrayList<>(512);
+        try (InputStream properties = EsLintRuleCatalog.class.getResourceAsStream(CORE_RULES_PROPERTIES_RESOURCE_PATH)) {
+            EsRulesDefinition.loadRules(properties, rules);
+        } catch (final IOException e) {
+            LOG.error("Error while loading ESLint rules: {}", e.getMessage(), e);
+        }
+        return rules;
+    }
+
+    /**
+     * Writes rules as a catalog.
+     *
+     * @param rules  the rules, in the order they are read back
+     * @param output the stream receiving the catalog
+     * @throws IOException if the catalog cannot be written
+     */
+    static void write(final List<EsLintRule> rules, final OutputStream output) throws IOException {
+        final DataOutputStream data = new DataOutputStream(output);
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(rules.size());
+        for (final EsLintRule rule : rules) {
+            data.writeUTF(rule.getKey());
+            data.writeUTF(rule.getSeverity());
+            data.writeUTF(rule.getName());
+            data.writeUTF(rule.getHtmlDescription());
+            data.writeUTF(rule.getTags());
+            data.writeBoolean(rule.isHasDebtRemediation());
+            if (rule.isHasDebtRemediation()) {
+                data.writeUTF(rule.getDebtRemediationFunction().name());
+                data.writeUTF(rule.getDebtRemediationScalar());
+                data.writeUTF(rule.getDebtRemediationOffset());
+                writeNullable(data, rule.getDebtType());
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Reads the rules of a catalog.
+     *
+     * @param input the stream of the catalog
+     * @return the rules, or null if the catalog was written by another version
+     * @throws IOException if the catalog cannot be read
+     */
+    static List<EsLintRule> read(final InputStream input) throws IOException {
+        final DataInputStream data = new DataInputStream(input);
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            return null;
+        }
+        final int size = data.readInt();
+        final List<EsLintRule> rules = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final String key = data.readUTF();
+            final String severity = data.readUTF();
+            final String name = data.readUTF();
+            final String htmlDescription = data.readUTF();
+            final String tags = data.readUTF();
+            if (data.readBoolean()) {
+                rules.add(new EsLintRule(key, severity, name, htmlDescription, Type.valueOf(data.readUTF()),
+                    data.readUTF(), data.readUTF(), readNullable(data), tags));
+            } else {
+                rules.add(new EsLintRule(key, severity, name, htmlDescription, tags));
+            }
+        }
+        return rules;
+    }
+
+    private static void writeNullable(final DataOutputStream data, final String value) throws IOException {
+        data.writeBoolean(value != null);
+        if (value != null) {
+            data.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(final DataInputStream data) throws IOException {
+        return data.readBoolean() ? data.readUTF() : null;
+    }
+
+    /**
+     * Loads the core rules on first use.
+     */
+    private static final class CoreRules {
+        private static final List<EsLintRule> RULES = Collections.unmodifiableList(load());
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.sonar.api.batch.rule.ActiveRule;
+import org.sonar.api.rule.RuleKey;
+
+/**
+ * Resolves the ESLint rule ids of an analysis to the Sonar rules of the profile. Rules the plugin does not define,
+ * and issues without a rule, fall back to the generic 'eslint-issue' rule. Every rule id is resolved once, and the
+ * unknown ones are counted so that they are reported once each at the end of the analysis.
+ */
+public class EsLintRuleKeys {
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintRuleKeys.class);
+
+    private final Map<String, RuleKey> activeRules;
+    private final Map<String, RuleKey> resolvedRules = new HashMap<>(256);
+    private final Map<String, Integer> unknownRules = new TreeMap<>();
+    private final RuleKey unknownRuleKey = RuleKey.of(EsRulesDefinition.REPOSITORY_NAME,
+        EsRulesDefinition.ESLINT_UNKNOWN_RULE.getKey());
+    private int issuesWithoutRule;
+
+    public EsLintRuleKeys(final Collection<ActiveRule> rules) {
+        activeRules = new HashMap<>(rules.size());
+        for (final ActiveRule rule : rules) {
+            activeRules.put(rule.ruleKey().rule(), rule.ruleKey());
+        }
+    }
+
+    /**
+     * Returns the Sonar rule of an ESLint rule id.
+     *
+     * @param ruleId the ESLint rule id, may be null
+     * @return the rule of the profile, or the generic 'eslint-issue' rule
+     */
+    public RuleKey resolve(final String ruleId) {
+        if (ruleId == null) {
+            issuesWithoutRule++;
+            return unknownRuleKey;
+        }
+        final RuleKey ruleKey = resolvedRules.computeIfAbsent(ruleId,
+            id -> activeRules.getOrDefault(id.replace('/', '-'), unknownRuleKey));
+        if (ruleKey == unknownRuleKey) {
+            unknownRules.merge(ruleId, 1, Integer::sum);
+        }
+        return ruleKey;
+    }
+
+    /**
+     * Tells whether the issues of an ESLint rule end up in the analysis, either under a rule of their own or, for the
+     * rules the plugin does not define, under the generic 'eslint-issue' rule.
+     *
+     * @param ruleId      the ESLint rule id
+     * @param pluginRules the keys of the rules the plugin defines
+     * @return false if the quality profile has no active rule for its issues
+     */
+    public boolean isReported(final String ruleId, final Set<String> pluginRules) {
+        final String ruleName = ruleId.replace('/', '-');
+        return activeRules.containsKey(ruleName)
+            || activeRules.containsKey(unknownRuleKey.rule()) && !pluginRules.contains(ruleName);
+    }
+
+    /**
+     * Logs the rules that fell back to the generic rule, once each with their number of issues.
+     */
+    public void logUnknownRules() {
+        if (issuesWithoutRule > 0) {
+            LOG.warn("{} issues have returned no Rule ID, they are reported against {}", issuesWithoutRule,
+                unknownRuleKey.rule());
+        }
+        for (final Map.Entry<String, Integer> unknownRule : unknownRules.entrySet()) {
+            LOG.info("Rule {} has not yet being defined into the EsLint plugin, its {} issues are reported against {}",
+                unknownRule.getKey(), unknownRule.getValue(), unknownRuleKey.rule());
+        }
+    }
+
+    /**
+     * @return the number of issues of every unknown rule id
+     */
+    public Map<String, Integer> getUnknownRules() {
+        return unknownRules;
+    }
+}
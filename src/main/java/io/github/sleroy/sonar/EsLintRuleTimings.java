@@ -0,0 +1,170 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The time ESLint spends in every rule, summed over all the batches of an analysis. ESLint prints a timing table on
+ * its standard output when it runs with the TIMING environment variable; every batch adds its table, whichever worker
+ * ran it. ESLint versions older than 8 ignore TIMING=all and only print their ten most expensive rules.
+ */
+public class EsLintRuleTimings {
+    public static final String REPORT_FILE_NAME = "eslint-rule-timing.txt";
+
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintRuleTimings.class);
+
+    private final Map<String, DoubleAdder> times = new ConcurrentHashMap<>(256);
+    private final AtomicInteger tables = new AtomicInteger();
+
+    /**
+     * Adds the timing table printed by a batch.
+     *
+     * <pre>
+     * Rule            | Time (ms) | Relative
+     * :---------------|----------:|--------:
+     * import/no-cycle |  5218.442 |    71.3%
+     * </pre>
+     *
+     * @param output the standard output of ESLint
+     * @return the number of rules read from the table
+     */
+    public int addTimingTable(final String output) {
+        int rules = 0;
+        for (final String line : output.split("\\r?\\n")) {
+            final String[] columns = line.split("\\|");
+            if (columns.length < 2) {
+                continue;
+            }
+            final String rule = columns[0].trim();
+            final double time;
+            try {
+                time = Double.parseDouble(columns[1].trim());
+            } catch (final NumberFormatException e) {
+                // The header and the separator line
+                continue;
+            }
+            times.computeIfAbsent(rule, r -> new DoubleAdder()).add(time);
+            rules++;
+        }
+        if (rules > 0) {
+            tables.incrementAndGet();
+        }
+        return rules;
+    }
+
+    /**
+     * @return the rules and their time in milliseconds, the most expensive first
+     */
+    public List<Map.Entry<String, Double>> sorted() {
+        final List<Map.Entry<String, Double>> sorted = new ArrayList<>(times.size());
+        times.forEach((rule, time) -> sorted.add(new AbstractMap.SimpleImmutableEntry<>(rule, time.sum())));
+        sorted.sort(Map.Entry.<String, Double>comparingByValue(Comparator.reverseOrder())
+            .thenComparing(Map.Entry.comparingByKey()));
+        return sorted;
+    }
+
+    /**
+     * @return the time spent in all the rules, in milliseconds
+     */
+    public double total() {
+        double total = 0;
+        for (final DoubleAdder time : times.values()) {
+            total += time.sum();
+        }
+        return total;
+    }
+
+    /**
+     * @return the number of timing tables added
+     */
+    public int getTables() {
+        return tables.get();
+    }
+
+    /**
+     * Writes every rule, the most expensive first, in the format of the ESLint timing table.
+     *
+     * @param reportFile the file to write
+     */
+    public void writeReport(final File reportFile) {
+        final List<Map.Entry<String, Double>> sorted = sorted();
+        final double total = total();
+        int width = "Rule".length();
+        for (final Map.Entry<String, Double> rule : sorted) {
+            width = Math.max(width, rule.getKey().length());
+        }
+
+        final List<String> lines = new ArrayList<>(sorted.size() + 2);
+        lines.add(pad("Rule", width) + " | Time (ms) | Relative");
+        lines.add(":" + repeat('-', width) + "|----------:|--------:");
+        for (final Map.Entry<String, Double> rule : sorted) {
+            lines.add(pad(rule.getKey(), width) + " | "
+                + String.format(Locale.ROOT, "%9.3f | %7.1f%%", rule.getValue(), percentOf(rule.getValue(), total)));
+        }
+        try {
+            Files.write(reportFile.toPath(), lines, StandardCharsets.UTF_8);
+            LOG.info("ESLint rule timing of {} batches written to {}", tables.get(), reportFile);
+        } catch (final IOException e) {
+            LOG.warn("Cannot write the ESLint rule timing report {}", reportFile, e);
+        }
+    }
+
+    /**
+     * Logs the most expensive rules.
+     *
+     * @param count the number of rules to log
+     */
+    public void logMostExpensive(final int count) {
+        final List<Map.Entry<String, Double>> sorted = sorted();
+        if (sorted.isEmpty()) {
+            LOG.warn("ESLint printed no rule timing, is the ESLint version recent enough?");
+            return;
+        }
+        final double total = total();
+        LOG.info("ESLint : {} ms spent in {} rules, the most expensive are", Math.round(total), sorted.size());
+        for (final Map.Entry<String, Double> rule : sorted.subList(0, Math.min(count, sorted.size()))) {
+            LOG.info("  {} : {} ms ({}%)", rule.getKey(), Math.round(rule.getValue()),
+                String.format(Locale.ROOT, "%.1f", percentOf(rule.getValue(), total)));
+        }
+    }
+
+    private static double percentOf(final double time, final double total) {
+        return total == 0 ? 0 : time * 100 / total;
+    }
+
+    private static String pad(final String value, final int width) {
+        return value + repeat(' ', width - value.length());
+    }
+
+    private static String repeat(final char c, final int count) {
+        final StringBuilder builder = new StringBuilder(Math.max(0, count));
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
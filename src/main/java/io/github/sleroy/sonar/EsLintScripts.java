@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.sonar.api.utils.TempFolder;
+
+/**
+ * Node scripts shipped inside the plugin jar. Node cannot run a script from inside a jar, so each script is copied
+ * once into the temporary folder of the analysis.
+ */
+public final class EsLintScripts {
+    @SuppressWarnings("HardcodedFileSeparator")
+    public static final String BRIDGE_SCRIPT = "/eslint/eslint-bridge.js";
+    @SuppressWarnings("HardcodedFileSeparator")
+    public static final String FILE_LIST_SCRIPT = "/eslint/eslint-filelist.js";
+
+    private static final Map<String, File> EXTRACTED = new ConcurrentHashMap<>();
+
+    private EsLintScripts() {
+    }
+
+    /**
+     * Returns a file holding the bundled script, extracting it on first use.
+     *
+     * @param tempFolder   the temporary folder receiving the script
+     * @param resourcePath the classpath location of the script
+     * @return the extracted script
+     */
+    public static File extract(final TempFolder tempFolder, final String resourcePath) {
+        return EXTRACTED.compute(resourcePath, (path, existing) -> {
+            if (existing != null && existing.isFile()) {
+                return existing;
+            }
+            final String fileName = path.substring(path.lastIndexOf('/') + 1);
+            final File script = new File(tempFolder.newDir("eslint-scripts"), fileName);
+            try (InputStream stream = EsLintScripts.class.getResourceAsStream(path)) {
+                if (stream == null) {
+                    throw new IllegalStateException("Missing bundled script " + path);
+                }
+                Files.copy(stream, script.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (final IOException e) {
+                throw new IllegalStateException("Cannot extract the bundled script " + path, e);
+            }
+            return script;
+        });
+    }
+}
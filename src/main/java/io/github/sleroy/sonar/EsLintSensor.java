@@ -10,15 +10,23 @@
  */
 package io.github.sleroy.sonar;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,15 +38,20 @@ import org.sonar.api.batch.sensor.SensorDescriptor;
 import org.sonar.api.batch.sensor.issue.NewIssue;
 import org.sonar.api.batch.sensor.issue.NewIssueLocation;
 import org.sonar.api.config.Configuration;
-import org.sonar.api.rule.RuleKey;
+
+import com.google.gson.JsonParseException;
 
 import io.github.sleroy.sonar.api.EsLintExecutor;
 import io.github.sleroy.sonar.api.EsLintParser;
 import io.github.sleroy.sonar.api.PathResolver;
-import io.github.sleroy.sonar.model.EsLintIssue;
+import io.github.sleroy.sonar.model.EsLintConfig;
+import io.github.sleroy.sonar.model.EsLintFileIssues;
+import io.github.sleroy.sonar.model.EsLintIssueStore;
 
 public class EsLintSensor implements Sensor {
     private static final Logger LOG = LoggerFactory.getLogger(EsLintSensor.class);
+    private static final String PULL_REQUEST_KEY = "sonar.pullrequest.key";
+    private static final String BRANCH_NAME = "sonar.branch.name";
 
     private final Configuration settings;
     private final PathResolver resolver;
@@ -73,12 +86,6 @@ public class EsLintSensor implements Sensor {
         return fileMap;
     }
 
-    private Set<String> buildRuleNameSet(final Collection<ActiveRule> allRules) {
-        final Set<String> ruleNames = new HashSet<>(allRules.size());
-        ruleNames.addAll(allRules.stream().map(rule -> rule.ruleKey().rule()).collect(Collectors.toList()));
-        return ruleNames;
-    }
-
     @Override
     public void describe(final SensorDescriptor desc) {
         desc.name("Linting sensor for Javascript files").onlyOnLanguage(EsLintLanguage.LANGUAGE_KEY);
@@ -91,7 +98,20 @@ public class EsLintSensor implements Sensor {
             return;
         }
 
+        final String[] reportPaths = settings.getStringArray(EsLintPlugin.SETTING_ES_LINT_REPORT_PATHS);
+        if (reportPaths.length > 0) {
+            importReports(ctx, reportPaths);
+            return;
+        }
+
+        final EsLintMetrics metrics = new EsLintMetrics();
+        if (settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_TRACE).orElse(Boolean.FALSE)) {
+            metrics.setTrace(new EsLintTrace());
+        }
+        final EsLintMetrics.Timer configTimer = metrics.start(EsLintMetrics.PHASE_CONFIG);
         final EsLintExecutorConfig config = EsLintExecutorConfigFactory.fromSettings(ctx, resolver);
+        config.setMetrics(metrics);
+        configTimer.stop(0, 0, 0);
 
         if (config.getPathToEsLint() == null) {
             LOG.warn("Path to eslint not defined or not found. Skipping eslint analysis.");
@@ -106,79 +126,490 @@ public class EsLintSensor implements Sensor {
         final Collection<ActiveRule> allRules = ctx.activeRules().findByRepository(EsRulesDefinition.REPOSITORY_NAME);
         LOG.info("ESLint plugin is embedded with a profile containing {} rules", allRules.size());
 
-        final Set<String> ruleNames = buildRuleNameSet(allRules);
+        final EsLintRuleKeys ruleKeys = new EsLintRuleKeys(allRules);
 
         final List<String> paths = new ArrayList<>(100);
+        final EsLintMetrics.Timer fileMapTimer = metrics.start(EsLintMetrics.PHASE_FILE_MAP);
         final Map<String, InputFile> fileMap = buildFileMapWithJSFiles(ctx, paths);
+        fileMapTimer.stop(paths.size(), 0, 0);
+        skipFiles(ctx, config, paths, fileMap, metrics);
 
-        // Execute the ESLint plugin and obtain JSON Results
-        final List<String> jsonResults = executor.execute(config, paths);
-        LOG.debug("Obtained {} JSON Results", jsonResults.size());
-        // Parse the ESLint issues
-        final Map<String, List<EsLintIssue>> issues = parser.parse(jsonResults);
+        if (settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_PROFILE_RULES_ONLY).orElse(Boolean.FALSE) && !paths.isEmpty()) {
+            final EsLintMetrics.Timer profileTimer = metrics.start(EsLintMetrics.PHASE_CONFIG);
+            config.setRuleOverrides(disableInactiveRules(config, paths.get(0), ruleKeys));
+            profileTimer.stop(0, 0, 0);
+        }
 
-        if (issues == null) {
-            LOG.warn("Eslint returned no result at all");
+        final String shard = settings.get(EsLintPlugin.SETTING_ES_LINT_SHARD).orElse("").trim();
+        if (!shard.isEmpty()) {
+            lintShard(ctx, config, EsLintShard.parse(shard), paths);
             return;
         }
-        LOG.info("ESLint : {} Files have been analyzed", issues.size());
 
-        // Each issue bucket will contain info about a single file
-        for (final Entry<String, List<EsLintIssue>> filePathEntry : issues.entrySet()) {
-            final List<EsLintIssue> batchIssues = filePathEntry.getValue();
+        final boolean changedFilesOnly = settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_CHANGED_FILES_ONLY)
+            .orElse(Boolean.FALSE);
+        final boolean resultCache = settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_CACHE).orElse(Boolean.FALSE);
+        final boolean useSnapshot = config.getNativeCacheDir() != null || changedFilesOnly;
+        final String environment = useSnapshot || resultCache ? environmentOf(ctx, config, paths) : null;
+        final EsLintResultSnapshot snapshot = !useSnapshot ? null
+            : EsLintResultSnapshot.load(EsLintResultCache.resolveCacheDir(settings, ctx.fileSystem().baseDir()),
+            ctx.fileSystem().baseDir().toPath(), environment);
+        final List<String> changedPaths = changedFilesOnly && isPullRequestOrBranch()
+            ? selectChangedFiles(ctx, ruleKeys, snapshot, paths, fileMap) : paths;
 
-            if (batchIssues == null || batchIssues.isEmpty()) {
-                LOG.debug("The file {} has no issue", filePathEntry.getKey());
-                continue;
+        final EsLintResultCache cache = resultCache ? openResultCache(ctx, environment) : null;
+        final Map<String, String> cacheKeys = new HashMap<>(100);
+        final List<String> pathsToLint = cache == null ? changedPaths
+            : replayCachedResults(ctx, ruleKeys, cache, changedPaths, fileMap, cacheKeys);
+
+        try {
+            if (pathsToLint.isEmpty() && !paths.isEmpty()) {
+                LOG.info("ESLint : no file left to lint, ESLint is not executed");
+                return;
             }
 
-            final String filePath = filePathEntry.getKey();
-            if (!fileMap.containsKey(filePath)) {
-                LOG.warn("EsLint reported issues against a file that wasn't sent to it - will be ignored: {}",
-                    filePath);
-                continue;
+            // Issues are saved while ESLint lints the next batches, in the order the batches finish: everything below
+            // is keyed by file, so that order does not change the analysis
+            final Set<String> reportedPaths = new HashSet<>(pathsToLint.size());
+            final long[] reportedIssues = {0};
+            final EsLintMetrics.Timer lintTimer = metrics.start(EsLintMetrics.PHASE_LINT);
+            new EsLintPipeline(executor, parser).run(config, pathsToLint, (filePath, issues) -> {
+                final EsLintMetrics.Timer saveTimer = metrics.start(EsLintMetrics.PHASE_SAVE);
+                final EsLintFlightRecorder.Event saved = EsLintFlightRecorder.ISSUES_SAVED.begin();
+                reportedPaths.add(filePath);
+                saveReportedIssues(ctx, ruleKeys, fileMap, cache, cacheKeys, snapshot, filePath, issues);
+                reportedIssues[0] += issues.issueCount(filePath);
+                saveTimer.stop(1, 0, issues.issueCount(filePath));
+                saved.set("file", filePath).set("issues", issues.issueCount(filePath)).commit();
+            });
+            lintTimer.stop(reportedPaths.size(), 0, reportedIssues[0]);
+            LOG.info("ESLint : {} Files have been analyzed", reportedPaths.size());
+            if (parser.getSkippedChars() > 0) {
+                LOG.info("ESLint : {} KB of unused report content skipped while parsing", parser.getSkippedChars() / 1024);
+            }
+            if (config.getRuleTimings() != null) {
+                config.getRuleTimings().writeReport(new File(ctx.fileSystem().workDir(), EsLintRuleTimings.REPORT_FILE_NAME));
+                config.getRuleTimings().logMostExpensive(settings.getInt(EsLintPlugin.SETTING_ES_LINT_RULE_TIMING).orElse(0));
+            }
+
+            if (snapshot != null) {
+                replayLastKnownResults(ctx, ruleKeys, snapshot, pathsToLint, fileMap, reportedPaths);
             }
+        } finally {
+            metrics.writeReport(new File(ctx.fileSystem().workDir(), EsLintMetrics.REPORT_FILE_NAME));
+            if (metrics.getTrace() != null) {
+                metrics.getTrace().writeTrace(new File(ctx.fileSystem().workDir(), EsLintTrace.TRACE_FILE_NAME));
+            }
+            ruleKeys.logUnknownRules();
+            if (snapshot != null) {
+                snapshot.save();
+            }
+            if (cache != null) {
+                cache.save();
+                LOG.info("ESLint result cache : {} hits, {} misses, {} entries", cache.getHits(), cache.getMisses(),
+                    cache.size());
+            }
+        }
+    }
+
+    /**
+     * Saves the issues of ESLint reports written before the analysis, instead of running ESLint.
+     *
+     * @param ctx         the ctx
+     * @param reportPaths the paths or patterns of the reports
+     */
+    private void importReports(final SensorContext ctx, final String[] reportPaths) {
+        final EsLintMetrics metrics = new EsLintMetrics();
+        final EsLintRuleKeys ruleKeys = new EsLintRuleKeys(
+            ctx.activeRules().findByRepository(EsRulesDefinition.REPOSITORY_NAME));
+        final File baseDir = ctx.fileSystem().baseDir();
 
-            final InputFile file = fileMap.get(filePath);
+        final EsLintMetrics.Timer fileMapTimer = metrics.start(EsLintMetrics.PHASE_FILE_MAP);
+        final Map<String, InputFile> fileMap = buildFileMapWithJSFiles(ctx, new ArrayList<>(100));
+        final EsLintReportImporter importer = new EsLintReportImporter(baseDir, fileMap.values());
+        fileMapTimer.stop(fileMap.size(), 0, 0);
+
+        final List<File> reports = EsLintReportImporter.findReports(baseDir, reportPaths);
+        LOG.info("ESLint : importing {} reports, ESLint is not executed", reports.size());
+        EsLintShard.findMissingShards(reports);
+        final Set<InputFile> importedFiles = new HashSet<>(fileMap.size());
+        final Set<String> unknownPaths = new HashSet<>();
+        try {
+            for (final File report : reports) {
+                final EsLintMetrics.Timer importTimer = metrics.start(EsLintMetrics.PHASE_IMPORT);
+                final long[] importedIssues = {0};
+                // Reports are parsed while they are read, whatever their size
+                try (Reader reader = new BufferedReader(
+                    new InputStreamReader(new FileInputStream(report), StandardCharsets.UTF_8), 1 << 16)) {
+                    parser.parseIssues(reader, (reportedPath, issues) -> {
+                        final InputFile file = reportedPath == null ? null : importer.resolve(reportedPath);
+                        if (file == null) {
+                            if (issues.size() > 0) {
+                                unknownPaths.add(reportedPath);
+                            }
+                        } else if (!importedFiles.add(file)) {
+                            LOG.debug("The file {} was reported again, its first report is kept", file);
+                        } else {
+                            saveIssues(ctx, ruleKeys, file, issues);
+                            importedIssues[0] += issues.size();
+                        }
+                    });
+                } catch (final IOException | JsonParseException e) {
+                    LOG.error("Cannot read the ESLint report {}", report, e);
+                }
+                importTimer.stop(0, report.length(), importedIssues[0]);
+            }
+            LOG.info("ESLint : {} Files have been imported", importedFiles.size());
+            if (!unknownPaths.isEmpty()) {
+                LOG.warn("ESLint reported issues against {} files that are not part of the analysis, they are ignored",
+                    unknownPaths.size());
+                LOG.debug("Files not part of the analysis: {}", unknownPaths);
+            }
+        } finally {
+            ruleKeys.logUnknownRules();
+            metrics.writeReport(new File(ctx.fileSystem().workDir(), EsLintMetrics.REPORT_FILE_NAME));
+        }
+    }
 
-            for (final EsLintIssue issue : batchIssues) {
+    /**
+     * Drops the files not worth linting, ignored by ESLint, minified, generated or too large, before they are batched.
+     *
+     * @param ctx     the ctx
+     * @param config  the ESLint configuration
+     * @param paths   the paths of the JS files
+     * @param fileMap the JS files by path
+     * @param metrics the metrics of the analysis
+     */
+    private void skipFiles(final SensorContext ctx, final EsLintExecutorConfig config, final List<String> paths,
+                           final Map<String, InputFile> fileMap, final EsLintMetrics metrics) {
+        final boolean skipIgnored = settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_SKIP_IGNORED).orElse(Boolean.FALSE);
+        final File baseDir = ctx.fileSystem().baseDir();
+        final EsLintFileFilter filter = new EsLintFileFilter(
+            skipIgnored && !paths.isEmpty() ? EsLintIgnore.load(baseDir, config.getConfigFile(),
+                // A flat configuration prints no ignore patterns
+                EsLintIgnore.isFlatConfig(baseDir, config.getConfigFile()) ? null
+                    : executor.getIgnorePatterns(config, paths.get(0)).orElse(null)) : null,
+            settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_SKIP_GENERATED).orElse(Boolean.FALSE),
+            settings.getInt(EsLintPlugin.SETTING_ES_LINT_MAX_FILE_SIZE).orElse(0) * 1024L);
+        if (!filter.isEnabled()) {
+            return;
+        }
+        final EsLintMetrics.Timer prefilterTimer = metrics.start(EsLintMetrics.PHASE_PREFILTER);
+        final int fileCount = paths.size();
+        final long[] bytes = {0};
+        final Map<EsLintFileFilter.Reason, Integer> skipped = new EnumMap<>(EsLintFileFilter.Reason.class);
+        paths.removeIf(path -> {
+            final File file = new File(path);
+            bytes[0] += file.length();
+            final EsLintFileFilter.Reason reason = filter.check(file);
+            if (reason == null) {
+                return false;
+            }
+            LOG.debug("ESLint : {} is not linted, {}", path, reason);
+            skipped.merge(reason, 1, Integer::sum);
+            fileMap.remove(path);
+            return true;
+        });
+        prefilterTimer.stop(fileCount, bytes[0], 0);
+        if (!skipped.isEmpty()) {
+            LOG.info("ESLint : {} of the {} files are not linted {}", fileCount - paths.size(), fileCount, skipped);
+        }
+    }
 
-                final String ruleName = obtainRuleNameToAssociateThisIssue(ruleNames, issue);
+    /**
+     * Lints the files of a shard and writes their issues to the result file of the shard, without saving them. The
+     * analysis merging the shards saves them once it imports the result files.
+     *
+     * @param ctx      the ctx
+     * @param config   the ESLint configuration
+     * @param shard    the shard
+     * @param paths    the paths of all the JS files
+     */
+    private void lintShard(final SensorContext ctx, final EsLintExecutorConfig config, final EsLintShard shard,
+                           final List<String> paths) {
+        final EsLintMetrics metrics = config.getMetrics();
+        final Path baseDir = ctx.fileSystem().baseDir().toPath().toAbsolutePath().normalize();
+        final List<String> shardPaths = shard.select(baseDir, paths);
+        LOG.info("ESLint : shard {} lints {} of the {} files", shard, shardPaths.size(), paths.size());
 
-                final NewIssue newIssue = ctx.newIssue()
-                    .forRule(RuleKey.of(EsRulesDefinition.REPOSITORY_NAME, ruleName));
+        final String shardDir = settings.get(EsLintPlugin.SETTING_ES_LINT_SHARD_DIR).orElse("").trim();
+        final File resultDir = shardDir.isEmpty() ? ctx.fileSystem().workDir()
+            : baseDir.resolve(shardDir).toFile();
+        final File resultFile = new File(resultDir, shard.getResultFileName());
+        try (EsLintShard.ResultWriter writer = new EsLintShard.ResultWriter(baseDir, resultFile)) {
+            final long[] reportedIssues = {0};
+            final EsLintMetrics.Timer lintTimer = metrics.start(EsLintMetrics.PHASE_LINT);
+            new EsLintPipeline(executor, parser).run(config, shardPaths, (filePath, issues) -> {
+                try {
+                    writer.write(filePath, issues);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                reportedIssues[0] += issues.issueCount(filePath);
+            });
+            lintTimer.stop(writer.getFiles(), 0, reportedIssues[0]);
+            writer.commit();
+            LOG.info("ESLint : {} Files of shard {} written to {}", writer.getFiles(), shard, resultFile);
+        } catch (final IOException | RuntimeException e) {
+            // An incomplete result would lose issues once merged, so the shard leaves none
+            LOG.error("ESLint shard {} failed, no result is written to {}", shard, resultFile, e);
+        } finally {
+            metrics.writeReport(new File(ctx.fileSystem().workDir(), EsLintMetrics.REPORT_FILE_NAME));
+            if (metrics.getTrace() != null) {
+                metrics.getTrace().writeTrace(new File(ctx.fileSystem().workDir(), EsLintTrace.TRACE_FILE_NAME));
+            }
+        }
+    }
 
-                final NewIssueLocation newIssueLocation = newIssue
-                    .newLocation().on(file).message(issue.getMessage()).at(file.selectLine(issue.getLine()));
+    /**
+     * Switches off the rules of the ESLint configuration whose issues the quality profile would drop.
+     *
+     * @param config   the ESLint configuration
+     * @param file     a file whose ESLint configuration stands for the project
+     * @param ruleKeys the rule keys
+     * @return the rules to switch off, or null if there is none
+     */
+    private EsLintConfig disableInactiveRules(final EsLintExecutorConfig config, final String file,
+                                              final EsLintRuleKeys ruleKeys) {
+        final Set<String> enabledRules = executor.getEnabledRules(config, file);
+        final EsRulesDefinition rulesDefinition = new EsRulesDefinition(settings);
+        final Set<String> pluginRules = new HashSet<>();
+        rulesDefinition.getCoreRules().forEach(rule -> pluginRules.add(rule.getKey()));
+        rulesDefinition.getRules().forEach(rule -> pluginRules.add(rule.getKey()));
 
-                newIssue.at(newIssueLocation);
-                newIssue.save();
+        final EsLintConfig ruleOverrides = new EsLintConfig();
+        for (final String ruleId : enabledRules) {
+            if (!ruleKeys.isReported(ruleId, pluginRules)) {
+                ruleOverrides.addDisabledRule(ruleId);
             }
         }
+        LOG.info("ESLint : {} of the {} enabled rules are not active in the quality profile and are switched off",
+            ruleOverrides.getRules().size(), enabledRules.size());
+        return ruleOverrides.getRules().isEmpty() ? null : ruleOverrides;
     }
 
     /**
-     * Obtain rule name to associate this issue.
+     * Records the issues of a file ESLint reported and saves them.
      *
-     * @param ruleNames the rule names
-     * @param issue     the issue
-     * @return the string
+     * @param ctx       the ctx
+     * @param ruleKeys  the rule keys
+     * @param fileMap   the JS files by path
+     * @param cache     the result cache, or null
+     * @param cacheKeys the cache key of every linted file
+     * @param snapshot  the last known results, or null
+     * @param filePath  the path of the reported file
+     * @param issues    the store holding its issues
      */
-    private String obtainRuleNameToAssociateThisIssue(final Set<String> ruleNames, final EsLintIssue issue) {
-        // Make sure the rule we're violating is one we recognise - if
-        // not, we'll
-        // fall back to the generic 'eslint-issue' rule
-        String ruleName = "";
-        if (issue.getRuleId() != null) {
-            ruleName = issue.getRuleId().replace('/', '-');
-        } else {
-            LOG.warn("An issue has returned no Rule ID : {}", issue);
-        }
-        final boolean isNotRecognizedRule = issue.getRuleId() == null || !ruleNames.contains(ruleName);
-        if (isNotRecognizedRule) {
-            LOG.info("Rule {} has not yet being defined into the EsLint plugin", ruleName);
-            ruleName = EsRulesDefinition.ESLINT_UNKNOWN_RULE.getKey();
-        }
-        return ruleName;
+    private void saveReportedIssues(final SensorContext ctx, final EsLintRuleKeys ruleKeys,
+                                    final Map<String, InputFile> fileMap, final EsLintResultCache cache,
+                                    final Map<String, String> cacheKeys, final EsLintResultSnapshot snapshot,
+                                    final String filePath, final EsLintIssueStore issues) {
+        final InputFile file = fileMap.get(filePath);
+        final boolean cached = cache != null && cacheKeys.containsKey(filePath);
+        if (cached || snapshot != null && file != null) {
+            final EsLintFileIssues fileIssues = issues.copyOf(filePath);
+            if (cached) {
+                cache.put(cacheKeys.get(filePath), fileIssues);
+            }
+            if (snapshot != null && file != null) {
+                snapshot.put(file, fileIssues);
+            }
+        }
+
+        if (issues.issueCount(filePath) == 0) {
+            LOG.debug("The file {} has no issue", filePath);
+            return;
+        }
+
+        if (file == null) {
+            LOG.warn("EsLint reported issues against a file that wasn't sent to it - will be ignored: {}", filePath);
+            return;
+        }
+
+        issues.forEach(filePath,
+            (ruleId, message, line, column, severity) -> saveIssue(ctx, ruleKeys, file, ruleId, message, line));
+    }
+
+    /**
+     * Tells whether this analysis is the one of a pull request or a branch, where the scanner compares the files to
+     * the target branch. The changed files only setting is ignored elsewhere.
+     *
+     * @return true for a pull request or branch analysis
+     */
+    private boolean isPullRequestOrBranch() {
+        if (settings.get(PULL_REQUEST_KEY).isPresent() || settings.get(BRANCH_NAME).isPresent()) {
+            return true;
+        }
+        LOG.warn("ESLint : {} only applies to pull request and branch analyses, every file is linted",
+            EsLintPlugin.SETTING_ES_LINT_CHANGED_FILES_ONLY);
+        return false;
+    }
+
+    /**
+     * Keeps the files the scanner reports as added or changed. The unchanged files get their last known issues when
+     * the snapshot has them, and are linted as well otherwise, so that none of them loses its issues.
+     *
+     * @param ctx       the ctx
+     * @param ruleKeys  the rule keys
+     * @param snapshot  the last known results
+     * @param paths     the paths of all the JS files
+     * @param fileMap   the JS files by path
+     * @return the paths of the added or changed files
+     */
+    private List<String> selectChangedFiles(final SensorContext ctx, final EsLintRuleKeys ruleKeys,
+                                            final EsLintResultSnapshot snapshot, final List<String> paths,
+                                            final Map<String, InputFile> fileMap) {
+        final List<String> changedPaths = new ArrayList<>(paths.size());
+        int filled = 0;
+        int unknown = 0;
+        for (final String path : paths) {
+            final InputFile file = fileMap.get(path);
+            // Files without a status are treated as changed
+            if (file.status() != InputFile.Status.SAME) {
+                changedPaths.add(path);
+                continue;
+            }
+            final EsLintFileIssues lastKnownIssues = snapshot.get(file);
+            if (lastKnownIssues == null) {
+                changedPaths.add(path);
+                unknown++;
+            } else {
+                saveIssues(ctx, ruleKeys, file, lastKnownIssues);
+                filled++;
+            }
+        }
+        LOG.info("ESLint : {} added or changed files to lint, {} unchanged files filled from the last results, {} unchanged files without last results to lint",
+            changedPaths.size() - unknown, filled, unknown);
+        return changedPaths;
+    }
+
+    /**
+     * Computes the ESLint environment that cached and last known results are only reused in.
+     *
+     * @param ctx    the ctx
+     * @param config the ESLint configuration
+     * @param paths  the paths of the JS files, the first one giving the configuration printed by ESLint, all of them
+     *               giving the configuration files that are hashed into the environment
+     * @return the environment hash
+     */
+    private String environmentOf(final SensorContext ctx, final EsLintExecutorConfig config, final List<String> paths) {
+        final String printedConfig = paths.isEmpty() ? null : executor.getPrintedConfig(config, paths.get(0));
+        return EsLintResultCache.environmentOf(config, ctx.fileSystem().baseDir().toPath(), printedConfig, paths);
+    }
+
+    /**
+     * Opens the persistent result cache.
+     *
+     * @param ctx         the ctx
+     * @param environment the ESLint environment
+     * @return the cache
+     */
+    private EsLintResultCache openResultCache(final SensorContext ctx, final String environment) {
+        final File baseDir = ctx.fileSystem().baseDir();
+        final File cacheDir = EsLintResultCache.resolveCacheDir(settings, baseDir);
+        LOG.debug("Using the ESLint result cache in {}", cacheDir);
+        return EsLintResultCache.load(cacheDir, baseDir.toPath(), environment,
+            settings.getInt(EsLintPlugin.SETTING_ES_LINT_CACHE_SIZE).orElse(EsLintResultCache.DEFAULT_MAX_ENTRIES));
+    }
+
+    /**
+     * Saves the cached issues of the files found in the cache and returns the files that still have to be linted.
+     *
+     * @param ctx       the ctx
+     * @param ruleKeys  the rule keys
+     * @param cache     the result cache
+     * @param paths     the paths of all the JS files
+     * @param fileMap   the JS files by path
+     * @param cacheKeys receives the cache key of every file to lint
+     * @return the paths to lint
+     */
+    private List<String> replayCachedResults(final SensorContext ctx, final EsLintRuleKeys ruleKeys,
+                                             final EsLintResultCache cache, final List<String> paths,
+                                             final Map<String, InputFile> fileMap, final Map<String, String> cacheKeys) {
+        final List<String> pathsToLint = new ArrayList<>(paths.size());
+        for (final String path : paths) {
+            final InputFile file = fileMap.get(path);
+            final String key;
+            try {
+                key = cache.keyOf(file);
+            } catch (final IOException e) {
+                LOG.debug("Cannot compute the cache key of {}, it will be linted", path, e);
+                pathsToLint.add(path);
+                continue;
+            }
+
+            final EsLintFileIssues cachedIssues = cache.get(key);
+            if (cachedIssues == null) {
+                cacheKeys.put(path, key);
+                pathsToLint.add(path);
+            } else {
+                saveIssues(ctx, ruleKeys, file, cachedIssues);
+            }
+        }
+        return pathsToLint;
+    }
+
+    /**
+     * Saves the last known issues of the files ESLint left out of its report, which it does for the files found in
+     * its own cache.
+     *
+     * @param ctx           the ctx
+     * @param ruleKeys      the rule keys
+     * @param snapshot      the last known results
+     * @param pathsToLint   the paths sent to ESLint
+     * @param fileMap       the JS files by path
+     * @param reportedPaths the paths ESLint reported
+     */
+    private void replayLastKnownResults(final SensorContext ctx, final EsLintRuleKeys ruleKeys,
+                                        final EsLintResultSnapshot snapshot, final List<String> pathsToLint,
+                                        final Map<String, InputFile> fileMap,
+                                        final Set<String> reportedPaths) {
+        int replayed = 0;
+        for (final String path : pathsToLint) {
+            if (reportedPaths.contains(path)) {
+                continue;
+            }
+            final InputFile file = fileMap.get(path);
+            final EsLintFileIssues lastKnownIssues = snapshot.get(file);
+            if (lastKnownIssues != null) {
+                saveIssues(ctx, ruleKeys, file, lastKnownIssues);
+                replayed++;
+            }
+        }
+        LOG.info("ESLint cache : {} files not reported by ESLint kept their last known issues", replayed);
+    }
+
+    /**
+     * Creates the Sonar issues of a file.
+     *
+     * @param ctx       the ctx
+     * @param ruleKeys  the rule keys
+     * @param file      the file
+     * @param issues    the ESLint issues found in the file
+     */
+    private void saveIssues(final SensorContext ctx, final EsLintRuleKeys ruleKeys, final InputFile file,
+                            final EsLintFileIssues issues) {
+        issues.forEach((ruleId, message, line, column, severity) -> saveIssue(ctx, ruleKeys, file, ruleId, message, line));
+    }
+
+    /**
+     * Creates a Sonar issue.
+     *
+     * @param ctx       the ctx
+     * @param ruleKeys  the rule keys
+     * @param file      the file
+     * @param ruleId    the ESLint rule id, may be null
+     * @param message   the message
+     * @param line      the line
+     */
+    private void saveIssue(final SensorContext ctx, final EsLintRuleKeys ruleKeys, final InputFile file,
+                           final String ruleId, final String message, final int line) {
+        final NewIssue newIssue = ctx.newIssue().forRule(ruleKeys.resolve(ruleId));
+
+        final NewIssueLocation newIssueLocation = newIssue
+            .newLocation().on(file).message(message).at(file.selectLine(line));
+
+        newIssue.at(newIssueLocation);
+        newIssue.save();
     }
 }
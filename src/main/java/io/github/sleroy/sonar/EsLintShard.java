@@ -0,0 +1,253 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.stream.JsonWriter;
+
+import io.github.sleroy.sonar.model.EsLintIssueStore;
+
+/**
+ * One of the parts the files of a project are split into, so that several machines lint the project side by side.
+ * A file belongs to a shard according to a hash of its path relative to the base directory, so every machine puts it
+ * in the same shard whatever the directory it checked the project out to, and whatever files the others see.
+ * <p>
+ * A shard writes its issues to a result file in the ESLint JSON format, with relative paths. The analysis merging
+ * the shards imports the result files as ESLint reports.
+ */
+public class EsLintShard {
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintShard.class);
+    private static final Pattern SHARD = Pattern.compile("\\s*(\\d+)\\s*/\\s*(\\d+)\\s*");
+    private static final Pattern RESULT_FILE = Pattern.compile("eslint-shard-(\\d+)-of-(\\d+)\\.json");
+
+    private final int index;
+    private final int count;
+
+    /**
+     * @param index the shard, from 1 to the number of shards
+     * @param count the number of shards
+     */
+    public EsLintShard(final int index, final int count) {
+        if (count < 1 || index < 1 || index > count) {
+            throw new IllegalArgumentException("Invalid ESLint shard " + index + "/" + count
+                + ", expected a shard between 1 and the number of shards");
+        }
+        this.index = index;
+        this.count = count;
+    }
+
+    /**
+     * Reads a shard written as index/count, such as 3/8.
+     *
+     * @param value the setting
+     * @return the shard
+     */
+    public static EsLintShard parse(final String value) {
+        final Matcher matcher = SHARD.matcher(value);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Invalid ESLint shard '" + value + "', expected index/count such as 3/8");
+        }
+        return new EsLintShard(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return the name of the result file of the shard
+     */
+    public String getResultFileName() {
+        return "eslint-shard-" + index + "-of-" + count + ".json";
+    }
+
+    /**
+     * Tells whether a file belongs to the shard.
+     *
+     * @param relativePath the path of the file relative to the base directory, with forward slashes
+     * @return true if the shard lints the file
+     */
+    public boolean contains(final String relativePath) {
+        final int hash = relativePath.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), count) == index - 1;
+    }
+
+    /**
+     * Keeps the files of the shard.
+     *
+     * @param baseDir the base directory of the project
+     * @param paths   the absolute paths of all the files
+     * @return the paths of the files of the shard
+     */
+    public List<String> select(final Path baseDir, final List<String> paths) {
+        final List<String> selected = new ArrayList<>(paths.size() / count + 1);
+        for (final String path : paths) {
+            if (contains(relativize(baseDir, path))) {
+                selected.add(path);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Warns about the shards missing from the result files of a merge.
+     *
+     * @param reports the reports being merged
+     * @return the indexes of the missing shards, by number of shards
+     */
+    public static Map<Integer, TreeSet<Integer>> findMissingShards(final List<File> reports) {
+        final Map<Integer, TreeSet<Integer>> missing = new TreeMap<>();
+        for (final File report : reports) {
+            final Matcher matcher = RESULT_FILE.matcher(report.getName());
+            if (matcher.matches()) {
+                final int shardCount = Integer.parseInt(matcher.group(2));
+                missing.computeIfAbsent(shardCount, c -> {
+                    final TreeSet<Integer> indexes = new TreeSet<>();
+                    for (int i = 1; i <= c; i++) {
+                        indexes.add(i);
+                    }
+                    return indexes;
+                }).remove(Integer.parseInt(matcher.group(1)));
+            }
+        }
+        missing.values().removeIf(TreeSet::isEmpty);
+        for (final Map.Entry<Integer, TreeSet<Integer>> shards : missing.entrySet()) {
+            LOG.warn("ESLint shards {} of {} are missing, their files have no issue", shards.getValue(),
+                shards.getKey());
+        }
+        return missing;
+    }
+
+    static String relativize(final Path baseDir, final String path) {
+        final Path file = Paths.get(path);
+        final Path relative = file.isAbsolute() && file.startsWith(baseDir) ? baseDir.relativize(file) : file;
+        return relative.toString().replace('\\', '/');
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+
+    /**
+     * Writes the result file of a shard, file after file. The file only shows up once it is committed: closing the
+     * writer without committing it leaves no result file, not even the one of a previous run.
+     */
+    public static final class ResultWriter implements Closeable {
+        private final Path baseDir;
+        private final File resultFile;
+        private final File partFile;
+        private final Writer output;
+        private final JsonWriter writer;
+        private int files;
+        private boolean committed;
+
+        /**
+         * @param baseDir    the base directory the paths are made relative to
+         * @param resultFile the result file
+         * @throws IOException if the file cannot be created
+         */
+        public ResultWriter(final Path baseDir, final File resultFile) throws IOException {
+            this.baseDir = baseDir;
+            this.resultFile = resultFile;
+            Files.deleteIfExists(resultFile.toPath());
+            Files.createDirectories(resultFile.getAbsoluteFile().getParentFile().toPath());
+            partFile = new File(resultFile.getAbsoluteFile().getParentFile(), resultFile.getName() + ".part");
+            output = Files.newBufferedWriter(partFile.toPath(), StandardCharsets.UTF_8);
+            writer = new JsonWriter(output);
+            writer.beginArray();
+        }
+
+        /**
+         * Writes the issues of a file.
+         *
+         * @param filePath the path ESLint reported
+         * @param issues   the store holding its issues
+         * @throws IOException if the file cannot be written
+         */
+        public void write(final String filePath, final EsLintIssueStore issues) throws IOException {
+            writer.beginObject();
+            writer.name("filePath").value(relativize(baseDir, filePath));
+            writer.name("messages").beginArray();
+            final IOException[] failure = new IOException[1];
+            issues.forEach(filePath, (ruleId, message, line, column, severity) -> {
+                try {
+                    writer.beginObject();
+                    writer.name("ruleId").value(ruleId);
+                    writer.name("severity").value(severity);
+                    writer.name("message").value(message);
+                    writer.name("line").value(line);
+                    writer.name("column").value(column);
+                    writer.endObject();
+                } catch (final IOException e) {
+                    failure[0] = e;
+                }
+            });
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            writer.endArray();
+            writer.endObject();
+            files++;
+        }
+
+        /**
+         * @return the number of files written
+         */
+        public int getFiles() {
+            return files;
+        }
+
+        /**
+         * Completes the result file and makes it show up. Only called once every file of the shard was written.
+         *
+         * @throws IOException if the file cannot be completed
+         */
+        public void commit() throws IOException {
+            writer.endArray();
+            writer.close();
+            Files.move(partFile.toPath(), resultFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                // The JSON writer refuses to close an incomplete document
+                output.close();
+                Files.deleteIfExists(partFile.toPath());
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * Timeline of an analysis in the trace event format read by chrome://tracing and Perfetto. Every thread gets a track
+ * of its own: the worker threads, each driving one ESLint process at a time, the thread parsing the reports and the
+ * sensor thread saving the issues. Spans carry the number of files, bytes and issues they handled.
+ */
+public class EsLintTrace {
+    public static final String TRACE_FILE_NAME = "eslint-trace.json";
+
+    private static final Logger LOG = LoggerFactory.getLogger(EsLintTrace.class);
+    private static final int PROCESS_ID = 1;
+
+    private final long start = System.nanoTime();
+    private final List<Span> spans = new ArrayList<>(1024);
+    private final Map<String, Integer> threadIds = new LinkedHashMap<>();
+
+    /**
+     * Adds a span on the track of the current thread.
+     *
+     * @param name        the name of the span
+     * @param startNanos  its start, as given by {@link System#nanoTime()}
+     * @param endNanos    its end, as given by {@link System#nanoTime()}
+     * @param files       the number of files it handled
+     * @param bytes       the number of bytes it read
+     * @param issues      the number of issues it handled
+     * @param waitedNanos the time it spent waiting for another span
+     */
+    public void addSpan(final String name, final long startNanos, final long endNanos, final int files,
+                        final long bytes, final long issues, final long waitedNanos) {
+        final String threadName = Thread.currentThread().getName();
+        synchronized (this) {
+            final int threadId = threadIds.computeIfAbsent(threadName, t -> threadIds.size() + 1);
+            spans.add(new Span(name, threadId, startNanos - start, endNanos - startNanos, files, bytes, issues,
+                waitedNanos));
+        }
+    }
+
+    /**
+     * @return the number of spans added
+     */
+    public synchronized int size() {
+        return spans.size();
+    }
+
+    /**
+     * Writes the timeline as a JSON object of trace events.
+     *
+     * @param traceFile the file to write
+     */
+    public synchronized void writeTrace(final File traceFile) {
+        try (JsonWriter writer = new JsonWriter(Files.newBufferedWriter(traceFile.toPath(), StandardCharsets.UTF_8))) {
+            writer.beginObject();
+            writer.name("displayTimeUnit").value("ms");
+            writer.name("traceEvents").beginArray();
+            for (final Map.Entry<String, Integer> thread : threadIds.entrySet()) {
+                writer.beginObject();
+                writer.name("name").value("thread_name");
+                writer.name("ph").value("M");
+                writer.name("pid").value(PROCESS_ID);
+                writer.name("tid").value(thread.getValue());
+                writer.name("args").beginObject().name("name").value(thread.getKey()).endObject();
+                writer.endObject();
+            }
+            for (final Span span : spans) {
+                writer.beginObject();
+                writer.name("name").value(span.name);
+                writer.name("cat").value("eslint");
+                writer.name("ph").value("X");
+                writer.name("pid").value(PROCESS_ID);
+                writer.name("tid").value(span.threadId);
+                writer.name("ts").value(toMicros(span.startNanos));
+                writer.name("dur").value(toMicros(span.durationNanos));
+                writer.name("args").beginObject();
+                writer.name("files").value(span.files);
+                writer.name("bytes").value(span.bytes);
+                writer.name("issues").value(span.issues);
+                if (span.waitedNanos > 0) {
+                    writer.name("waitedUs").value(toMicros(span.waitedNanos));
+                }
+                writer.endObject();
+                writer.endObject();
+            }
+            writer.endArray();
+            writer.endObject();
+            LOG.info("ESLint trace of {} spans written to {}", spans.size(), traceFile);
+        } catch (final IOException e) {
+            LOG.warn("Cannot write the ESLint trace {}", traceFile, e);
+        }
+    }
+
+    private static double toMicros(final long nanos) {
+        return Math.round(nanos / 100.0) / 10.0;
+    }
+
+    private static final class Span {
+        private final String name;
+        private final int threadId;
+        private final long startNanos;
+        private final long durationNanos;
+        private final int files;
+        private final long bytes;
+        private final long issues;
+        private final long waitedNanos;
+
+        private Span(final String name, final int threadId, final long startNanos, final long durationNanos,
+                     final int files, final long bytes, final long issues, final long waitedNanos) {
+            this.name = name;
+            this.threadId = threadId;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+            this.files = files;
+            this.bytes = bytes;
+            this.issues = issues;
+            this.waitedNanos = waitedNanos;
+        }
+    }
+}
@@ -44,8 +44,6 @@ public class EsRulesDefinition implements RulesDefinition {
     public static final EsLintRule ESLINT_UNKNOWN_RULE = new EsLintRule(
         "eslint-issue", Severity.MAJOR, "EsLint issues that are not yet known to the plugin", "No description for ESLint rule", "");
     private static final Logger LOG = LoggerFactory.getLogger(EsRulesDefinition.class);
-    @SuppressWarnings("HardcodedFileSeparator")
-    private static final String CORE_RULES_CONFIG_RESOURCE_PATH = "/eslint/eslint-rules.properties";
     private static final String DEFAULT_TAGS = "eslint";
     private static final Logger LOGGER = LoggerFactory.getLogger(EsRulesDefinition.class);
 
@@ -124,7 +122,6 @@ public class EsRulesDefinition implements RulesDefinition {
             if (eslintRule == null) {
                 eslintRule = new EsLintRule(ruleId, ruleSeverity, ruleName, ruleDescription, tags);
             }
-            eslintRule.setHtmlDescription(ruleDescription);
             rulesCollection.add(eslintRule);
         }
 
@@ -177,7 +174,7 @@ public class EsRulesDefinition implements RulesDefinition {
 
     private final Configuration settings;
 
-    private final List<EsLintRule> eslintCoreRules = new ArrayList<>(100);
+    private final List<EsLintRule> eslintCoreRules = EsLintRuleCatalog.coreRules();
 
     private final List<EsLintRule> eslintRules = new ArrayList<>(100);
 
@@ -189,7 +186,6 @@ public class EsRulesDefinition implements RulesDefinition {
 
         this.settings = settings;
 
-        loadCoreRules();
         loadCustomRules();
     }
 
@@ -213,6 +209,9 @@ public class EsRulesDefinition implements RulesDefinition {
         repository.done();
     }
 
+    /**
+     * @return the core rules, shared by all the instances, which must not be modified
+     */
     public List<EsLintRule> getCoreRules() {
         return eslintCoreRules;
     }
@@ -221,11 +220,6 @@ public class EsRulesDefinition implements RulesDefinition {
         return eslintRules;
     }
 
-    private void loadCoreRules() {
-        final InputStream coreRulesStream = EsRulesDefinition.class.getResourceAsStream(EsRulesDefinition.CORE_RULES_CONFIG_RESOURCE_PATH);
-        EsRulesDefinition.loadRules(coreRulesStream, eslintCoreRules);
-    }
-
     private void loadCustomRules() {
         if (settings == null) {
             return;
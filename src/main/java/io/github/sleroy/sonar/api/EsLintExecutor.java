@@ -9,7 +9,13 @@
  */
 package io.github.sleroy.sonar.api;
 
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import org.sonar.api.batch.ScannerSide;
 
@@ -18,4 +24,52 @@ import io.github.sleroy.sonar.EsLintExecutorConfig;
 @ScannerSide
 public interface EsLintExecutor {
     List<String> execute(EsLintExecutorConfig config, List<String> files);
+
+    /**
+     * Runs ESLint on the files and hands the report of every batch to the consumer, which may be called from several
+     * threads at once.
+     *
+     * @param config         the ESLint configuration
+     * @param files          the files to lint
+     * @param reportConsumer receives the JSON report of each batch
+     */
+    default void execute(final EsLintExecutorConfig config, final List<String> files, final Consumer<Reader> reportConsumer) {
+        for (final String report : execute(config, files)) {
+            reportConsumer.accept(new StringReader(report));
+        }
+    }
+
+    /**
+     * Resolves the ESLint configuration of a file, as eslint --print-config prints it.
+     *
+     * @param config the ESLint configuration
+     * @param file   the file whose configuration is resolved
+     * @return the JSON configuration, or null when it cannot be resolved
+     */
+    default String getPrintedConfig(final EsLintExecutorConfig config, final String file) {
+        return null;
+    }
+
+    /**
+     * Resolves the ESLint configuration of a file and returns the rules it turns on.
+     *
+     * @param config the ESLint configuration
+     * @param file   the file whose configuration is resolved
+     * @return the ids of the enabled rules, empty when they cannot be resolved
+     */
+    default Set<String> getEnabledRules(final EsLintExecutorConfig config, final String file) {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Resolves the ESLint configuration of a file and returns its ignorePatterns, whatever the format of the
+     * configuration file.
+     *
+     * @param config the ESLint configuration
+     * @param file   the file whose configuration is resolved
+     * @return the ignorePatterns, empty when they cannot be resolved
+     */
+    default Optional<List<String>> getIgnorePatterns(final EsLintExecutorConfig config, final String file) {
+        return Optional.empty();
+    }
 }
@@ -1,10 +1,42 @@
 package io.github.sleroy.sonar.api;
 
+import io.github.sleroy.sonar.model.EsLintFile;
+import io.github.sleroy.sonar.model.EsLintFileIssues;
 import io.github.sleroy.sonar.model.EsLintIssue;
 
+import java.io.Reader;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface EsLintParser {
     Map<String, List<EsLintIssue>> parse(List<String> rawOutputBatches);
+
+    /**
+     * Parses the JSON report of one batch while it is read.
+     *
+     * @param rawOutput    the report
+     * @param fileConsumer receives every linted file of the report
+     */
+    void parse(Reader rawOutput, Consumer<EsLintFile> fileConsumer);
+
+    /**
+     * Parses the JSON report of one batch while it is read, keeping the issues of every file column by column.
+     *
+     * @param rawOutput    the report
+     * @param fileConsumer receives the path of every linted file, as reported, and its issues
+     */
+    default void parseIssues(final Reader rawOutput, final BiConsumer<String, EsLintFileIssues> fileConsumer) {
+        parse(rawOutput, file -> fileConsumer.accept(file.getFilePath(), EsLintFileIssues.of(file.getMessages())));
+    }
+
+    /**
+     * Returns how much of the reports parsed so far was skipped because the sensor does not use it.
+     *
+     * @return the number of skipped characters
+     */
+    default long getSkippedChars() {
+        return 0;
+    }
 }
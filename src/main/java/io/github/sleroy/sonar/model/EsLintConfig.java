@@ -21,8 +21,13 @@ public class EsLintConfig {
         this.rules.put(name, true);
     }
 
+    /**
+     * Switches a rule off, whatever the configuration files say.
+     *
+     * @param name the ESLint rule id
+     */
     public void addDisabledRule(String name) {
-        this.rules.put(name, false);
+        this.rules.put(name, "off");
     }
 
     public void addRuleWithArgs(String name, Object... args) {
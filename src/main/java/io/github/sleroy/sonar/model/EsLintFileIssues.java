@@ -0,0 +1,221 @@
+package io.github.sleroy.sonar.model;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+/**
+ * The issues of a single file, kept column by column rather than as an {@link EsLintIssue} per issue. They are filled
+ * while a report is parsed, then recorded in an {@link EsLintIssueStore}, and the caches keep them in this form
+ * between analyses.
+ */
+public final class EsLintFileIssues {
+    /**
+     * Skips the members of a message that are not kept.
+     */
+    @FunctionalInterface
+    public interface ValueSkipper {
+        void skip(JsonReader reader) throws IOException;
+    }
+
+    private String[] ruleIds;
+    private String[] messages;
+    private int[] lines;
+    private int[] columns;
+    private int[] severities;
+    private int size;
+
+    public EsLintFileIssues() {
+        this(8);
+    }
+
+    /**
+     * @param capacity the number of issues expected
+     */
+    public EsLintFileIssues(final int capacity) {
+        final int initialCapacity = Math.max(1, capacity);
+        ruleIds = new String[initialCapacity];
+        messages = new String[initialCapacity];
+        lines = new int[initialCapacity];
+        columns = new int[initialCapacity];
+        severities = new int[initialCapacity];
+    }
+
+    /**
+     * Copies issues parsed as objects.
+     *
+     * @param issues the issues, null meaning none
+     * @return the issues of the file
+     */
+    public static EsLintFileIssues of(final List<EsLintIssue> issues) {
+        final EsLintFileIssues fileIssues = new EsLintFileIssues(issues == null ? 0 : issues.size());
+        if (issues != null) {
+            for (final EsLintIssue issue : issues) {
+                fileIssues.add(issue.getRuleId(), issue.getMessage(), issue.getLine(), issue.getColumn(),
+                    issue.getSeverity());
+            }
+        }
+        return fileIssues;
+    }
+
+    /**
+     * Appends an issue.
+     *
+     * @param ruleId   the ESLint rule, null for a parsing error
+     * @param message  the message
+     * @param line     the line
+     * @param column   the column
+     * @param severity the ESLint severity
+     */
+    public void add(final String ruleId, final String message, final int line, final int column, final int severity) {
+        if (size == lines.length) {
+            final int capacity = size * 2;
+            ruleIds = Arrays.copyOf(ruleIds, capacity);
+            messages = Arrays.copyOf(messages, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            columns = Arrays.copyOf(columns, capacity);
+            severities = Arrays.copyOf(severities, capacity);
+        }
+        ruleIds[size] = ruleId;
+        messages[size] = message;
+        lines[size] = line;
+        columns[size] = column;
+        severities[size] = severity;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Creates an {@link EsLintIssue} per issue, for the callers working on parsed objects.
+     *
+     * @return the issues
+     */
+    public List<EsLintIssue> toIssues() {
+        final List<EsLintIssue> issues = new ArrayList<>(size);
+        forEach((ruleId, message, line, column, severity) -> {
+            final EsLintIssue issue = new EsLintIssue();
+            issue.setRuleId(ruleId);
+            issue.setMessage(message);
+            issue.setLine(line);
+            issue.setColumn(column);
+            issue.setSeverity(severity);
+            issues.add(issue);
+        });
+        return issues;
+    }
+
+    /**
+     * Walks the issues in the order they were added.
+     *
+     * @param visitor receives every issue
+     */
+    public void forEach(final EsLintIssueStore.IssueVisitor visitor) {
+        for (int i = 0; i < size; i++) {
+            visitor.visit(ruleIds[i], messages[i], lines[i], columns[i], severities[i]);
+        }
+    }
+
+    /**
+     * Reads issues written as an array of ESLint messages, without creating an object per message. Only the members
+     * the sensor uses are kept.
+     *
+     * @param reader the reader, positioned on the array or on null
+     * @return the issues, empty for null
+     * @throws IOException if the array cannot be read
+     */
+    public static EsLintFileIssues read(final JsonReader reader) throws IOException {
+        return read(reader, JsonReader::skipValue);
+    }
+
+    /**
+     * Reads issues written as an array of ESLint messages, the members that are not kept going to a skipper.
+     *
+     * @param reader  the reader, positioned on the array or on null
+     * @param skipper skips the other members, such as the source or the fixes
+     * @return the issues, empty for null
+     * @throws IOException if the array cannot be read
+     */
+    public static EsLintFileIssues read(final JsonReader reader, final ValueSkipper skipper) throws IOException {
+        final EsLintFileIssues issues = new EsLintFileIssues();
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return issues;
+        }
+        reader.beginArray();
+        while (reader.hasNext()) {
+            String ruleId = null;
+            String message = null;
+            // As in an EsLintIssue, a message without line is on the first one
+            int line = 1;
+            int column = 0;
+            int severity = 0;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                case "ruleId":
+                    ruleId = nextStringOrNull(reader);
+                    break;
+                case "message":
+                    message = nextStringOrNull(reader);
+                    break;
+                case "line":
+                    line = reader.nextInt();
+                    break;
+                case "column":
+                    column = reader.nextInt();
+                    break;
+                case "severity":
+                    severity = reader.nextInt();
+                    break;
+                default:
+                    skipper.skip(reader);
+                    break;
+                }
+            }
+            reader.endObject();
+            issues.add(ruleId, message, line, column, severity);
+        }
+        reader.endArray();
+        return issues;
+    }
+
+    /**
+     * Writes the issues as an array of ESLint messages.
+     *
+     * @param writer the writer
+     * @throws IOException if the array cannot be written
+     */
+    public void write(final JsonWriter writer) throws IOException {
+        writer.beginArray();
+        for (int i = 0; i < size; i++) {
+            writer.beginObject();
+            if (ruleIds[i] != null) {
+                writer.name("ruleId").value(ruleIds[i]);
+            }
+            writer.name("severity").value(severities[i]);
+            if (messages[i] != null) {
+                writer.name("message").value(messages[i]);
+            }
+            writer.name("line").value(lines[i]);
+            writer.name("column").value(columns[i]);
+            writer.endObject();
+        }
+        writer.endArray();
+    }
+
+    private static String nextStringOrNull(final JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextString();
+    }
+}
@@ -0,0 +1,180 @@
+package io.github.sleroy.sonar.model;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact store of the ESLint issues of an analysis. The issues of a file are kept column by column in int arrays,
+ * and their rule ids and messages are interned in tables shared by every file, since ESLint repeats the same rules
+ * and messages over and over. The issues are recorded as they are parsed and walked through a visitor, without
+ * creating an {@link EsLintIssue} per issue.
+ * <p>
+ * Files may be added by several threads at once.
+ */
+public class EsLintIssueStore {
+    private final StringTable ruleIds = new StringTable();
+    private final StringTable messages = new StringTable();
+    private final Map<String, FileIssues> files = new LinkedHashMap<>(1024);
+
+    /**
+     * Receives the issues of a file, one at a time.
+     */
+    @FunctionalInterface
+    public interface IssueVisitor {
+        void visit(String ruleId, String message, int line, int column, int severity);
+    }
+
+    /**
+     * Records the issues of a file, replacing those recorded before.
+     *
+     * @param filePath the path of the file
+     * @param issues   its issues, null meaning none
+     */
+    public void put(final String filePath, final List<EsLintIssue> issues) {
+        put(filePath, EsLintFileIssues.of(issues));
+    }
+
+    /**
+     * Records the issues of a file as they were parsed, replacing those recorded before.
+     *
+     * @param filePath the path of the file
+     * @param issues   its issues
+     */
+    public synchronized void put(final String filePath, final EsLintFileIssues issues) {
+        final FileIssues fileIssues = new FileIssues(issues.size());
+        final int[] index = {0};
+        issues.forEach((ruleId, message, line, column, severity) -> {
+            final int i = index[0]++;
+            fileIssues.ruleIds[i] = ruleIds.intern(ruleId);
+            fileIssues.messages[i] = messages.intern(message);
+            fileIssues.lines[i] = line;
+            fileIssues.columns[i] = column;
+            fileIssues.severities[i] = severity;
+        });
+        files.put(filePath, fileIssues);
+    }
+
+    /**
+     * Forgets the issues of a file. The interned rule ids and messages are kept for the next files.
+     *
+     * @param filePath the path of the file
+     */
+    public synchronized void remove(final String filePath) {
+        files.remove(filePath);
+    }
+
+    public synchronized boolean contains(final String filePath) {
+        return files.containsKey(filePath);
+    }
+
+    /**
+     * @return the paths of the recorded files, in the order they were first recorded
+     */
+    public synchronized List<String> filePaths() {
+        return new ArrayList<>(files.keySet());
+    }
+
+    /**
+     * @param filePath the path of a file
+     * @return its number of issues, 0 if it is unknown
+     */
+    public synchronized int issueCount(final String filePath) {
+        final FileIssues fileIssues = files.get(filePath);
+        return fileIssues == null ? 0 : fileIssues.lines.length;
+    }
+
+    /**
+     * @return the number of recorded files
+     */
+    public synchronized int size() {
+        return files.size();
+    }
+
+    /**
+     * Counts the objects the store retains, so that its footprint can be checked without measuring the heap: per file
+     * its map entry, its holder and its five arrays, per interned string the string, its characters, its table entry
+     * and its boxed index. The tables themselves are left out.
+     *
+     * @return the number of retained objects
+     */
+    synchronized long retainedObjects() {
+        return files.size() * 7L + (ruleIds.values.size() + messages.values.size()) * 4L;
+    }
+
+    /**
+     * Walks the issues of a file.
+     *
+     * @param filePath the path of the file
+     * @param visitor  receives every issue of the file
+     */
+    public synchronized void forEach(final String filePath, final IssueVisitor visitor) {
+        final FileIssues fileIssues = files.get(filePath);
+        if (fileIssues == null) {
+            return;
+        }
+        for (int i = 0; i < fileIssues.lines.length; i++) {
+            visitor.visit(ruleIds.get(fileIssues.ruleIds[i]), messages.get(fileIssues.messages[i]),
+                fileIssues.lines[i], fileIssues.columns[i], fileIssues.severities[i]);
+        }
+    }
+
+    /**
+     * Copies the issues of a file, for the callers keeping them once the store forgot them. The copy shares the
+     * interned rule ids and messages.
+     *
+     * @param filePath the path of the file
+     * @return its issues, or null if it is unknown
+     */
+    public synchronized EsLintFileIssues copyOf(final String filePath) {
+        if (!files.containsKey(filePath)) {
+            return null;
+        }
+        final EsLintFileIssues issues = new EsLintFileIssues(issueCount(filePath));
+        forEach(filePath, issues::add);
+        return issues;
+    }
+
+    private static final class FileIssues {
+        private final int[] ruleIds;
+        private final int[] messages;
+        private final int[] lines;
+        private final int[] columns;
+        private final int[] severities;
+
+        private FileIssues(final int count) {
+            ruleIds = new int[count];
+            messages = new int[count];
+            lines = new int[count];
+            columns = new int[count];
+            severities = new int[count];
+        }
+    }
+
+    /**
+     * Strings numbered in the order they were first seen, null being numbered -1.
+     */
+    private static final class StringTable {
+        private final Map<String, Integer> indexes = new HashMap<>(256);
+        private final List<String> values = new ArrayList<>(256);
+
+        private int intern(final String value) {
+            if (value == null) {
+                return -1;
+            }
+            final Integer index = indexes.get(value);
+            if (index != null) {
+                return index;
+            }
+            values.add(value);
+            indexes.put(value, values.size() - 1);
+            return values.size() - 1;
+        }
+
+        private String get(final int index) {
+            return index < 0 ? null : values.get(index);
+        }
+    }
+}
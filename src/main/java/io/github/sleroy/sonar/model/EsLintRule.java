@@ -4,20 +4,23 @@ package io.github.sleroy.sonar.model;
 import org.apache.commons.lang3.StringUtils;
 import org.sonar.api.server.debt.DebtRemediationFunction.Type;
 
-public class EsLintRule {
-    private String key;
-    private String name;
-    private String severity;
-    private String htmlDescription;
+/**
+ * An ESLint rule of the plugin. Rules are immutable, the core ones being shared by every component of the plugin.
+ */
+public final class EsLintRule {
+    private final String key;
+    private final String name;
+    private final String severity;
+    private final String htmlDescription;
 
-    private boolean hasDebtRemediation;
-    private Type debtRemediationFunction;
-    private String debtRemediationScalar;
-    private String debtRemediationOffset;
-    private String debtType;
+    private final boolean hasDebtRemediation;
+    private final Type debtRemediationFunction;
+    private final String debtRemediationScalar;
+    private final String debtRemediationOffset;
+    private final String debtType;
 
 
-    private String tags = "";
+    private final String tags;
 
     public EsLintRule(
             String key,
@@ -26,16 +29,17 @@ public class EsLintRule {
             String htmlDescription,
             String tags
     ) {
-        this.setKey(key);
-        this.setSeverity(severity);
-        this.setName(name);
-        this.setHtmlDescription(htmlDescription);
-        this.setTags(tags);
-
-        setDebtRemediationFunction(Type.CONSTANT_ISSUE);
-        setDebtRemediationScalar("0min");
-        setDebtRemediationOffset("0min");
-        setDebtType(null);
+        this.key = key;
+        this.severity = severity;
+        this.name = name;
+        this.htmlDescription = htmlDescription;
+        this.tags = tags;
+
+        this.hasDebtRemediation = false;
+        this.debtRemediationFunction = Type.CONSTANT_ISSUE;
+        this.debtRemediationScalar = "0min";
+        this.debtRemediationOffset = "0min";
+        this.debtType = null;
     }
 
     public EsLintRule(
@@ -49,99 +53,59 @@ public class EsLintRule {
             String debtType,
             String tags
     ) {
-        this.setKey(key);
-        this.setSeverity(severity);
-        this.setName(name);
-        this.setHtmlDescription(htmlDescription);
-        this.setTags(tags);
-
-        setHasDebtRemediation(true);
-        this.setDebtRemediationFunction(debtRemediationFunction);
-        this.setDebtRemediationScalar(debtRemediationScalar);
-        this.setDebtRemediationOffset(debtRemediationOffset);
-        this.setDebtType(debtType);
+        this.key = key;
+        this.severity = severity;
+        this.name = name;
+        this.htmlDescription = htmlDescription;
+        this.tags = tags;
+
+        this.hasDebtRemediation = true;
+        this.debtRemediationFunction = debtRemediationFunction;
+        this.debtRemediationScalar = debtRemediationScalar;
+        this.debtRemediationOffset = debtRemediationOffset;
+        this.debtType = debtType;
     }
 
     public String getKey() {
         return key;
     }
 
-    public void setKey(String key) {
-        this.key = key;
-    }
-
     public String getName() {
         return name;
     }
 
-    public void setName(String name) {
-        this.name = name;
-    }
-
     public String getSeverity() {
         return severity;
     }
 
-    public void setSeverity(String severity) {
-        this.severity = severity;
-    }
-
     public String getHtmlDescription() {
         return htmlDescription;
     }
 
-    public void setHtmlDescription(String htmlDescription) {
-        this.htmlDescription = htmlDescription;
-    }
-
     public boolean isHasDebtRemediation() {
         return hasDebtRemediation;
     }
 
-    public void setHasDebtRemediation(boolean hasDebtRemediation) {
-        this.hasDebtRemediation = hasDebtRemediation;
-    }
-
     public Type getDebtRemediationFunction() {
         return debtRemediationFunction;
     }
 
-    public void setDebtRemediationFunction(Type debtRemediationFunction) {
-        this.debtRemediationFunction = debtRemediationFunction;
-    }
-
     public String getDebtRemediationScalar() {
         return debtRemediationScalar;
     }
 
-    public void setDebtRemediationScalar(String debtRemediationScalar) {
-        this.debtRemediationScalar = debtRemediationScalar;
-    }
-
     public String getDebtRemediationOffset() {
         return debtRemediationOffset;
     }
 
-    public void setDebtRemediationOffset(String debtRemediationOffset) {
-        this.debtRemediationOffset = debtRemediationOffset;
-    }
-
     public String getDebtType() {
         return debtType;
     }
 
-    public void setDebtType(String debtType) {
-        this.debtType = debtType;
-    }
-
     public String getTags() {
         return this.tags;
     }
 
-    public void setTags(String tags) {
-        this.tags = tags;
-    }
-
     @Override
     public String toString() {
         return "EsLintRule{" +
@@ -0,0 +1,81 @@
+/*
+ * Long-lived bridge between the SonarQube ESLint plugin and ESLint.
+ *
+ * The plugin writes one JSON request per line on stdin :
+ *   {"id": 1, "eslintPath": ".../eslint/bin/eslint.js", "configFile": "...", "rulesDir": "...", "cwd": "...",
+ *    "rules": {...}, "files": ["..."]}
+ * where the optional rules are set on top of the configuration file, as the --rule option does, and the optional cwd
+ * is the directory ESLint resolves .eslintignore and the ignorePatterns from, as if it was run from there.
+ *
+ * For every request, the bridge answers with a header line, followed by the ESLint JSON report on a single line
+ * when the lint succeeded :
+ *   {"id": 1, "ok": true}
+ *   [{"filePath": "...", "messages": [...]}]
+ * or, on failure, with a single header line :
+ *   {"id": 1, "ok": false, "error": "..."}
+ *
+ * ESLint, its plugins and parsers are loaded once per (eslintPath, configFile, rulesDir, cwd, rules) and kept warm
+ * until stdin is closed.
+ */
+'use strict';
+
+const path = require('path');
+const readline = require('readline');
+
+// The protocol owns stdout : anything ESLint or its plugins log goes to stderr instead
+const writeOut = process.stdout.write.bind(process.stdout);
+console.log = console.error;
+console.info = console.error;
+
+const engines = new Map();
+
+function loadEngine(request) {
+    const key = [request.eslintPath, request.configFile, request.rulesDir || '', request.cwd || '', JSON.stringify(request.rules || {})].join('\u0000');
+    let engine = engines.get(key);
+    if (engine) {
+        return engine;
+    }
+    // eslintPath points to <eslint package>/bin/eslint.js
+    const eslint = require(path.resolve(path.dirname(request.eslintPath), '..'));
+    const rulePaths = request.rulesDir ? [request.rulesDir] : [];
+    const cwd = request.cwd || process.cwd();
+
+    if (eslint.ESLint) {
+        const instance = new eslint.ESLint({
+            cwd: cwd,
+            overrideConfigFile: request.configFile,
+            overrideConfig: request.rules ? {rules: request.rules} : undefined,
+            rulePaths: rulePaths
+        });
+        engine = files => instance.lintFiles(files);
+    } else {
+        const cli = new eslint.CLIEngine({cwd: cwd, configFile: request.configFile, rules: request.rules, rulePaths: rulePaths});
+        engine = files => Promise.resolve(cli.executeOnFiles(files).results);
+    }
+    engines.set(key, engine);
+    return engine;
+}
+
+function answer(header, report) {
+    writeOut(JSON.stringify(header) + '\n' + (report === undefined ? '' : report + '\n'));
+}
+
+function serve(line) {
+    let request = null;
+    return Promise.resolve()
+        .then(() => {
+            request = JSON.parse(line);
+            return loadEngine(request)(request.files);
+        })
+        .then(results => answer({id: request.id, ok: true}, JSON.stringify(results)))
+        .catch(e => answer({id: request && request.id, ok: false, error: String(e && e.stack || e)}));
+}
+
+// Requests are served one at a time, in the order they were received
+let queue = Promise.resolve();
+
+readline.createInterface({input: process.stdin, terminal: false}).on('line', line => {
+    if (line.trim()) {
+        queue = queue.then(() => serve(line));
+    }
+});
@@ -0,0 +1,18 @@
+/*
+ * Runs the ESLint command line on files listed in a text file, one path per line, instead of on the command line.
+ * The command line of the operating system is length limited, the arguments of the Node process are not.
+ *
+ * Usage : node eslint-filelist.js <list file> <path to eslint.js> [eslint options...]
+ */
+'use strict';
+
+const fs = require('fs');
+const path = require('path');
+
+const args = process.argv.slice(2);
+const listFile = args[0];
+const eslintPath = path.resolve(args[1]);
+const files = fs.readFileSync(listFile, 'utf8').split(/\r?\n/).filter(file => file.length > 0);
+
+process.argv = [process.argv[0], eslintPath].concat(args.slice(2), files);
+require(eslintPath);
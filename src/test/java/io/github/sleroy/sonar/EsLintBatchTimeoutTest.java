@@ -0,0 +1,63 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EsLintBatchTimeoutTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void timeoutFor_isThePerFileTimeout_untilABatchCompletes() {
+        final EsLintBatchTimeout timeout = new EsLintBatchTimeout(10000);
+
+        assertEquals(400 * 10000L, timeout.timeoutFor(400, 1000000));
+    }
+
+    @Test
+    public void timeoutFor_followsTheObservedThroughput() {
+        final EsLintBatchTimeout timeout = new EsLintBatchTimeout(10000);
+        timeout.record(100000, 5000);
+
+        // 1 MB at 20 bytes per ms, with the safety factor
+        assertEquals(EsLintBatchTimeout.SAFETY_FACTOR * 50000L, timeout.timeoutFor(400, 1000000));
+    }
+
+    @Test
+    public void timeoutFor_staysBetweenThePerFileAndThePerBatchTimeouts() {
+        final EsLintBatchTimeout timeout = new EsLintBatchTimeout(10000);
+        timeout.record(100000, 5000);
+
+        assertEquals(10000L, timeout.timeoutFor(400, 10));
+        assertEquals(2 * 10000L, timeout.timeoutFor(2, 1000000));
+    }
+
+    @Test
+    public void sizeOf_sumsTheFileSizes() throws IOException {
+        final File first = temp.newFile();
+        Files.write(first.toPath(), new byte[12]);
+        final File second = temp.newFile();
+        Files.write(second.toPath(), new byte[30]);
+
+        assertEquals(42L, EsLintBatchTimeout.sizeOf(Arrays.asList(first.getAbsolutePath(), second.getAbsolutePath(),
+            new File(temp.getRoot(), "missing.js").getAbsolutePath())));
+    }
+}
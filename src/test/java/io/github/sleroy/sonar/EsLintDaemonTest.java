@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.utils.internal.DefaultTempFolder;
+
+import io.github.sleroy.sonar.model.EsLintIssue;
+
+/**
+ * Runs the bundled bridge against a stand-in ESLint package. Skipped when Node is not installed.
+ */
+public class EsLintDaemonTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    EsLintDaemon daemon;
+    EsLintExecutorConfig config;
+
+    private static boolean isNodeAvailable() {
+        try {
+            return new ProcessBuilder("node", "--version").start().waitFor() == 0;
+        } catch (final IOException e) {
+            return false;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        assumeTrue(isNodeAvailable());
+
+        daemon = new EsLintDaemon(new DefaultTempFolder(temp.newFolder()));
+
+        config = new EsLintExecutorConfig();
+        config.setPathToEsLint(new File("src/test/resources/fake-eslint/bin/eslint.js").getAbsolutePath());
+        config.setConfigFile("src/test/resources/.eslintrc.json");
+        config.setTimeoutMs(40000);
+    }
+
+    @After
+    public void tearDown() {
+        if (daemon != null) {
+            daemon.stop();
+        }
+    }
+
+    @Test
+    public void lint_reusesTheSameEngineForEveryBatch() {
+        final String firstBatch = daemon.lint(config, Arrays.asList("/path/to/a.js", "/path/to/b.js"), 40000);
+        final String secondBatch = daemon.lint(config, Collections.singletonList("/path/to/c.js"), 40000);
+
+        final Map<String, List<EsLintIssue>> issues = new EsLintParserImpl().parse(Arrays.asList(firstBatch, secondBatch));
+
+        assertEquals(3, issues.size());
+        assertEquals("engines=1", issues.get("/path/to/c.js").get(0).getMessage());
+    }
+
+    @Test
+    public void lint_returnsNoReport_whenEsLintCannotBeLoaded() {
+        config.setPathToEsLint(new File("src/test/resources/missing-eslint/bin/eslint.js").getAbsolutePath());
+
+        assertNull(daemon.lint(config, Collections.singletonList("/path/to/a.js"), 40000));
+    }
+
+    @Test
+    public void lint_keepsServing_afterAFailedBatch() {
+        final String validPath = config.getPathToEsLint();
+        config.setPathToEsLint(new File("src/test/resources/missing-eslint/bin/eslint.js").getAbsolutePath());
+        daemon.lint(config, Collections.singletonList("/path/to/a.js"), 40000);
+
+        config.setPathToEsLint(validPath);
+        final Map<String, List<EsLintIssue>> issues = new EsLintParserImpl()
+            .parse(Collections.singletonList(daemon.lint(config, Collections.singletonList("/path/to/a.js"), 40000)));
+
+        assertEquals(1, issues.size());
+    }
+}
@@ -11,8 +11,10 @@
 package io.github.sleroy.sonar;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
@@ -68,6 +70,41 @@ public class EsLintExecutorConfigTest {
 	assertEquals((Integer) 12, config.getTimeoutMs());
     }
 
+    @Test
+    public void canGetSetDaemon() {
+	final EsLintExecutorConfig config = getNewConfig();
+	assertFalse(config.isDaemon());
+
+	config.setDaemon(true);
+	assertTrue(config.isDaemon());
+    }
+
+    @Test
+    public void canGetSetFileListAndBatchSize() {
+	final EsLintExecutorConfig config = getNewConfig();
+	assertFalse(config.isFileList());
+	assertEquals(EsLintExecutorConfig.DEFAULT_BATCH_SIZE, config.getBatchSize());
+
+	config.setFileList(true);
+	config.setBatchSize(0);
+	assertTrue(config.isFileList());
+	assertNull(config.getNativeCacheDir());
+	assertNull(config.getOutputDir());
+	assertEquals(1, config.getBatchSize());
+    }
+
+    @Test
+    public void canGetSetWorkers() {
+	final EsLintExecutorConfig config = getNewConfig();
+	assertEquals(1, config.getWorkers());
+
+	config.setWorkers(8);
+	assertEquals(8, config.getWorkers());
+
+	config.setWorkers(0);
+	assertEquals(1, config.getWorkers());
+    }
+
     @Test
     public <T> void fromSettings_checkConfigurationOrder() {
 	final GenericConfiguration settings = new GenericConfiguration();
@@ -153,6 +190,56 @@ public class EsLintExecutorConfigTest {
 	assertNotEquals("No local Eslint file", EsLintExecutorConfig.CONFIG_JS_FILENAME, config.getConfigFile());
 	assertNull(config.getRulesDir());
 	assertEquals((Integer) 12000, config.getTimeoutMs());
+	assertEquals(Runtime.getRuntime().availableProcessors(), config.getWorkers());
+	assertFalse("The files are passed on the command line unless a file list is asked for", config.isFileList());
+    }
+
+    @Test
+    public void fromSettings_readsWorkers() {
+	final PathResolver resolver = mock(PathResolver.class);
+
+	final SensorContextTester create = SensorContextTester.create(Files.currentFolder());
+	create.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_WORKERS, 3);
+	final EsLintExecutorConfig config = EsLintExecutorConfigFactory.fromSettings(create, resolver);
+
+	assertEquals(3, config.getWorkers());
+    }
+
+    @Test
+    public void fromSettings_readsTheFileListAndBatchSize() {
+	final PathResolver resolver = mock(PathResolver.class);
+
+	final SensorContextTester create = SensorContextTester.create(Files.currentFolder());
+	create.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_FILE_LIST, true);
+	create.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_BATCH_SIZE, 200);
+	final EsLintExecutorConfig config = EsLintExecutorConfigFactory.fromSettings(create, resolver);
+
+	assertTrue(config.isFileList());
+	assertEquals(200, config.getBatchSize());
+    }
+
+    @Test
+    public void fromSettings_resolvesTheNativeCacheDir() {
+	final PathResolver resolver = mock(PathResolver.class);
+
+	final SensorContextTester create = SensorContextTester.create(Files.currentFolder());
+	create.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_NATIVE_CACHE, true);
+	create.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_CACHE_DIR, "target/eslint-cache");
+	final EsLintExecutorConfig config = EsLintExecutorConfigFactory.fromSettings(create, resolver);
+
+	assertEquals(new File(Files.currentFolder(), "target/eslint-cache/eslint").getAbsolutePath(),
+		config.getNativeCacheDir());
+    }
+
+    @Test
+    public void fromSettings_readsTheOutputDir() {
+	final PathResolver resolver = mock(PathResolver.class);
+
+	final SensorContextTester create = SensorContextTester.create(Files.currentFolder());
+	create.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_OUTPUT_DIR, "/dev/shm/eslint");
+	final EsLintExecutorConfig config = EsLintExecutorConfigFactory.fromSettings(create, resolver);
+
+	assertEquals(new File("/dev/shm/eslint").getAbsolutePath(), config.getOutputDir());
     }
 
     private EsLintExecutorConfig getNewConfig() {
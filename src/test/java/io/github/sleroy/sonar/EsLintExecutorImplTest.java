@@ -12,20 +12,44 @@ package io.github.sleroy.sonar;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.stubbing.Answer;
 import org.sonar.api.internal.apachecommons.lang.SystemUtils;
 import org.sonar.api.utils.System2;
@@ -33,6 +57,9 @@ import org.sonar.api.utils.TempFolder;
 import org.sonar.api.utils.command.Command;
 import org.sonar.api.utils.command.CommandExecutor;
 import org.sonar.api.utils.command.StreamConsumer;
+import org.sonar.api.utils.command.TimeoutException;
+
+import io.github.sleroy.sonar.model.EsLintConfig;
 
 public class EsLintExecutorImplTest {
     EsLintExecutorImpl executorImpl;
@@ -44,6 +71,9 @@ public class EsLintExecutorImplTest {
 
     EsLintExecutorConfig config;
 
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
     @Test
     public void BatchesExecutions_IfTooManyFilesForCommandLine() {
 	final List<String> filenames = new ArrayList<>();
@@ -75,6 +105,46 @@ public class EsLintExecutorImplTest {
 
     }
 
+    @Test
+    public void BatchesRunConcurrently_AndResultsKeepBatchOrder() throws Exception {
+	final List<String> filenames = new ArrayList<>();
+	int currentLength = 0;
+	final int standardCmdLength = "node path/to/eslint --rules-dir path/to/rules --out path/to/temp --config path/to/config"
+		.length();
+
+	final String firstBatch = "first batch";
+	while (currentLength + 12 < EsLintExecutorImpl.MAX_COMMAND_LENGTH - standardCmdLength) {
+	    filenames.add(firstBatch);
+	    currentLength += firstBatch.length() + 1; // 1 for the space
+	}
+	filenames.add("second batch");
+
+	final File secondOutputFile = mock(File.class);
+	when(secondOutputFile.getAbsolutePath()).thenReturn("path/to/temp2");
+	when(tempFolder.newFile()).thenReturn(tempOutputFile, secondOutputFile);
+	doAnswer(invocation -> new BufferedReader(new StringReader(invocation.<File>getArgument(0).getAbsolutePath())))
+		.when(executorImpl).getBufferedReaderForFile(any(File.class));
+
+	// The first batch is the slowest one, so it completes last
+	final List<Command> capturedCommands = Collections.synchronizedList(new ArrayList<>());
+	final Answer<Integer> captureCommand = invocation -> {
+	    final Command command = invocation.getArgument(0);
+	    capturedCommands.add(command);
+	    if (command.toCommandLine().contains(firstBatch)) {
+		Thread.sleep(200);
+	    }
+	    return 0;
+	};
+
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(captureCommand);
+	config.setWorkers(2);
+	final List<String> results = executorImpl.execute(config, filenames);
+
+	assertEquals(2, capturedCommands.size());
+	assertEquals(Arrays.asList("path/to/temp", "path/to/temp2"), results);
+    }
+
     @Test
     public void DoesNotAddRulesDirParameter_IfEmptyString() {
 	final ArrayList<Command> capturedCommands = new ArrayList<>();
@@ -117,6 +187,406 @@ public class EsLintExecutorImplTest {
 	assertFalse(theCommand.toCommandLine().contains("--rules-dir"));
     }
 
+    @Test
+    public void RuleOverrides_AreAddedAsRuleOptions() {
+	final ArrayList<Command> capturedCommands = new ArrayList<>();
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(invocation -> {
+		    capturedCommands.add(invocation.getArgument(0));
+		    return 0;
+		});
+
+	final EsLintConfig ruleOverrides = new EsLintConfig();
+	ruleOverrides.addDisabledRule("semi");
+	ruleOverrides.addDisabledRule("import/no-cycle");
+	config.setRuleOverrides(ruleOverrides);
+	executorImpl.execute(config, Arrays.asList(new String[] { "path/to/file" }));
+
+	final List<String> arguments = capturedCommands.get(0).getArguments();
+	final int firstRule = arguments.indexOf("--rule");
+	assertEquals(Arrays.asList("--rule", "import/no-cycle: off", "--rule", "semi: off"),
+		arguments.subList(firstRule, firstRule + 4));
+    }
+
+    @Test
+    public void RuleTimings_AreReadFromTheStandardOutput_WhenRulesAreTimed() {
+	final ArrayList<Command> capturedCommands = new ArrayList<>();
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(invocation -> {
+		    capturedCommands.add(invocation.getArgument(0));
+		    invocation.<StreamConsumer>getArgument(1).consumeLine("Rule | Time (ms) | Relative");
+		    invocation.<StreamConsumer>getArgument(1).consumeLine("import/no-cycle | 42.000 | 100.0%");
+		    return 1;
+		});
+
+	final EsLintRuleTimings ruleTimings = new EsLintRuleTimings();
+	config.setRuleTimings(ruleTimings);
+	config.setStreamOutput(true);
+	executorImpl.execute(config, Arrays.asList(new String[] { "path/to/file" }));
+
+	assertEquals("all", capturedCommands.get(0).getEnvironmentVariables().get("TIMING"));
+	assertTrue(capturedCommands.get(0).toCommandLine().contains("--output-file"));
+	assertEquals(42.0, ruleTimings.total(), 0.001);
+    }
+
+    @Test
+    public void GetEnabledRules_ReadsTheConfigurationPrintedByEsLint() {
+	final ArrayList<Command> capturedCommands = new ArrayList<>();
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(invocation -> {
+		    capturedCommands.add(invocation.getArgument(0));
+		    invocation.<StreamConsumer>getArgument(1).consumeLine("{\"rules\":{\"semi\":[\"error\",\"always\"],"
+			    + "\"quotes\":\"off\",\"eqeqeq\":0,\"no-undef\":2,\"react/jsx-key\":\"warn\"}}");
+		    return 0;
+		});
+
+	final Set<String> enabledRules = executorImpl.getEnabledRules(config, "path/to/file");
+
+	assertEquals(new HashSet<>(Arrays.asList("semi", "no-undef", "react/jsx-key")), enabledRules);
+	assertTrue(capturedCommands.get(0).toCommandLine().contains("--print-config path/to/file"));
+    }
+
+    @Test
+    public void GetIgnorePatterns_ReadsTheConfigurationPrintedOnce_FromTheWorkingDirectory() {
+	final ArrayList<Command> capturedCommands = new ArrayList<>();
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(invocation -> {
+		    capturedCommands.add(invocation.getArgument(0));
+		    invocation.<StreamConsumer>getArgument(1)
+			    .consumeLine("{\"rules\":{\"semi\":2},\"ignorePatterns\":[\"dist/\",\"**/*.d.js\"]}");
+		    return 0;
+		});
+	config.setWorkingDir(temp.getRoot().getAbsolutePath());
+
+	assertEquals(Arrays.asList("dist/", "**/*.d.js"), executorImpl.getIgnorePatterns(config, "path/to/file").get());
+	assertEquals(Collections.singleton("semi"), executorImpl.getEnabledRules(config, "path/to/file"));
+	assertEquals(1, capturedCommands.size());
+	assertEquals(new File(config.getWorkingDir()), capturedCommands.get(0).getDirectory());
+    }
+
+    @Test
+    public void DaemonMode_SendsBatchesToTheDaemon_WithoutStartingProcesses() {
+	final EsLintDaemon daemon = mock(EsLintDaemon.class);
+	when(daemon.lint(any(EsLintExecutorConfig.class), any(List.class), any(long.class))).thenReturn("[]");
+	final EsLintExecutorImpl daemonExecutor = spy(new EsLintExecutorImpl(system, tempFolder, daemon));
+	when(daemonExecutor.createExecutor()).thenReturn(commandExecutor);
+
+	config.setDaemon(true);
+	final List<String> results = daemonExecutor.execute(config, Arrays.asList("path/to/file", "path/to/another"));
+
+	assertEquals(Collections.singletonList("[]"), results);
+	verify(daemon).lint(config, Arrays.asList("path/to/file", "path/to/another"), 2 * 40000L);
+	verify(commandExecutor, never()).execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class));
+    }
+
+    @Test
+    public void DaemonMode_LintsABatchWithANewProcess_WhenTheDaemonFails() throws Exception {
+	final EsLintDaemon daemon = mock(EsLintDaemon.class);
+	when(daemon.lint(any(EsLintExecutorConfig.class), any(List.class), any(long.class))).thenReturn(null, "[]");
+	final EsLintExecutorImpl daemonExecutor = spy(new EsLintExecutorImpl(system, tempFolder, daemon));
+	when(daemonExecutor.createExecutor()).thenReturn(commandExecutor);
+	doReturn(new BufferedReader(new StringReader("[{\"filePath\":\"path/to/file\",\"messages\":[]}]")))
+		.when(daemonExecutor).getBufferedReaderForFile(any(File.class));
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).thenReturn(1);
+
+	config.setDaemon(true);
+	config.setBatchSize(1);
+	final List<String> results = daemonExecutor.execute(config, Arrays.asList("path/to/file", "path/to/another"));
+
+	assertEquals(Arrays.asList("[{\"filePath\":\"path/to/file\",\"messages\":[]}]", "[]"), results);
+	verify(commandExecutor, times(1)).execute(any(Command.class), any(StreamConsumer.class),
+		any(StreamConsumer.class), any(long.class));
+    }
+
+    @Test
+    public void FileListMode_PassesFilesThroughATemporaryList() throws Exception {
+	final File scriptsDir = temp.newFolder();
+	final File fileList = temp.newFile("eslint-files.txt");
+	when(tempFolder.newDir(any(String.class))).thenReturn(scriptsDir);
+	when(tempFolder.newFile("eslint-files", ".txt")).thenReturn(fileList);
+
+	final ArrayList<Command> capturedCommands = new ArrayList<>();
+	final ArrayList<List<String>> capturedLists = new ArrayList<>();
+	final Answer<Integer> captureCommand = invocation -> {
+	    capturedCommands.add((Command) invocation.getArguments()[0]);
+	    capturedLists.add(Files.readAllLines(fileList.toPath()));
+	    return 0;
+	};
+
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(captureCommand);
+	config.setFileList(true);
+	executorImpl.execute(config, Arrays.asList(new String[] { "path/to/file", "path/to/another" }));
+
+	assertEquals(1, capturedCommands.size());
+	assertEquals("node " + new File(scriptsDir, "eslint-filelist.js").getAbsolutePath() + " "
+		+ fileList.getAbsolutePath()
+		+ " path/to/eslint -f json --rules-dir path/to/rules --output-file path/to/temp --config path/to/config",
+		capturedCommands.get(0).toCommandLine());
+	assertEquals(Arrays.asList("path/to/file", "path/to/another"), capturedLists.get(0));
+	assertFalse("The file list is deleted once linted", fileList.exists());
+    }
+
+    @Test
+    public void FileListMode_SplitsBatchesOnBatchSize() throws Exception {
+	when(tempFolder.newDir(any(String.class))).thenReturn(temp.newFolder());
+	when(tempFolder.newFile("eslint-files", ".txt")).thenAnswer(invocation -> temp.newFile());
+
+	final ArrayList<Long> capturedTimeouts = new ArrayList<>();
+	final Answer<Integer> captureCommand = invocation -> {
+	    capturedTimeouts.add((long) invocation.getArguments()[3]);
+	    return 0;
+	};
+
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(captureCommand);
+	config.setFileList(true);
+	config.setBatchSize(2);
+	final List<String> results = executorImpl.execute(config, Arrays.asList("a.js", "b.js", "c.js", "d.js", "e.js"));
+
+	assertEquals(3, results.size());
+	assertEquals(Arrays.asList(2 * 40000L, 2 * 40000L, 40000L), capturedTimeouts);
+    }
+
+    @Test
+    public void NativeCacheMode_PassesTheCacheLocationOfTheBucket() throws Exception {
+	final File scriptsDir = temp.newFolder();
+	final File fileList = temp.newFile("eslint-files.txt");
+	final File cacheDir = new File(temp.getRoot(), "cache");
+	when(tempFolder.newDir(any(String.class))).thenReturn(scriptsDir);
+	when(tempFolder.newFile("eslint-files", ".txt")).thenReturn(fileList);
+
+	final ArrayList<Command> capturedCommands = new ArrayList<>();
+	final Answer<Integer> captureCommand = invocation -> {
+	    capturedCommands.add((Command) invocation.getArguments()[0]);
+	    return 0;
+	};
+
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(captureCommand);
+	config.setNativeCacheDir(cacheDir.getAbsolutePath());
+	executorImpl.execute(config, Arrays.asList(new String[] { "path/to/file" }));
+
+	assertEquals(1, capturedCommands.size());
+	assertEquals("node " + new File(scriptsDir, "eslint-filelist.js").getAbsolutePath() + " "
+		+ fileList.getAbsolutePath()
+		+ " path/to/eslint -f json --rules-dir path/to/rules --output-file path/to/temp --config path/to/config"
+		+ " --cache --cache-location "
+		+ new File(cacheDir, "bucket-" + EsLintExecutorImpl.bucketOf("path/to/file") + ".eslintcache").getAbsolutePath(),
+		capturedCommands.get(0).toCommandLine());
+	assertTrue("The cache directory is created", cacheDir.isDirectory());
+    }
+
+    @Test
+    public void NativeCacheMode_KeepsEveryFileInTheSameBucket() throws Exception {
+	when(tempFolder.newDir(any(String.class))).thenReturn(temp.newFolder());
+	when(tempFolder.newFile("eslint-files", ".txt")).thenAnswer(invocation -> temp.newFile());
+
+	final File cacheDir = temp.newFolder();
+	final File[] checkouts = { temp.newFolder(), temp.newFolder() };
+	final Map<String, String> bucketOfFile = new HashMap<>();
+	final Answer<Integer> captureCommand = invocation -> {
+	    final String[] arguments = ((Command) invocation.getArguments()[0]).getArguments().toArray(new String[0]);
+	    final String cacheLocation = arguments[arguments.length - 1];
+	    for (final String file : Files.readAllLines(new File(arguments[1]).toPath())) {
+		// The same file of both checkouts
+		final String relativePath = file.substring(file.lastIndexOf("src/"));
+		final String previous = bucketOfFile.put(relativePath, cacheLocation);
+		assertTrue(file + " moved to another bucket", previous == null || previous.equals(cacheLocation));
+	    }
+	    return 0;
+	};
+
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(captureCommand);
+	config.setNativeCacheDir(cacheDir.getAbsolutePath());
+	config.setWorkingDir(checkouts[0].getAbsolutePath());
+	config.setWorkers(4);
+	final List<String> files = new ArrayList<>();
+	for (int i = 0; i < 40; i++) {
+	    files.add(new File(checkouts[0], "src/file" + i + ".js").getAbsolutePath());
+	}
+	executorImpl.execute(config, files);
+	assertEquals(40, bucketOfFile.size());
+	assertTrue(new HashSet<>(bucketOfFile.values()).size() > 1);
+
+	// Adding and removing files, changing the workers or the checkout directory does not move the other ones
+	config.setWorkingDir(checkouts[1].getAbsolutePath());
+	config.setWorkers(1);
+	files.clear();
+	for (int i = 1; i < 80; i++) {
+	    files.add(new File(checkouts[1], "src/file" + i + ".js").getAbsolutePath());
+	}
+	executorImpl.execute(config, files);
+	assertEquals(80, bucketOfFile.size());
+    }
+
+    @Test
+    public void SplitsATimingOutBatch_DownToTheOffendingFile() {
+	final ArrayList<String> capturedCommands = new ArrayList<>();
+	final Answer<Integer> captureCommand = invocation -> {
+	    final Command command = invocation.getArgument(0);
+	    capturedCommands.add(command.toCommandLine());
+	    if (command.toCommandLine().contains("c.js")) {
+		throw new TimeoutException(command, "Timeout exceeded", null);
+	    }
+	    return 1;
+	};
+
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(captureCommand);
+	final List<String> results = executorImpl.execute(config, Arrays.asList("a.js", "b.js", "c.js", "d.js"));
+
+	// a b c d, then a b, c d, then c, d
+	assertEquals(5, capturedCommands.size());
+	assertTrue(capturedCommands.get(1).endsWith(" a.js b.js"));
+	assertTrue(capturedCommands.get(3).endsWith(" c.js"));
+	assertTrue(capturedCommands.get(4).endsWith(" d.js"));
+	assertEquals("The reports of a b and of d are kept", 2, results.size());
+    }
+
+    @Test
+    public void SplitsABatch_WhenEsLintExitsAbnormally() {
+	final ArrayList<String> capturedCommands = new ArrayList<>();
+	final Answer<Integer> captureCommand = invocation -> {
+	    final Command command = invocation.getArgument(0);
+	    capturedCommands.add(command.toCommandLine());
+	    return command.toCommandLine().contains("a.js") ? 2 : 0;
+	};
+
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(captureCommand);
+	final List<String> results = executorImpl.execute(config, Arrays.asList("a.js", "b.js"));
+
+	assertEquals(3, capturedCommands.size());
+	assertEquals(1, results.size());
+    }
+
+    @Test
+    public void GivesUpSplitting_OnceTooManyFilesWereSkipped() {
+	final ArrayList<String> capturedCommands = new ArrayList<>();
+	final Answer<Integer> captureCommand = invocation -> {
+	    capturedCommands.add(((Command) invocation.getArgument(0)).toCommandLine());
+	    return 2;
+	};
+
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(captureCommand);
+	final List<String> files = new ArrayList<>();
+	for (int i = 0; i < 1000; i++) {
+	    files.add("file" + i + ".js");
+	}
+	config.setFileList(true);
+	config.setBatchSize(1000);
+	when(tempFolder.newDir(any(String.class))).then(invocation -> temp.newFolder());
+	when(tempFolder.newFile("eslint-files", ".txt")).then(invocation -> temp.newFile());
+	final List<String> results = executorImpl.execute(config, files);
+
+	assertTrue(capturedCommands.size() < 100);
+	assertTrue(results.isEmpty());
+    }
+
+    @Test
+    public void OutputDir_ReceivesOneReportPerBatch_DeletedOnceRead() throws Exception {
+	final File outputDir = temp.newFolder();
+	doCallRealMethod().when(executorImpl).getBufferedReaderForFile(any(File.class));
+
+	final List<String> reportPaths = new ArrayList<>();
+	final Answer<Integer> writeReport = invocation -> {
+	    final List<String> arguments = ((Command) invocation.getArgument(0)).getArguments();
+	    final File report = new File(arguments.get(arguments.indexOf("--output-file") + 1));
+	    reportPaths.add(report.getAbsolutePath());
+	    Files.write(report.toPath(), Collections.singletonList("[]"));
+	    return 0;
+	};
+
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).then(writeReport);
+	config.setOutputDir(outputDir.getAbsolutePath());
+	config.setFileList(true);
+	config.setBatchSize(1);
+	when(tempFolder.newDir(any(String.class))).then(invocation -> temp.newFolder());
+	when(tempFolder.newFile("eslint-files", ".txt")).then(invocation -> temp.newFile());
+	final List<String> results = executorImpl.execute(config, Arrays.asList("a.js", "b.js"));
+
+	assertEquals(Arrays.asList("[]", "[]"), results);
+	assertEquals(2, new HashSet<>(reportPaths).size());
+	for (final String reportPath : reportPaths) {
+	    assertEquals(outputDir, new File(reportPath).getParentFile());
+	}
+	assertEquals("The reports are deleted once read", 0, outputDir.list().length);
+    }
+
+    @Test
+    public void ReturnsAnEmptyReport_WhenEsLintDidNotWriteIt() throws Exception {
+	config.setOutputDir(temp.newFolder().getAbsolutePath());
+	doCallRealMethod().when(executorImpl).getBufferedReaderForFile(any(File.class));
+	when(commandExecutor.execute(any(Command.class), any(StreamConsumer.class), any(StreamConsumer.class),
+		any(long.class))).thenReturn(1);
+
+	assertEquals(Collections.singletonList(""), executorImpl.execute(config, Arrays.asList("a.js")));
+    }
+
+    @Test
+    public void StreamOutput_HandsTheStandardOutputToTheConsumer() throws Exception {
+	final List<Command> startedCommands = new ArrayList<>();
+	doAnswer(invocation -> {
+	    startedCommands.add(invocation.getArgument(0));
+	    return new FakeProcess("[{\"filePath\":\"a.js\",\"messages\":[]}]", 1);
+	}).when(executorImpl).startProcess(any(Command.class));
+
+	config.setStreamOutput(true);
+	final List<String> reports = new ArrayList<>();
+	executorImpl.execute(config, Arrays.asList("a.js"), report -> reports.add(new BufferedReader(report).lines()
+		.collect(Collectors.joining())));
+
+	assertEquals(Collections.singletonList("[{\"filePath\":\"a.js\",\"messages\":[]}]"), reports);
+	assertEquals(1, startedCommands.size());
+	assertEquals("node path/to/eslint -f json --rules-dir path/to/rules --config path/to/config a.js",
+		startedCommands.get(0).toCommandLine());
+	verify(commandExecutor, never()).execute(any(Command.class), any(StreamConsumer.class),
+		any(StreamConsumer.class), any(long.class));
+    }
+
+    @Test
+    public void StreamOutput_SplitsABatch_WhenTheReportIsUnreadable() throws Exception {
+	doAnswer(invocation -> new FakeProcess(((Command) invocation.getArgument(0)).toCommandLine().contains("b.js")
+		? "[{\"filePath\": " : "[]", 0)).when(executorImpl).startProcess(any(Command.class));
+
+	config.setStreamOutput(true);
+	final List<String> reports = new ArrayList<>();
+	executorImpl.execute(config, Arrays.asList("a.js", "b.js"),
+		report -> new EsLintParserImpl().parse(report, file -> reports.add(file.getFilePath())));
+
+	verify(executorImpl, times(3)).startProcess(any(Command.class));
+	assertTrue(reports.isEmpty());
+    }
+
+    @Test
+    public void StreamOutput_HandsEveryFileOverOnce_WhenABatchTimesOut() throws Exception {
+	doAnswer(invocation -> {
+	    final String commandLine = ((Command) invocation.getArgument(0)).toCommandLine();
+	    if (commandLine.contains("a.js") && commandLine.contains("b.js")) {
+		// Killed by the timeout after the first file of its report
+		return new FakeProcess("[{\"filePath\":\"a.js\",\"messages\":[]},{\"filePath\":", 1, true);
+	    }
+	    return new FakeProcess("[{\"filePath\":\"" + (commandLine.contains("a.js") ? "a.js" : "b.js")
+		    + "\",\"messages\":[]}]", 1);
+	}).when(executorImpl).startProcess(any(Command.class));
+
+	config.setStreamOutput(true);
+	config.setTimeoutMs(50);
+	final List<String> handled = new ArrayList<>();
+	// The complete first file of the killed batch is streamed, then reported again by its half
+	new EsLintPipeline(executorImpl, new EsLintParserImpl()).run(config, Arrays.asList("a.js", "b.js"),
+		(filePath, issues) -> handled.add(filePath));
+
+	verify(executorImpl, times(3)).startProcess(any(Command.class));
+	assertEquals(Arrays.asList("a.js", "b.js"), handled);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void execute_throws_ifNullConfigSupplied() {
 	executorImpl.execute(null, new ArrayList<String>());
@@ -178,4 +648,64 @@ public class EsLintExecutorImplTest {
 	config.setRulesDir("path/to/rules");
 	config.setTimeoutMs(40000);
     }
+
+    /**
+     * A process that wrote the given report on its standard output, and either finished or hangs until it is killed.
+     */
+    private static final class FakeProcess extends Process {
+	private final String report;
+	private final int exitCode;
+	private final CountDownLatch killed;
+
+	FakeProcess(final String report, final int exitCode) {
+	    this(report, exitCode, false);
+	}
+
+	FakeProcess(final String report, final int exitCode, final boolean hangs) {
+	    this.report = report;
+	    this.exitCode = exitCode;
+	    killed = new CountDownLatch(hangs ? 1 : 0);
+	}
+
+	@Override
+	public OutputStream getOutputStream() {
+	    return new ByteArrayOutputStream();
+	}
+
+	@Override
+	public InputStream getInputStream() {
+	    return new SequenceInputStream(new ByteArrayInputStream(report.getBytes(StandardCharsets.UTF_8)),
+		    new InputStream() {
+			@Override
+			public int read() throws IOException {
+			    try {
+				killed.await();
+			    } catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+			    }
+			    return -1;
+			}
+		    });
+	}
+
+	@Override
+	public InputStream getErrorStream() {
+	    return new ByteArrayInputStream(new byte[0]);
+	}
+
+	@Override
+	public int waitFor() {
+	    return exitCode;
+	}
+
+	@Override
+	public int exitValue() {
+	    return exitCode;
+	}
+
+	@Override
+	public void destroy() {
+	    killed.countDown();
+	}
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOS Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: contact@sylvainleroy.com, or visit : https://sylvainleroy.com
+ */
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EsLintFileFilterTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private final EsLintFileFilter filter = new EsLintFileFilter(true, 0);
+
+    @Test
+    public void check_keepsTheHandWrittenFiles() throws IOException {
+	final StringBuilder source = new StringBuilder();
+	for (int i = 0; i < 200; i++) {
+	    source.append("var value").append(i).append(" = compute(").append(i).append(");\n");
+	}
+
+	assertNull(filter.check(file("app.js", source.toString())));
+	assertNull(filter.check(file("one-liner.js", "module.exports = { answer: 42 };")));
+	assertNull(filter.check(new File(temp.getRoot(), "missing.js")));
+	// Markers outside the leading comments are code
+	assertNull(filter.check(file("status.js", "// Build status\nfunction isAutoGenerated(file) {\n"
+		+ "  return file.header === 'DO NOT EDIT'; // do not edit\n}\n")));
+    }
+
+    @Test
+    public void check_skipsTheMinifiedFiles() throws IOException {
+	final StringBuilder bundle = new StringBuilder("/*! library v1.0 | MIT */\n");
+	for (int i = 0; i < 500; i++) {
+	    bundle.append("function f").append(i).append("(a,b){return a+b*").append(i).append("};");
+	}
+
+	assertEquals(EsLintFileFilter.Reason.MINIFIED, filter.check(file("vendor.js", bundle.toString())));
+	assertEquals(EsLintFileFilter.Reason.MINIFIED_NAME, filter.check(file("jquery.min.js", "var a;\n")));
+    }
+
+    @Test
+    public void check_skipsTheGeneratedFiles() throws IOException {
+	assertEquals(EsLintFileFilter.Reason.GENERATED,
+		filter.check(file("api.js", "// Code generated by protoc-gen-js. DO NOT EDIT.\nvar api = {};\n")));
+	assertEquals(EsLintFileFilter.Reason.GENERATED, filter.check(file("schema.js",
+		"#!/usr/bin/env node\n/**\n * @generated by graphql-codegen\n */\nmodule.exports = {};\n")));
+	assertEquals(EsLintFileFilter.Reason.SOURCE_MAP,
+		filter.check(file("app.compiled.js", "var app = {};\n//# sourceMappingURL=app.compiled.js.map\n")));
+    }
+
+    @Test
+    public void check_skipsTheFilesAboveTheMaximumSize() throws IOException {
+	final EsLintFileFilter sizeFilter = new EsLintFileFilter(false, 10);
+
+	assertEquals(EsLintFileFilter.Reason.TOO_LARGE, sizeFilter.check(file("big.js", "var big = 'more than ten bytes';\n")));
+	assertNull(sizeFilter.check(file("small.min.js", "var a;\n")));
+	assertFalse(new EsLintFileFilter(false, 0).isEnabled());
+    }
+
+    private File file(final String name, final String content) throws IOException {
+	final File file = temp.newFile(name);
+	Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+	return file;
+    }
+}
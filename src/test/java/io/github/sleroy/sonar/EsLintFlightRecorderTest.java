@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOS Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: contact@sylvainleroy.com, or visit : https://sylvainleroy.com
+ */
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Goes through reflection like the plugin does, so that the tests still compile for Java 8.
+ */
+public class EsLintFlightRecorderTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void events_areRecorded_whenTheJvmRecords() throws Exception {
+	assumeTrue(EsLintFlightRecorder.isSupported());
+	final Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+	final Object recording = recordingClass.getConstructor().newInstance();
+	recordingClass.getMethod("start").invoke(recording);
+
+	EsLintFlightRecorder.BATCH_EXECUTED.begin().set("files", 12).set("exitCode", 1).set("outputBytes", 3400)
+		.commit();
+	EsLintFlightRecorder.ISSUES_SAVED.begin().set("file", "src/a.js").set("issues", 3L).commit();
+
+	recordingClass.getMethod("stop").invoke(recording);
+	final Path dump = temp.newFile("eslint.jfr").toPath();
+	recordingClass.getMethod("dump", Path.class).invoke(recording, dump);
+	recordingClass.getMethod("close").invoke(recording);
+
+	final Object batch = findEvent(dump, EsLintFlightRecorder.BATCH_EXECUTED.getName());
+	assertEquals(12, valueOf(batch, "getInt", "files"));
+	assertEquals(1, valueOf(batch, "getInt", "exitCode"));
+	assertEquals(3400L, valueOf(batch, "getLong", "outputBytes"));
+	final Object saved = findEvent(dump, EsLintFlightRecorder.ISSUES_SAVED.getName());
+	assertEquals("src/a.js", valueOf(saved, "getString", "file"));
+	assertEquals(3, valueOf(saved, "getInt", "issues"));
+    }
+
+    @Test
+    public void events_doNothing_whenTheJvmDoesNotRecord() {
+	// Whether or not the JVM supports Flight Recorder, an event that is not recorded must not fail
+	EsLintFlightRecorder.BATCH_PARSED.begin().set("files", 1).set("messages", 2L).set("reportChars", 3L).commit();
+    }
+
+    private static Object findEvent(final Path dump, final String name) throws Exception {
+	final Class<?> recordedEvent = Class.forName("jdk.jfr.consumer.RecordedEvent");
+	final Method getEventType = recordedEvent.getMethod("getEventType");
+	final List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+		.getMethod("readAllEvents", Path.class).invoke(null, dump);
+	Object found = null;
+	for (final Object event : events) {
+	    final Object type = getEventType.invoke(event);
+	    if (name.equals(type.getClass().getMethod("getName").invoke(type))) {
+		found = event;
+	    }
+	}
+	assertNotNull(name + " was not recorded", found);
+	return found;
+    }
+
+    private static Object valueOf(final Object event, final String getter, final String field) throws Exception {
+	return Class.forName("jdk.jfr.consumer.RecordedObject").getMethod(getter, String.class).invoke(event, field);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOS Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: contact@sylvainleroy.com, or visit : https://sylvainleroy.com
+ */
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EsLintIgnoreTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File baseDir;
+
+    @Before
+    public void setUp() throws IOException {
+	baseDir = temp.newFolder("project");
+    }
+
+    @Test
+    public void isIgnored_followsTheGitignoreSyntax() {
+	final EsLintIgnore ignore = ignore("# vendored code", "", "vendor/", "*.generated.js", "/build",
+		"lib/**/*.spec.js", "dist/*", "!dist/keep.js", "!vendor/keep.js", "\\#hash.js");
+
+	assertTrue(ignored(ignore, "vendor/jquery/jquery.js"));
+	assertTrue(ignored(ignore, "src/vendor/lib.js"));
+	assertFalse(ignored(ignore, "src/vendor.js"));
+	assertTrue(ignored(ignore, "src/api/api.generated.js"));
+	assertTrue(ignored(ignore, "build/app.js"));
+	assertFalse(ignored(ignore, "src/build/app.js"));
+	assertTrue(ignored(ignore, "lib/app.spec.js"));
+	assertTrue(ignored(ignore, "lib/a/b/app.spec.js"));
+	assertFalse(ignored(ignore, "lib/app.js"));
+	assertTrue(ignored(ignore, "dist/app.js"));
+	assertFalse(ignored(ignore, "dist/keep.js"));
+	// A file of an ignored directory cannot be negated
+	assertTrue(ignored(ignore, "vendor/keep.js"));
+	assertTrue(ignored(ignore, "#hash.js"));
+	assertFalse(ignored(ignore, "src/app.js"));
+    }
+
+    @Test
+    public void isIgnored_ignoresTheDependenciesAndDotfilesByDefault() {
+	final EsLintIgnore ignore = ignore("!.storybook/");
+
+	assertTrue(ignored(ignore, "node_modules/lodash/lodash.js"));
+	assertTrue(ignored(ignore, "packages/app/node_modules/lodash/lodash.js"));
+	assertTrue(ignored(ignore, ".cache/app.js"));
+	assertFalse(ignored(ignore, ".storybook/config.js"));
+	assertFalse(ignored(ignore, "src/app.js"));
+	assertFalse(ignore.isIgnored(new File(temp.getRoot(), "other/app.js").toPath()));
+    }
+
+    @Test
+    public void load_readsTheIgnoreFileAndTheIgnorePatternsOfTheConfiguration() throws IOException {
+	write(".eslintignore", "public/\n");
+	write(".eslintrc.json", "{\n  // comments are allowed\n  \"ignorePatterns\": [\"**/*.d.js\"],\n  \"rules\": {}\n}\n");
+	write("package.json", "{\"eslintIgnore\": [\"scripts/\"]}");
+
+	final EsLintIgnore ignore = EsLintIgnore.load(baseDir, new File(baseDir, ".eslintrc.json").getAbsolutePath());
+
+	assertTrue(ignored(ignore, "public/bundle.js"));
+	assertTrue(ignored(ignore, "src/types.d.js"));
+	// package.json is only read without .eslintignore
+	assertFalse(ignored(ignore, "scripts/build.js"));
+
+	Files.delete(new File(baseDir, ".eslintignore").toPath());
+	final EsLintIgnore packageIgnore = EsLintIgnore.load(baseDir, ".eslintrc.js");
+	assertTrue(ignored(packageIgnore, "scripts/build.js"));
+	assertFalse(ignored(packageIgnore, "src/types.d.js"));
+    }
+
+    @Test
+    public void load_usesTheIgnorePatternsPrintedByEsLint_whateverTheConfigurationFormat() throws IOException {
+	write(".eslintignore", "public/\n");
+	write(".eslintrc.js", "module.exports = { ignorePatterns: ['**/*.d.js'] };\n");
+
+	final EsLintIgnore ignore = EsLintIgnore.load(baseDir, ".eslintrc.js", Arrays.asList("public/", "**/*.d.js"));
+
+	assertTrue(ignored(ignore, "public/bundle.js"));
+	assertTrue(ignored(ignore, "src/types.d.js"));
+	assertFalse(ignored(ignore, "src/app.js"));
+	// Without them, a JavaScript configuration leaves its patterns to ESLint
+	assertFalse(ignored(EsLintIgnore.load(baseDir, ".eslintrc.js"), "src/types.d.js"));
+    }
+
+    @Test
+    public void load_onlyIgnoresTheDependencies_withAFlatConfiguration() throws IOException {
+	write(".eslintignore", "public/\n");
+	write("eslint.config.mjs", "export default [{ ignores: ['public/'] }];\n");
+
+	final EsLintIgnore ignore = EsLintIgnore.load(baseDir, null, Arrays.asList("public/"));
+
+	assertTrue(EsLintIgnore.isFlatConfig(baseDir, null));
+	assertTrue(ignored(ignore, "node_modules/lodash/lodash.js"));
+	assertTrue(ignored(ignore, ".git/hooks/pre-commit.js"));
+	// ESLint 9 lints the dotfiles and reads no .eslintignore
+	assertFalse(ignored(ignore, ".storybook/config.js"));
+	assertFalse(ignored(ignore, "public/bundle.js"));
+	assertFalse(EsLintIgnore.isFlatConfig(baseDir, ".eslintrc.json"));
+	assertTrue(EsLintIgnore.isFlatConfig(baseDir, "config/eslint.config.js"));
+    }
+
+    private EsLintIgnore ignore(final String... patterns) {
+	final List<String> allPatterns = new ArrayList<>(EsLintIgnore.DEFAULT_PATTERNS);
+	allPatterns.addAll(Arrays.asList(patterns));
+	return new EsLintIgnore(baseDir.toPath(), allPatterns);
+    }
+
+    private boolean ignored(final EsLintIgnore ignore, final String relativePath) {
+	final Path path = baseDir.toPath().resolve(relativePath);
+	return ignore.isIgnored(path);
+    }
+
+    private void write(final String name, final String content) throws IOException {
+	Files.write(new File(baseDir, name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
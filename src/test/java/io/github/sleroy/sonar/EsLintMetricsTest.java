@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOS Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: contact@sylvainleroy.com, or visit : https://sylvainleroy.com
+ */
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+public class EsLintMetricsTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void record_addsUpTheRunsOfAPhase() {
+	final EsLintMetrics metrics = new EsLintMetrics();
+	metrics.record(EsLintMetrics.PHASE_BATCH_RUN, 10, 1, 5, 100, 0);
+	metrics.record(EsLintMetrics.PHASE_PARSE, 10, 1, 5, 100, 7);
+	metrics.record(EsLintMetrics.PHASE_BATCH_RUN, 10, 1, 5, 100, 0);
+
+	assertEquals(Arrays.asList(EsLintMetrics.PHASE_BATCH_RUN, EsLintMetrics.PHASE_PARSE), metrics.getPhases());
+	assertEquals(2, metrics.getCount(EsLintMetrics.PHASE_BATCH_RUN));
+	assertEquals(0, metrics.getCount(EsLintMetrics.PHASE_SAVE));
+    }
+
+    @Test
+    public void writeReport_writesTheVolumesAndThroughputOfEveryPhase() throws Exception {
+	final EsLintMetrics metrics = new EsLintMetrics();
+	metrics.record(EsLintMetrics.PHASE_PARSE, TimeUnit.MILLISECONDS.toNanos(500), TimeUnit.MILLISECONDS.toNanos(400),
+		100, 20000, 300);
+	metrics.record(EsLintMetrics.PHASE_PARSE, TimeUnit.MILLISECONDS.toNanos(500), TimeUnit.MILLISECONDS.toNanos(400),
+		100, 20000, 300);
+	metrics.start(EsLintMetrics.PHASE_SAVE).stop(1, 0, 3);
+	final File reportFile = new File(temp.getRoot(), EsLintMetrics.REPORT_FILE_NAME);
+
+	metrics.writeReport(reportFile);
+
+	final JsonObject report = new Gson().fromJson(
+		new String(Files.readAllBytes(reportFile.toPath()), StandardCharsets.UTF_8), JsonObject.class);
+	final JsonArray phases = report.getAsJsonArray("phases");
+	assertEquals(2, phases.size());
+	final JsonObject parse = phases.get(0).getAsJsonObject();
+	assertEquals(EsLintMetrics.PHASE_PARSE, parse.get("name").getAsString());
+	assertEquals(2, parse.get("count").getAsInt());
+	assertEquals(1000.0, parse.get("wallMs").getAsDouble(), 0.01);
+	assertEquals(800.0, parse.get("cpuMs").getAsDouble(), 0.01);
+	assertEquals(40000, parse.get("bytes").getAsLong());
+	assertEquals(200.0, parse.get("filesPerSecond").getAsDouble(), 0.01);
+	assertEquals(600.0, parse.get("issuesPerSecond").getAsDouble(), 0.01);
+	assertEquals(3, phases.get(1).getAsJsonObject().get("issues").getAsLong());
+	assertTrue(report.get("wallMs").getAsDouble() >= 0);
+    }
+}
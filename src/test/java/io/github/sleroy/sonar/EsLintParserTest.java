@@ -10,17 +10,29 @@
 package io.github.sleroy.sonar;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.apache.commons.io.FileUtils;
 import org.junit.Test;
 
+import com.google.gson.JsonSyntaxException;
+
+import io.github.sleroy.sonar.model.EsLintFile;
 import io.github.sleroy.sonar.model.EsLintIssue;
 
 public class EsLintParserTest {
@@ -84,4 +96,183 @@ public class EsLintParserTest {
 
 	assertEquals(0, issues.size());
     }
+
+    @Test
+    public void parseReader_handsEveryFileToTheConsumer() throws IOException {
+	final List<EsLintFile> files = new ArrayList<>();
+	try (Reader report = Files.newBufferedReader(new File("src/test/resources/results/ok.json").toPath(),
+		StandardCharsets.UTF_8)) {
+	    new EsLintParserImpl().parse(report, files::add);
+	}
+
+	assertEquals(1, files.size());
+	assertEquals(58, files.get(0).getMessages().size());
+    }
+
+    @Test
+    public void parseReader_acceptsConsecutiveArraysAndEmptyReports() {
+	final List<String> paths = new ArrayList<>();
+	new EsLintParserImpl().parse(new StringReader("[{\"filePath\":\"a.js\",\"messages\":[{\"message\":\"][\"}]}]"
+		+ "[{\"filePath\":\"b.js\",\"messages\":[]}]"), file -> paths.add(file.getFilePath()));
+	new EsLintParserImpl().parse(new StringReader(""), file -> paths.add(file.getFilePath()));
+
+	assertEquals(Arrays.asList("a.js", "b.js"), paths);
+    }
+
+    @Test
+    public void parseReader_emitsEachFileBeforeReadingTheRestOfTheReport() {
+	final int fileCount = 100000;
+	final GeneratedReport report = new GeneratedReport(fileCount);
+	final List<Integer> charsReadAtFirstFile = new ArrayList<>();
+	final int[] files = new int[1];
+
+	new EsLintParserImpl().parse(report, file -> {
+	    if (files[0]++ == 0) {
+		charsReadAtFirstFile.add(report.charsRead);
+	    }
+	});
+
+	assertEquals(fileCount, files[0]);
+	assertTrue("The first file is emitted early", charsReadAtFirstFile.get(0) < 100000);
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void parseReader_failsOnATruncatedReport() {
+	new EsLintParserImpl().parse(new StringReader("[{\"filePath\":\"a.js\",\"messages\":[]}, {\"filePath\""),
+		file -> {
+		});
+    }
+
+    @Test
+    public void parseReader_skipsTheSourceFixesAndSuggestions_whenLean() {
+	final StringBuilder source = new StringBuilder();
+	for (int i = 0; i < 10000; i++) {
+	    source.append("var a = 1\\n");
+	}
+	final String report = "[{\"filePath\":\"a.js\",\"messages\":[{\"ruleId\":\"semi\",\"severity\":2,"
+		+ "\"message\":\"Missing semicolon.\",\"line\":3,\"column\":10,\"nodeType\":\"VariableDeclaration\","
+		+ "\"source\":\"var a = 1\",\"fix\":{\"range\":[9,9],\"text\":\";\"},\"suggestions\":[]}],"
+		+ "\"errorCount\":1,\"warningCount\":0,\"source\":\"" + source + "\"}]";
+	final List<EsLintFile> files = new ArrayList<>();
+	final EsLintParserImpl parser = new EsLintParserImpl(true);
+
+	parser.parse(new StringReader(report), files::add);
+
+	assertEquals(1, files.size());
+	assertEquals("a.js", files.get(0).getFilePath());
+	assertNull(files.get(0).getSource());
+	assertEquals(1, files.get(0).getErrorCount());
+	final EsLintIssue issue = files.get(0).getMessages().get(0);
+	assertEquals("semi", issue.getRuleId());
+	assertEquals("Missing semicolon.", issue.getMessage());
+	assertEquals(2, issue.getSeverity());
+	assertEquals(3, issue.getLine());
+	assertEquals(10, issue.getColumn());
+	assertNull(issue.getSource());
+	assertTrue("The source of the file is accounted for", parser.getSkippedChars() > source.length() - 2048);
+	assertTrue("Nothing else is", parser.getSkippedChars() < report.length());
+    }
+
+    @Test
+    public void parseIssues_readsTheMessagesStraightIntoTheIssues_whenLean() {
+	final StringBuilder source = new StringBuilder();
+	for (int i = 0; i < 10000; i++) {
+	    source.append("var a = 1\\n");
+	}
+	final String report = "[{\"filePath\":\"a.js\",\"messages\":[{\"ruleId\":\"semi\",\"severity\":2,"
+		+ "\"message\":\"Missing semicolon.\",\"line\":3,\"column\":10,\"source\":\"var a = 1\","
+		+ "\"fix\":{\"range\":[9,9],\"text\":\";\"}},{\"fatal\":true,\"severity\":2,"
+		+ "\"message\":\"Parsing error\"}],\"source\":\"" + source + "\"},{\"filePath\":\"b.js\"}]";
+	final List<String> issues = new ArrayList<>();
+	final EsLintParserImpl parser = new EsLintParserImpl(true) {
+	    @Override
+	    public void parse(final Reader rawOutput, final Consumer<EsLintFile> fileConsumer) {
+		throw new AssertionError("No EsLintFile is created");
+	    }
+	};
+
+	parser.parseIssues(new StringReader(report), (filePath, fileIssues) -> {
+	    issues.add(filePath + ":" + fileIssues.size());
+	    fileIssues.forEach((ruleId, message, line, column, severity) -> issues
+		    .add(ruleId + "|" + message + "|" + line + "|" + column + "|" + severity));
+	});
+
+	assertEquals(Arrays.asList("a.js:2", "semi|Missing semicolon.|3|10|2", "null|Parsing error|1|0|2", "b.js:0"),
+		issues);
+	assertTrue("The source of the file is accounted for", parser.getSkippedChars() > source.length() - 2048);
+    }
+
+    @Test
+    public void parseReader_keepsTheSource_whenNotLean() throws IOException {
+	final List<EsLintFile> files = new ArrayList<>();
+	final EsLintParserImpl parser = new EsLintParserImpl(false);
+	try (Reader report = Files.newBufferedReader(new File("src/test/resources/results/ok.json").toPath(),
+		StandardCharsets.UTF_8)) {
+	    parser.parse(report, files::add);
+	}
+
+	assertNotNull(files.get(0).getMessages().get(0).getSource());
+	assertEquals(0, parser.getSkippedChars());
+    }
+
+    @Test
+    public void parse_keepsTheOrderOfTheBatches_whenParsingThemInParallel() {
+	final List<String> batches = new ArrayList<>();
+	for (int i = 0; i < 200; i++) {
+	    batches.add("[{\"filePath\":\"shared.js\",\"messages\":[{\"ruleId\":\"semi\",\"line\":" + (i + 1)
+		    + "}]},{\"filePath\":\"file" + i + ".js\",\"messages\":[]}]");
+	}
+
+	for (int run = 0; run < 5; run++) {
+	    final Map<String, List<EsLintIssue>> issues = new EsLintParserImpl().parse(batches);
+
+	    assertEquals(201, issues.size());
+	    final List<EsLintIssue> shared = issues.get("shared.js");
+	    assertEquals(200, shared.size());
+	    for (int i = 0; i < 200; i++) {
+		assertEquals(i + 1, shared.get(i).getLine());
+	    }
+	}
+    }
+
+    @Test(expected = JsonSyntaxException.class)
+    public void parse_failsOnATruncatedBatch_whenParsingInParallel() {
+	new EsLintParserImpl().parse(Arrays.asList("[]", "[{\"filePath\":", "[]", "[]"));
+    }
+
+    /**
+     * A report of many files, generated while it is read.
+     */
+    private static final class GeneratedReport extends Reader {
+	private final int fileCount;
+	private int nextFile;
+	private String pending = "[";
+	private int charsRead;
+
+	GeneratedReport(final int fileCount) {
+	    this.fileCount = fileCount;
+	}
+
+	@Override
+	public int read(final char[] buffer, final int offset, final int length) {
+	    if (pending.isEmpty()) {
+		if (nextFile > fileCount) {
+		    return -1;
+		}
+		pending = nextFile == fileCount ? "]"
+			: (nextFile == 0 ? "" : ",") + "{\"filePath\":\"file" + nextFile
+				+ ".js\",\"messages\":[{\"ruleId\":\"semi\",\"message\":\"Missing semicolon.\",\"line\":1}]}";
+		nextFile++;
+	    }
+	    final int count = Math.min(length, pending.length());
+	    pending.getChars(0, count, buffer, offset);
+	    pending = pending.substring(count);
+	    charsRead += count;
+	    return count;
+	}
+
+	@Override
+	public void close() {
+	}
+    }
 }
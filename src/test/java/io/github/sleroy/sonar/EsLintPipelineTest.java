@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOS Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: contact@sylvainleroy.com, or visit : https://sylvainleroy.com
+ */
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.Test;
+
+import io.github.sleroy.sonar.api.EsLintExecutor;
+
+public class EsLintPipelineTest {
+    private final EsLintExecutorConfig config = new EsLintExecutorConfig();
+    private final List<String> files = Collections.singletonList("a.js");
+
+    @Test
+    public void run_handsFilesOverWhileEsLintRuns() {
+	final CountDownLatch firstFileHandled = new CountDownLatch(1);
+	final List<String> handled = new ArrayList<>();
+	final EsLintExecutor executor = new FakeExecutor(reportConsumer -> {
+	    reportConsumer.accept(report("a.js", "semi"));
+	    await(firstFileHandled);
+	    reportConsumer.accept(report("b.js", "quotes"));
+	});
+
+	new EsLintPipeline(executor, new EsLintParserImpl()).run(config, files, (filePath, issues) -> {
+	    issues.forEach(filePath, (ruleId, message, line, column, severity) -> handled.add(filePath + ":" + ruleId));
+	    firstFileHandled.countDown();
+	});
+
+	assertEquals(Arrays.asList("a.js:semi", "b.js:quotes"), handled);
+    }
+
+    @Test
+    public void run_handsAFileReportedTwiceOnce() {
+	final List<String> handled = new ArrayList<>();
+	final EsLintExecutor executor = new FakeExecutor(reportConsumer -> {
+	    reportConsumer.accept(report("a.js", "semi"));
+	    reportConsumer.accept(report("a.js", "semi"));
+	});
+
+	new EsLintPipeline(executor, new EsLintParserImpl()).run(config, files,
+		(filePath, issues) -> handled.add(filePath + ":" + issues.issueCount(filePath)));
+
+	assertEquals(Collections.singletonList("a.js:1"), handled);
+    }
+
+    @Test
+    public void run_keepsTheFirstReport_whileItsFileIsBeingHandled() {
+	final CountDownLatch firstReportHandled = new CountDownLatch(1);
+	final CountDownLatch secondReportParsed = new CountDownLatch(1);
+	final List<String> handled = new ArrayList<>();
+	final EsLintExecutor executor = new FakeExecutor(reportConsumer -> {
+	    reportConsumer.accept(report("a.js", "semi"));
+	    await(firstReportHandled);
+	    reportConsumer.accept(report("a.js", "quotes"));
+	    secondReportParsed.countDown();
+	});
+
+	new EsLintPipeline(executor, new EsLintParserImpl()).run(config, files, (filePath, issues) -> {
+	    firstReportHandled.countDown();
+	    await(secondReportParsed);
+	    issues.forEach(filePath, (ruleId, message, line, column, severity) -> handled.add(filePath + ":" + ruleId));
+	});
+
+	assertEquals(Collections.singletonList("a.js:semi"), handled);
+    }
+
+    @Test
+    public void run_throwsTheFailureOfEsLint() {
+	final EsLintExecutor executor = new FakeExecutor(reportConsumer -> {
+	    throw new IllegalStateException("ESLint failed");
+	});
+
+	try {
+	    new EsLintPipeline(executor, new EsLintParserImpl()).run(config, files, (filePath, issues) -> {
+	    });
+	    fail("The failure of ESLint is expected");
+	} catch (final IllegalStateException e) {
+	    assertEquals("ESLint failed", e.getMessage());
+	}
+    }
+
+    @Test
+    public void run_stopsEsLint_whenTheHandlerFails() throws InterruptedException {
+	final CountDownLatch esLintStopped = new CountDownLatch(1);
+	final EsLintExecutor executor = new FakeExecutor(reportConsumer -> {
+	    try {
+		for (int i = 0; i < EsLintPipeline.CAPACITY * 4; i++) {
+		    reportConsumer.accept(report("file" + i + ".js", "semi"));
+		}
+	    } finally {
+		esLintStopped.countDown();
+	    }
+	});
+
+	try {
+	    new EsLintPipeline(executor, new EsLintParserImpl()).run(config, files, (filePath, issues) -> {
+		throw new IllegalArgumentException("Cannot save " + filePath);
+	    });
+	    fail("The failure of the handler is expected");
+	} catch (final IllegalArgumentException e) {
+	    assertEquals("Cannot save file0.js", e.getMessage());
+	}
+	assertTrue("ESLint is not left blocked", esLintStopped.await(10, TimeUnit.SECONDS));
+    }
+
+    private static Reader report(final String filePath, final String ruleId) {
+	return new StringReader("[{\"filePath\":\"" + filePath + "\",\"messages\":[{\"ruleId\":\"" + ruleId
+		+ "\",\"message\":\"failure\",\"line\":1}]}]");
+    }
+
+    private static void await(final CountDownLatch latch) {
+	try {
+	    assertTrue("The other side of the pipeline got there", latch.await(10, TimeUnit.SECONDS));
+	} catch (final InterruptedException e) {
+	    Thread.currentThread().interrupt();
+	    throw new IllegalStateException(e);
+	}
+    }
+
+    /**
+     * Hands fixed reports to the pipeline.
+     */
+    private static final class FakeExecutor implements EsLintExecutor {
+	private final Consumer<Consumer<Reader>> batches;
+
+	private FakeExecutor(final Consumer<Consumer<Reader>> batches) {
+	    this.batches = batches;
+	}
+
+	@Override
+	public List<String> execute(final EsLintExecutorConfig config, final List<String> files) {
+	    throw new UnsupportedOperationException();
+	}
+
+	@Override
+	public void execute(final EsLintExecutorConfig config, final List<String> files,
+		final Consumer<Reader> reportConsumer) {
+	    batches.accept(reportConsumer);
+	}
+    }
+}
@@ -29,7 +29,7 @@ import org.sonar.api.internal.SonarRuntimeImpl;
 import org.sonar.api.utils.Version;
 
 public class EsLintPluginTest {
-    public static final int EXPECTED_PROPERTIES = 6;
+    public static final int EXPECTED_PROPERTIES = 27;
 
     private static Optional<Property> findPropertyByName(Property[] properties, String name) {
 
@@ -50,6 +50,7 @@ public class EsLintPluginTest {
         assertTrue(extensions.contains(EsLintLanguage.class));
         assertTrue(extensions.contains(EsLintSensor.class));
         assertTrue(extensions.contains(EsRulesDefinition.class));
+        assertTrue(extensions.contains(EsLintDaemon.class));
     }
 
     @Test
@@ -75,6 +76,27 @@ public class EsLintPluginTest {
         assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_TIMEOUT));
         assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_RULES_DIR));
         assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_RULE_CONFIGS));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_WORKERS));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_DAEMON));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_FILE_LIST));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_BATCH_SIZE));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_CACHE));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_CACHE_DIR));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_CACHE_SIZE));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_NATIVE_CACHE));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_CHANGED_FILES_ONLY));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_OUTPUT_DIR));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_STREAM_OUTPUT));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_LEAN_PARSING));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_PROFILE_RULES_ONLY));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_RULE_TIMING));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_TRACE));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_REPORT_PATHS));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_SHARD));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_SHARD_DIR));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_SKIP_GENERATED));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_MAX_FILE_SIZE));
+        assertNotNull(EsLintPluginTest.findPropertyByName(properties, EsLintPlugin.SETTING_ES_LINT_SKIP_IGNORED));
     }
 
     @Test
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOS Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: contact@sylvainleroy.com, or visit : https://sylvainleroy.com
+ */
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+
+public class EsLintReportImporterTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    private File baseDir;
+    private InputFile appFile;
+    private InputFile indexFile;
+    private EsLintReportImporter importer;
+
+    @Before
+    public void setUp() throws IOException {
+	baseDir = temp.newFolder("project");
+	appFile = TestInputFileBuilder.create("", baseDir, new File(baseDir, "src/app/app.js"))
+		.setLanguage(EsLintLanguage.LANGUAGE_KEY).build();
+	indexFile = TestInputFileBuilder.create("", baseDir, new File(baseDir, "src/index.js"))
+		.setLanguage(EsLintLanguage.LANGUAGE_KEY).build();
+	importer = new EsLintReportImporter(baseDir, Arrays.asList(appFile, indexFile));
+    }
+
+    @Test
+    public void resolve_mapsThePathsOfTheProject() {
+	assertSame(appFile, importer.resolve(new File(baseDir, "src/app/app.js").getAbsolutePath()));
+	assertSame(indexFile, importer.resolve("src/index.js"));
+	assertNull(importer.resolve(new File(baseDir, "src/other.js").getAbsolutePath()));
+	assertEquals(Collections.emptyList(), importer.getRoots());
+    }
+
+    @Test
+    public void resolve_mapsThePathsOfAReportWrittenFromAnotherRoot() {
+	assertSame(appFile, importer.resolve("C:\\agent\\_work\\12\\s\\src\\app\\app.js"));
+	assertSame(indexFile, importer.resolve("C:/agent/_work/12/s/src/index.js"));
+	assertNull(importer.resolve("C:/agent/_work/12/s/src/other.js"));
+
+	assertEquals(Collections.singletonList("C:/agent/_work/12/s/"), importer.getRoots());
+    }
+
+    @Test
+    public void findReports_expandsTheWildcards() throws IOException {
+	final File first = new File(baseDir, "reports/eslint-1.json");
+	final File second = new File(baseDir, "reports/nested/eslint-2.json");
+	final File other = new File(baseDir, "reports/other.json");
+	for (final File report : Arrays.asList(first, second, other)) {
+	    report.getParentFile().mkdirs();
+	    report.createNewFile();
+	}
+
+	assertEquals(Arrays.asList(first, second), names(EsLintReportImporter.findReports(baseDir,
+		new String[] { "reports/**/eslint-*.json" })));
+	assertEquals(Arrays.asList(other, first), names(EsLintReportImporter.findReports(baseDir,
+		new String[] { other.getAbsolutePath(), " reports/eslint-?.json", "reports/missing.json" })));
+    }
+
+    private static List<File> names(final List<File> reports) {
+	return reports.stream().map(File::getAbsoluteFile).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+
+import com.google.gson.Gson;
+
+import io.github.sleroy.sonar.model.EsLintFileIssues;
+
+public class EsLintResultCacheTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    File baseDir;
+    File cacheDir;
+    EsLintExecutorConfig config;
+
+    private static EsLintFileIssues issues(final String message) {
+        final EsLintFileIssues issues = new EsLintFileIssues();
+        issues.add("semi", message, 3, 1, 2);
+        return issues;
+    }
+
+    private static List<String> describe(final EsLintFileIssues issues) {
+        final List<String> descriptions = new ArrayList<>();
+        issues.forEach((ruleId, message, line, column, severity) -> descriptions
+            .add(ruleId + "|" + message + "|" + line + "|" + column + "|" + severity));
+        return descriptions;
+    }
+
+    private InputFile sourceFile(final String name, final String content) throws IOException {
+        final File source = new File(baseDir, name);
+        Files.write(source.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return TestInputFileBuilder.create("", baseDir, source).setLanguage(EsLintLanguage.LANGUAGE_KEY)
+            .initMetadata(content).build();
+    }
+
+    private static void write(final File file, final String content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        baseDir = temp.newFolder();
+        cacheDir = new File(temp.getRoot(), "cache");
+
+        config = new EsLintExecutorConfig();
+        config.setPathToEsLint("src/test/resources/fake-eslint/bin/eslint.js");
+        config.setConfigFile("src/test/resources/.eslintrc.json");
+    }
+
+    @Test
+    public void keyOf_dependsOnFileContent() throws IOException {
+        final EsLintResultCache cache = EsLintResultCache.load(cacheDir, baseDir.toPath(), config, 10);
+
+        final String firstKey = cache.keyOf(sourceFile("a.js", "var a = 1;\n"));
+        assertEquals(firstKey, cache.keyOf(sourceFile("a.js", "var a = 1;\n")));
+        assertNotEquals(firstKey, cache.keyOf(sourceFile("a.js", "var a = 2;\n")));
+    }
+
+    @Test
+    public void keyOf_dependsOnEsLintEnvironment() throws IOException {
+        final InputFile file = sourceFile("a.js", "var a = 1;\n");
+        final String firstKey = EsLintResultCache.load(cacheDir, baseDir.toPath(), config, 10).keyOf(file);
+
+        config.setRulesDir("rules");
+        assertNotEquals(firstKey, EsLintResultCache.load(cacheDir, baseDir.toPath(), config, 10).keyOf(file));
+    }
+
+    @Test
+    public void environmentOf_dependsOnThePrintedConfigurationPluginsAndCustomRules() throws IOException {
+        final File rulesDir = new File(baseDir, "rules");
+        rulesDir.mkdirs();
+        write(new File(rulesDir, "no-foo.js"), "module.exports = {};");
+        write(new File(baseDir, "node_modules/eslint-plugin-react/package.json"), "{\"version\": \"7.0.0\"}");
+        write(new File(baseDir, "node_modules/@typescript-eslint/parser/package.json"),
+            "{\"name\": \"@typescript-eslint/parser\", \"version\": \"5.0.0\"}");
+        write(new File(baseDir, "node_modules/@typescript-eslint/parser/dist/index.js"), "");
+        final String printedConfig = "{\"rules\": {\"semi\": [\"error\"]}, \"plugins\": [\"react\"], \"parser\": "
+            + new Gson().toJson(new File(baseDir, "node_modules/@typescript-eslint/parser/dist/index.js")
+            .getAbsolutePath()) + "}";
+        config.setRulesDir("rules");
+        final String environment = EsLintResultCache.environmentOf(config, baseDir.toPath(), printedConfig);
+
+        assertEquals(environment, EsLintResultCache.environmentOf(config, baseDir.toPath(), printedConfig));
+        assertNotEquals(environment, EsLintResultCache.environmentOf(config, baseDir.toPath(),
+            printedConfig.replace("error", "warn")));
+        write(new File(baseDir, "node_modules/eslint-plugin-react/package.json"), "{\"version\": \"7.1.0\"}");
+        final String pluginUpgraded = EsLintResultCache.environmentOf(config, baseDir.toPath(), printedConfig);
+        assertNotEquals(environment, pluginUpgraded);
+        write(new File(baseDir, "node_modules/@typescript-eslint/parser/package.json"),
+            "{\"name\": \"@typescript-eslint/parser\", \"version\": \"5.1.0\"}");
+        final String parserUpgraded = EsLintResultCache.environmentOf(config, baseDir.toPath(), printedConfig);
+        assertNotEquals(pluginUpgraded, parserUpgraded);
+        write(new File(rulesDir, "no-foo.js"), "module.exports = { create: () => ({}) };");
+        assertNotEquals(parserUpgraded, EsLintResultCache.environmentOf(config, baseDir.toPath(), printedConfig));
+    }
+
+    @Test
+    public void environmentOf_doesNotDependOnTheCheckoutDirectory() throws IOException {
+        final File otherBaseDir = temp.newFolder("other");
+        for (final File dir : new File[] { baseDir, otherBaseDir }) {
+            write(new File(dir, ".eslintrc.json"), "{\"rules\": {\"semi\": 2}}");
+        }
+        config.setConfigFile(".eslintrc.json");
+        final String printedConfig = "{\"parserOptions\": {\"tsconfigRootDir\": %s}}";
+
+        assertEquals(EsLintResultCache.environmentOf(config, baseDir.toPath(), null),
+            EsLintResultCache.environmentOf(config, otherBaseDir.toPath(), null));
+        assertEquals(EsLintResultCache.environmentOf(config, baseDir.toPath(),
+            String.format(printedConfig, new Gson().toJson(baseDir.getAbsolutePath()))),
+            EsLintResultCache.environmentOf(config, otherBaseDir.toPath(),
+                String.format(printedConfig, new Gson().toJson(otherBaseDir.getAbsolutePath()))));
+        write(new File(otherBaseDir, ".eslintrc.json"), "{\"rules\": {\"semi\": 0}}");
+        assertNotEquals(EsLintResultCache.environmentOf(config, baseDir.toPath(), null),
+            EsLintResultCache.environmentOf(config, otherBaseDir.toPath(), null));
+    }
+
+    @Test
+    public void environmentOf_dependsOnTheConfigurationFilesOfEveryLintedFile() throws IOException {
+        write(new File(baseDir, ".eslintrc.json"), "{\"rules\": {\"semi\": 2}}");
+        write(new File(baseDir, "lib/nested/.eslintrc.json"), "{\"rules\": {\"quotes\": 2}}");
+        write(new File(baseDir, "package.json"), "{\"version\": \"1.0.0\"}");
+        config.setConfigFile(null);
+        final List<String> paths = Arrays.asList(new File(baseDir, "a.js").getAbsolutePath(),
+            new File(baseDir, "lib/nested/b.js").getAbsolutePath());
+        final String printedConfig = "{\"rules\": {\"semi\": [\"error\"]}}";
+        final String environment = EsLintResultCache.environmentOf(config, baseDir.toPath(), printedConfig, paths);
+
+        assertEquals(new TreeSet<>(Arrays.asList(new File(baseDir, ".eslintrc.json").toPath(),
+            new File(baseDir, "lib/nested/.eslintrc.json").toPath(), new File(baseDir, "package.json").toPath())),
+            EsLintResultCache.configFilesOf(baseDir.toPath(), null, paths));
+        write(new File(baseDir, "package.json"), "{\"version\": \"1.1.0\"}");
+        assertEquals(environment, EsLintResultCache.environmentOf(config, baseDir.toPath(), printedConfig, paths));
+        write(new File(baseDir, "lib/nested/.eslintrc.json"), "{\"rules\": {\"quotes\": 0}}");
+        final String nestedChanged = EsLintResultCache.environmentOf(config, baseDir.toPath(), printedConfig, paths);
+        assertNotEquals(environment, nestedChanged);
+        write(new File(baseDir, ".eslintrc.json"),
+            "{\"rules\": {\"semi\": 2}, \"overrides\": [{\"files\": [\"lib/**\"], \"rules\": {\"semi\": 0}}]}");
+        final String overridesChanged = EsLintResultCache.environmentOf(config, baseDir.toPath(), printedConfig, paths);
+        assertNotEquals(nestedChanged, overridesChanged);
+        write(new File(baseDir, "package.json"), "{\"version\": \"1.1.0\", \"eslintConfig\": {\"root\": true}}");
+        assertNotEquals(overridesChanged, EsLintResultCache.environmentOf(config, baseDir.toPath(), printedConfig, paths));
+    }
+
+    @Test
+    public void pluginPackageOf_followsTheEsLintNamingConvention() {
+        assertEquals("eslint-plugin-react", EsLintResultCache.pluginPackageOf("react"));
+        assertEquals("@typescript-eslint/eslint-plugin", EsLintResultCache.pluginPackageOf("@typescript-eslint"));
+        assertEquals("@scope/eslint-plugin-rules", EsLintResultCache.pluginPackageOf("@scope/rules"));
+    }
+
+    @Test
+    public void readEsLintVersion_readsThePackageManifest() {
+        assertEquals("4.19.1", EsLintResultCache.readEsLintVersion("src/test/resources/fake-eslint/bin/eslint.js"));
+        assertNull(EsLintResultCache.readEsLintVersion("src/test/resources/missing-eslint/bin/eslint.js"));
+    }
+
+    @Test
+    public void get_countsHitsAndMisses() {
+        final EsLintResultCache cache = EsLintResultCache.load(cacheDir, baseDir.toPath(), config, 10);
+        cache.put("a", issues("first"));
+
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void put_evictsTheLeastRecentlyUsedEntry() {
+        final EsLintResultCache cache = EsLintResultCache.load(cacheDir, baseDir.toPath(), config, 2);
+        cache.put("a", issues("first"));
+        cache.put("b", issues("second"));
+        cache.get("a");
+        cache.put("c", issues("third"));
+
+        assertEquals(2, cache.size());
+        assertNotNull(cache.get("a"));
+        assertNull(cache.get("b"));
+        assertNotNull(cache.get("c"));
+    }
+
+    @Test
+    public void save_persistsEntriesForTheNextAnalysis() {
+        final EsLintResultCache cache = EsLintResultCache.load(cacheDir, baseDir.toPath(), config, 10);
+        cache.put("a", issues("first"));
+        cache.put("b", new EsLintFileIssues(0));
+        cache.save();
+
+        final EsLintResultCache reloaded = EsLintResultCache.load(cacheDir, baseDir.toPath(), config, 10);
+
+        assertEquals(2, reloaded.size());
+        assertEquals(Collections.singletonList("semi|first|3|1|2"), describe(reloaded.get("a")));
+        assertEquals(0, reloaded.get("b").size());
+    }
+
+    @Test
+    public void load_ignoresACorruptedCache() throws IOException {
+        Files.createDirectories(cacheDir.toPath());
+        Files.write(new File(cacheDir, EsLintResultCache.CACHE_FILE_NAME).toPath(),
+            "{\"entries\": {\"a\": [".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals(0, EsLintResultCache.load(cacheDir, baseDir.toPath(), config, 10).size());
+    }
+
+    @Test
+    public void isAtLeast_comparesMajorAndMinorVersions() {
+        assertTrue(EsLintResultCache.isAtLeast("7.21.0", 7, 21));
+        assertTrue(EsLintResultCache.isAtLeast("8.0.0-rc.1", 7, 21));
+        assertFalse(EsLintResultCache.isAtLeast("7.20.3", 7, 21));
+        assertFalse(EsLintResultCache.isAtLeast("4.19.1", 7, 21));
+        assertFalse(EsLintResultCache.isAtLeast(null, 7, 21));
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOSkill Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: sleroy at byoskill.com, or visit : www.byoskill.com
+ *
+ */
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sonar.api.batch.fs.InputFile;
+import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
+
+import io.github.sleroy.sonar.model.EsLintFileIssues;
+
+public class EsLintResultSnapshotTest {
+    private static final String ENVIRONMENT = "rules";
+
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    File baseDir;
+    File snapshotDir;
+
+    private static EsLintFileIssues issues(final String message) {
+        final EsLintFileIssues issues = new EsLintFileIssues();
+        issues.add("semi", message, 2, 1, 2);
+        return issues;
+    }
+
+    private static List<String> describe(final EsLintFileIssues issues) {
+        final List<String> descriptions = new ArrayList<>();
+        issues.forEach((ruleId, message, line, column, severity) -> descriptions
+            .add(ruleId + "|" + message + "|" + line + "|" + column + "|" + severity));
+        return descriptions;
+    }
+
+    private InputFile sourceFile(final String name, final String content) throws IOException {
+        final File source = new File(baseDir, name);
+        Files.write(source.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return TestInputFileBuilder.create("", baseDir, source).setLanguage(EsLintLanguage.LANGUAGE_KEY)
+            .initMetadata(content).build();
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        baseDir = temp.newFolder();
+        snapshotDir = new File(temp.getRoot(), "snapshot");
+    }
+
+    @Test
+    public void get_returnsTheIssuesRecordedByThePreviousAnalysis() throws IOException {
+        final EsLintResultSnapshot snapshot = EsLintResultSnapshot.load(snapshotDir, baseDir.toPath(), ENVIRONMENT);
+        snapshot.put(sourceFile("a.js", "var a = 1\n"), issues("Missing semicolon."));
+        snapshot.save();
+
+        final EsLintFileIssues lastKnown = EsLintResultSnapshot.load(snapshotDir, baseDir.toPath(), ENVIRONMENT)
+            .get(sourceFile("a.js", "var a = 1\n"));
+        assertEquals(Collections.singletonList("semi|Missing semicolon.|2|1|2"), describe(lastKnown));
+    }
+
+    @Test
+    public void get_ignoresIssuesOfAChangedFile() throws IOException {
+        final EsLintResultSnapshot snapshot = EsLintResultSnapshot.load(snapshotDir, baseDir.toPath(), ENVIRONMENT);
+        snapshot.put(sourceFile("a.js", "var a = 1\n"), issues("Missing semicolon."));
+        snapshot.save();
+
+        assertNull(EsLintResultSnapshot.load(snapshotDir, baseDir.toPath(), ENVIRONMENT).get(sourceFile("a.js", "var a = 1;\n")));
+    }
+
+    @Test
+    public void get_ignoresIssuesFoundInAnotherEnvironment() throws IOException {
+        final EsLintResultSnapshot snapshot = EsLintResultSnapshot.load(snapshotDir, baseDir.toPath(), ENVIRONMENT);
+        snapshot.put(sourceFile("a.js", "var a = 1\n"), issues("Missing semicolon."));
+        snapshot.save();
+
+        assertNull(EsLintResultSnapshot.load(snapshotDir, baseDir.toPath(), "other rules")
+            .get(sourceFile("a.js", "var a = 1\n")));
+    }
+
+    @Test
+    public void save_forgetsTheFilesNotSeenDuringTheAnalysis() throws IOException {
+        final EsLintResultSnapshot first = EsLintResultSnapshot.load(snapshotDir, baseDir.toPath(), ENVIRONMENT);
+        first.put(sourceFile("a.js", "var a = 1\n"), issues("Missing semicolon."));
+        first.put(sourceFile("b.js", "var b = 1\n"), issues("Missing semicolon."));
+        first.save();
+
+        final EsLintResultSnapshot second = EsLintResultSnapshot.load(snapshotDir, baseDir.toPath(), ENVIRONMENT);
+        second.get(sourceFile("a.js", "var a = 1\n"));
+        second.save();
+
+        final EsLintResultSnapshot third = EsLintResultSnapshot.load(snapshotDir, baseDir.toPath(), ENVIRONMENT);
+        assertEquals(1, third.get(sourceFile("a.js", "var a = 1\n")).size());
+        assertNull(third.get(sourceFile("b.js", "var b = 1\n")));
+    }
+
+    @Test
+    public void load_ignoresACorruptSnapshot() throws IOException {
+        snapshotDir.mkdirs();
+        Files.write(new File(snapshotDir, EsLintResultSnapshot.SNAPSHOT_FILE_NAME).toPath(),
+            "{\"a.js\": [".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(EsLintResultSnapshot.load(snapshotDir, baseDir.toPath(), ENVIRONMENT).get(sourceFile("a.js", "var a = 1\n")));
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOS Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: contact@sylvainleroy.com, or visit : https://sylvainleroy.com
+ */
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import org.junit.Test;
+
+import io.github.sleroy.sonar.model.EsLintRule;
+
+public class EsLintRuleCatalogTest {
+    @Test
+    public void read_returnsTheRulesOfTheProperties() throws IOException {
+	final List<EsLintRule> parsed = EsLintRuleCatalog.parse();
+	final List<EsLintRule> read = EsLintRuleCatalog.read(new ByteArrayInputStream(catalog(parsed)));
+
+	assertTrue(parsed.size() > 100);
+	assertEquals(parsed.size(), read.size());
+	for (int i = 0; i < parsed.size(); i++) {
+	    assertEquals(parsed.get(i).toString(), read.get(i).toString());
+	}
+    }
+
+    @Test
+    public void read_returnsNull_whenTheCatalogIsNotOne() throws IOException {
+	assertNull(EsLintRuleCatalog.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 })));
+    }
+
+    @Test
+    public void coreRules_areLoadedOnceAndSorted() {
+	final List<EsLintRule> rules = EsLintRuleCatalog.coreRules();
+
+	assertSame(rules, EsLintRuleCatalog.coreRules());
+	assertSame(rules, new EsRulesDefinition().getCoreRules());
+	for (int i = 1; i < rules.size(); i++) {
+	    assertTrue(rules.get(i - 1).getKey().compareTo(rules.get(i).getKey()) < 0);
+	}
+    }
+
+    @Test
+    public void load_readsThePrecompiledCatalog_likeTheProperties() throws IOException {
+	final List<EsLintRule> parsed = EsLintRuleCatalog.parse();
+	final List<EsLintRule> loaded;
+	try (InputStream catalog = EsLintRuleCatalog.class
+		.getResourceAsStream(EsLintRuleCatalog.CORE_RULES_CATALOG_RESOURCE_PATH)) {
+	    assertNotNull("The build did not package " + EsLintRuleCatalog.CORE_RULES_CATALOG_RESOURCE_PATH, catalog);
+	    loaded = EsLintRuleCatalog.read(catalog);
+	}
+
+	assertNotNull(loaded);
+	assertEquals(parsed.size(), loaded.size());
+	for (int i = 0; i < parsed.size(); i++) {
+	    assertEquals(parsed.get(i).toString(), loaded.get(i).toString());
+	}
+	assertEquals(parsed.toString(), EsLintRuleCatalog.load().toString());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void coreRules_cannotBeModified() {
+	EsLintRuleCatalog.coreRules().clear();
+    }
+
+    private static byte[] catalog(final List<EsLintRule> rules) throws IOException {
+	final ByteArrayOutputStream output = new ByteArrayOutputStream();
+	EsLintRuleCatalog.write(rules, output);
+	return output.toByteArray();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOS Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: contact@sylvainleroy.com, or visit : https://sylvainleroy.com
+ */
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
+import org.sonar.api.rule.RuleKey;
+
+public class EsLintRuleKeysTest {
+    private EsLintRuleKeys ruleKeys;
+
+    @Before
+    public void setUp() {
+	final ActiveRulesBuilder rulesBuilder = new ActiveRulesBuilder();
+	rulesBuilder.create(RuleKey.of(EsRulesDefinition.REPOSITORY_NAME, "semi")).activate();
+	rulesBuilder.create(RuleKey.of(EsRulesDefinition.REPOSITORY_NAME, "react-jsx-key")).activate();
+	ruleKeys = new EsLintRuleKeys(
+		rulesBuilder.build().findByRepository(EsRulesDefinition.REPOSITORY_NAME));
+    }
+
+    @Test
+    public void resolve_mapsPluginRulesToTheirSonarKey() {
+	assertEquals(RuleKey.of(EsRulesDefinition.REPOSITORY_NAME, "semi"), ruleKeys.resolve("semi"));
+	assertEquals(RuleKey.of(EsRulesDefinition.REPOSITORY_NAME, "react-jsx-key"), ruleKeys.resolve("react/jsx-key"));
+	assertSame(ruleKeys.resolve("react/jsx-key"), ruleKeys.resolve("react/jsx-key"));
+	assertEquals(0, ruleKeys.getUnknownRules().size());
+    }
+
+    @Test
+    public void resolve_countsTheIssuesOfEveryUnknownRule() {
+	final RuleKey unknownRule = RuleKey.of(EsRulesDefinition.REPOSITORY_NAME,
+		EsRulesDefinition.ESLINT_UNKNOWN_RULE.getKey());
+
+	for (int i = 0; i < 1000; i++) {
+	    assertEquals(unknownRule, ruleKeys.resolve("prettier/prettier"));
+	}
+	assertEquals(unknownRule, ruleKeys.resolve("no-undef"));
+	assertEquals(unknownRule, ruleKeys.resolve(null));
+
+	assertEquals(2, ruleKeys.getUnknownRules().size());
+	assertEquals((Integer) 1000, ruleKeys.getUnknownRules().get("prettier/prettier"));
+	assertEquals((Integer) 1, ruleKeys.getUnknownRules().get("no-undef"));
+	ruleKeys.logUnknownRules();
+    }
+
+    @Test
+    public void isReported_keepsTheRulesOfTheProfileAndTheUnknownRules_whenEsLintIssueIsActive() {
+	final Set<String> pluginRules = new HashSet<>(Arrays.asList("semi", "react-jsx-key", "eqeqeq"));
+	assertTrue(ruleKeys.isReported("semi", pluginRules));
+	assertTrue(ruleKeys.isReported("react/jsx-key", pluginRules));
+	assertFalse(ruleKeys.isReported("eqeqeq", pluginRules));
+	assertFalse(ruleKeys.isReported("prettier/prettier", pluginRules));
+
+	final ActiveRulesBuilder rulesBuilder = new ActiveRulesBuilder();
+	rulesBuilder.create(RuleKey.of(EsRulesDefinition.REPOSITORY_NAME, "semi")).activate();
+	rulesBuilder.create(RuleKey.of(EsRulesDefinition.REPOSITORY_NAME,
+		EsRulesDefinition.ESLINT_UNKNOWN_RULE.getKey())).activate();
+	final EsLintRuleKeys withUnknownRule = new EsLintRuleKeys(
+		rulesBuilder.build().findByRepository(EsRulesDefinition.REPOSITORY_NAME));
+	assertFalse(withUnknownRule.isReported("eqeqeq", pluginRules));
+	assertTrue(withUnknownRule.isReported("prettier/prettier", pluginRules));
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOS Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: contact@sylvainleroy.com, or visit : https://sylvainleroy.com
+ */
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class EsLintRuleTimingsTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void addTimingTable_sumsTheTimeOfEveryRuleOverTheBatches() {
+	final EsLintRuleTimings timings = new EsLintRuleTimings();
+
+	assertEquals(2, timings.addTimingTable("Rule            | Time (ms) | Relative\n"
+		+ ":---------------|----------:|--------:\n"
+		+ "import/no-cycle |   120.500 |    92.7%\n"
+		+ "semi            |     9.500 |     7.3%\n"));
+	assertEquals(2, timings.addTimingTable("Rule            | Time (ms) | Relative\r\n"
+		+ ":---------------|----------:|--------:\r\n"
+		+ "no-undef        |    40.000 |    50.0%\r\n"
+		+ "semi            |    40.000 |    50.0%\r\n"));
+	assertEquals(0, timings.addTimingTable(""));
+
+	final List<Map.Entry<String, Double>> sorted = timings.sorted();
+	assertEquals(Arrays.asList("import/no-cycle", "semi", "no-undef"),
+		Arrays.asList(sorted.get(0).getKey(), sorted.get(1).getKey(), sorted.get(2).getKey()));
+	assertEquals(49.5, sorted.get(1).getValue(), 0.001);
+	assertEquals(210.0, timings.total(), 0.001);
+	assertEquals(2, timings.getTables());
+    }
+
+    @Test
+    public void writeReport_writesTheRulesTheMostExpensiveFirst() throws Exception {
+	final EsLintRuleTimings timings = new EsLintRuleTimings();
+	timings.addTimingTable("semi | 25.000 | 25.0%\nimport/no-cycle | 75.000 | 75.0%\n");
+	final File report = new File(temp.getRoot(), EsLintRuleTimings.REPORT_FILE_NAME);
+
+	timings.writeReport(report);
+
+	assertEquals(Arrays.asList("Rule            | Time (ms) | Relative",
+		":---------------|----------:|--------:",
+		"import/no-cycle |    75.000 |    75.0%",
+		"semi            |    25.000 |    25.0%"), Files.readAllLines(report.toPath(), StandardCharsets.UTF_8));
+    }
+}
@@ -12,9 +12,12 @@ package io.github.sleroy.sonar;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -22,16 +25,29 @@ import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 import org.mockito.stubbing.Answer;
+import org.sonar.api.batch.fs.InputFile;
 import org.sonar.api.batch.fs.internal.DefaultInputFile;
 import org.sonar.api.batch.fs.internal.TestInputFileBuilder;
 import org.sonar.api.batch.rule.internal.ActiveRulesBuilder;
@@ -44,6 +60,7 @@ import org.sonar.api.rule.RuleKey;
 import io.github.sleroy.sonar.api.EsLintExecutor;
 import io.github.sleroy.sonar.api.EsLintParser;
 import io.github.sleroy.sonar.api.PathResolver;
+import io.github.sleroy.sonar.model.EsLintFile;
 import io.github.sleroy.sonar.model.EsLintIssue;
 
 public class EsLintSensorTest {
@@ -63,13 +80,16 @@ public class EsLintSensorTest {
 
     ArgumentCaptor<EsLintExecutorConfig> configCaptor;
 
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
     @Test
     public void analyse_doesNothingWhenDisabled() throws IOException {
 	when(settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_ENABLED)).thenReturn(Optional.of(Boolean.FALSE));
 
 	sensor.execute(context);
 
-	verify(executor, times(0)).execute(any(EsLintExecutorConfig.class), any(List.class));
+	verify(executor, times(0)).execute(any(EsLintExecutorConfig.class), any(List.class), any(Consumer.class));
 
 	assertEquals(0, context.allIssues().size());
     }
@@ -84,8 +104,11 @@ public class EsLintSensorTest {
 	settings = mock(Configuration.class);
 	when(settings.getInt(EsLintPlugin.SETTING_ES_LINT_TIMEOUT)).thenReturn(Optional.of(45000));
 	when(settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_ENABLED)).thenReturn(Optional.of(true));
+	when(settings.getStringArray(EsLintPlugin.SETTING_ES_LINT_REPORT_PATHS)).thenReturn(new String[0]);
 	executor = mock(EsLintExecutor.class);
 	parser = mock(EsLintParser.class);
+	// The sensor reads the issues column by column, from the files the tests hand over
+	doCallRealMethod().when(parser).parseIssues(any(Reader.class), any(BiConsumer.class));
 
 	resolver = mock(PathResolver.class);
 	sensor = spy(new EsLintSensor(settings, resolver, executor, parser));
@@ -100,6 +123,7 @@ public class EsLintSensorTest {
 		.setOriginalLineOffsets(new int[] { 5 }).build();
 
 	context = SensorContextTester.create(new File(""));
+	context.fileSystem().setWorkDir(temp.getRoot().toPath());
 	context.fileSystem().add(file);
 	context.fileSystem().add(typeDefFile);
 
@@ -152,13 +176,92 @@ public class EsLintSensorTest {
 	final Map<String, List<EsLintIssue>> issues = new HashMap<>();
 	issues.put(issue.getName(), issueList);
 
-	when(parser.parse(any(List.class))).thenReturn(issues);
+	givenReportedIssues(issues);
 	sensor.execute(context);
 
 	assertEquals(1, context.allIssues().size());
 	assertEquals("rule name", context.allIssues().iterator().next().ruleKey().rule());
     }
 
+    @Test
+    public void execute_writesTheMetricsOfThePhases() throws IOException {
+	final EsLintIssue issue = new EsLintIssue();
+	issue.setMessage("failure");
+	issue.setRuleId("rule name");
+	issue.setName(file.absolutePath().replace("\\", "/"));
+	issue.setLine(1);
+
+	final Map<String, List<EsLintIssue>> issues = new HashMap<>();
+	issues.put(issue.getName(), Collections.singletonList(issue));
+
+	givenReportedIssues(issues);
+	sensor.execute(context);
+
+	final String report = new String(
+		Files.readAllBytes(new File(temp.getRoot(), EsLintMetrics.REPORT_FILE_NAME).toPath()),
+		StandardCharsets.UTF_8);
+	assertTrue(report, report.contains("\"name\": \"" + EsLintMetrics.PHASE_FILE_MAP + "\""));
+	assertTrue(report, report.contains("\"name\": \"" + EsLintMetrics.PHASE_SAVE + "\""));
+	assertTrue(report, report.contains("\"name\": \"" + EsLintMetrics.PHASE_PARSE + "\""));
+    }
+
+    @Test
+    public void execute_importsTheReports_insteadOfRunningEsLint() throws IOException {
+	final File report = temp.newFile("eslint-report.json");
+	when(settings.getStringArray(EsLintPlugin.SETTING_ES_LINT_REPORT_PATHS))
+		.thenReturn(new String[] { report.getAbsolutePath() });
+	final EsLintIssue issue = new EsLintIssue();
+	issue.setMessage("failure");
+	issue.setRuleId("rule name");
+	issue.setLine(1);
+
+	// The report was written on another machine
+	final Map<String, List<EsLintIssue>> issues = new HashMap<>();
+	issues.put("/builds/ci/workspace/path/to/file", Collections.singletonList(issue));
+	issues.put("/builds/ci/workspace/path/to/generated.js", Collections.singletonList(issue));
+	givenReportedIssues(issues);
+	sensor.execute(context);
+
+	verify(executor, never()).execute(any(EsLintExecutorConfig.class), any(List.class), any(Consumer.class));
+	assertEquals(1, context.allIssues().size());
+	assertEquals(file, context.allIssues().iterator().next().primaryLocation().inputComponent());
+    }
+
+    @Test
+    public void execute_writesTheResultOfTheShard_insteadOfSavingTheIssues() throws IOException {
+	when(settings.get(EsLintPlugin.SETTING_ES_LINT_SHARD)).thenReturn(Optional.of("1/1"));
+	final EsLintIssue issue = new EsLintIssue();
+	issue.setMessage("failure");
+	issue.setRuleId("rule name");
+	issue.setName(file.absolutePath().replace("\\", "/"));
+	issue.setLine(1);
+
+	final Map<String, List<EsLintIssue>> issues = new HashMap<>();
+	issues.put(issue.getName(), Collections.singletonList(issue));
+
+	givenReportedIssues(issues);
+	sensor.execute(context);
+
+	assertEquals(0, context.allIssues().size());
+	final String result = new String(
+		Files.readAllBytes(new File(temp.getRoot(), new EsLintShard(1, 1).getResultFileName()).toPath()),
+		StandardCharsets.UTF_8);
+	assertTrue(result, result.contains("\"ruleId\":\"rule name\""));
+    }
+
+    @Test
+    public void execute_writesNoShardResult_whenLintingFails() {
+	when(settings.get(EsLintPlugin.SETTING_ES_LINT_SHARD)).thenReturn(Optional.of("1/1"));
+	doAnswer(invocation -> {
+	    throw new IllegalStateException("ESLint crashed");
+	}).when(executor).execute(any(EsLintExecutorConfig.class), any(List.class), any(Consumer.class));
+
+	sensor.execute(context);
+
+	assertTrue(!new File(temp.getRoot(), new EsLintShard(1, 1).getResultFileName()).exists());
+	assertTrue(!new File(temp.getRoot(), new EsLintShard(1, 1).getResultFileName() + ".part").exists());
+    }
+
     @Test
     public void execute_addsToUnknownRuleBucket_whenRuleNameNotRecognised() {
 	final EsLintIssue issue = new EsLintIssue();
@@ -174,7 +277,7 @@ public class EsLintSensorTest {
 	final Map<String, List<EsLintIssue>> issues = new HashMap<>();
 	issues.put(issue.getName(), issueList);
 
-	when(parser.parse(any(List.class))).thenReturn(issues);
+	givenReportedIssues(issues);
 	sensor.execute(context);
 
 	assertEquals(1, context.allIssues().size());
@@ -188,7 +291,7 @@ public class EsLintSensorTest {
 
 	sensor.execute(context);
 
-	verify(executor, times(1)).execute(configCaptor.capture(), any(List.class));
+	verify(executor, times(1)).execute(configCaptor.capture(), any(List.class), any(Consumer.class));
 	assertEquals((Integer) EsLintExecutorConfig.MAX_TIMEOUT, configCaptor.getValue().getTimeoutMs());
     }
 
@@ -196,7 +299,7 @@ public class EsLintSensorTest {
     public void execute_callsExecutorWithConfiguredPaths() {
 	sensor.execute(context);
 
-	verify(executor, times(1)).execute(configCaptor.capture(), any(List.class));
+	verify(executor, times(1)).execute(configCaptor.capture(), any(List.class), any(Consumer.class));
 	assertEquals("/path/to/eslint", configCaptor.getValue().getPathToEsLint());
 	assertEquals("src/test/resources/.eslintrc.js", configCaptor.getValue().getConfigFile());
 	assertEquals("/path/to/rules", configCaptor.getValue().getRulesDir());
@@ -206,7 +309,7 @@ public class EsLintSensorTest {
     public void execute_callsExecutorWithSuppliedTimeout() throws IOException {
 	sensor.execute(context);
 
-	verify(executor, times(1)).execute(configCaptor.capture(), any(List.class));
+	verify(executor, times(1)).execute(configCaptor.capture(), any(List.class), any(Consumer.class));
 	assertEquals((Integer) EsLintExecutorConfig.MAX_TIMEOUT, configCaptor.getValue().getTimeoutMs());
     }
 
@@ -216,7 +319,7 @@ public class EsLintSensorTest {
 
 	sensor.execute(context);
 
-	verify(executor, times(0)).execute(any(EsLintExecutorConfig.class), any(List.class));
+	verify(executor, times(0)).execute(any(EsLintExecutorConfig.class), any(List.class), any(Consumer.class));
 
 	assertEquals(0, context.allIssues().size());
     }
@@ -225,7 +328,7 @@ public class EsLintSensorTest {
     public void execute_doesNotThrow_ifFileIssuesEmpty() {
 	final Map<String, List<EsLintIssue>> issues = new HashMap<>();
 	issues.put(file.absolutePath().replace("\\", "/"), new ArrayList<EsLintIssue>());
-	when(parser.parse(any(List.class))).thenReturn(issues);
+	givenReportedIssues(issues);
 
 	sensor.execute(context);
     }
@@ -234,14 +337,14 @@ public class EsLintSensorTest {
     public void execute_doesNotThrow_ifFileIssuesNull() {
 	final Map<String, List<EsLintIssue>> issues = new HashMap<>();
 	issues.put(file.absolutePath().replace("\\", "/"), null);
-	when(parser.parse(any(List.class))).thenReturn(issues);
+	givenReportedIssues(issues);
 
 	sensor.execute(context);
     }
 
     @Test
     public void execute_doesNotThrow_ifParserReturnsNoResult() {
-	when(parser.parse(any(List.class))).thenReturn(null);
+	givenReportedIssues();
 
 	sensor.execute(context);
     }
@@ -261,8 +364,212 @@ public class EsLintSensorTest {
 	final Map<String, List<EsLintIssue>> issues = new HashMap<>();
 	issues.put(issue.getName(), issueList);
 
-	when(parser.parse(any(List.class))).thenReturn(issues);
+	givenReportedIssues(issues);
+	sensor.execute(context);
+    }
+
+    @Test
+    public void execute_replaysCachedResults_withoutRunningEsLint() throws IOException {
+	final File baseDir = temp.newFolder();
+	final File source = new File(baseDir, "cached.js");
+	Files.write(source.toPath(), "var a = 1\n".getBytes(StandardCharsets.UTF_8));
+	final DefaultInputFile cachedFile = TestInputFileBuilder.create("", baseDir, source)
+		.setLanguage(EsLintLanguage.LANGUAGE_KEY).initMetadata("var a = 1\n").build();
+
+	when(settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_CACHE)).thenReturn(Optional.of(true));
+	when(settings.get(EsLintPlugin.SETTING_ES_LINT_CACHE_DIR))
+		.thenReturn(Optional.of(new File(baseDir, "cache").getAbsolutePath()));
+
+	final EsLintIssue issue = new EsLintIssue();
+	issue.setMessage("failure");
+	issue.setRuleId("rule name");
+	issue.setLine(1);
+	final Map<String, List<EsLintIssue>> issues = new HashMap<>();
+	issues.put(cachedFile.absolutePath(), Collections.singletonList(issue));
+	givenReportedIssues(issues);
+
+	final SensorContextTester firstAnalysis = SensorContextTester.create(baseDir);
+	firstAnalysis.fileSystem().setWorkDir(temp.getRoot().toPath());
+	firstAnalysis.fileSystem().add(cachedFile);
+	firstAnalysis.setActiveRules(context.activeRules());
+	sensor.execute(firstAnalysis);
+
+	final SensorContextTester secondAnalysis = SensorContextTester.create(baseDir);
+	secondAnalysis.fileSystem().setWorkDir(temp.getRoot().toPath());
+	secondAnalysis.fileSystem().add(cachedFile);
+	secondAnalysis.setActiveRules(context.activeRules());
+	sensor.execute(secondAnalysis);
+
+	verify(executor, times(1)).execute(any(EsLintExecutorConfig.class), any(List.class), any(Consumer.class));
+	assertEquals(1, firstAnalysis.allIssues().size());
+	assertEquals(1, secondAnalysis.allIssues().size());
+	assertEquals("rule name", secondAnalysis.allIssues().iterator().next().ruleKey().rule());
+    }
+
+    @Test
+    public void execute_keepsTheLastKnownIssues_ofFilesLeftOutOfTheReport() throws IOException {
+	final File baseDir = temp.newFolder();
+	final File source = new File(baseDir, "unchanged.js");
+	Files.write(source.toPath(), "var a = 1\n".getBytes(StandardCharsets.UTF_8));
+	final DefaultInputFile unchangedFile = TestInputFileBuilder.create("", baseDir, source)
+		.setLanguage(EsLintLanguage.LANGUAGE_KEY).initMetadata("var a = 1\n").build();
+
+	final EsLintIssue issue = new EsLintIssue();
+	issue.setMessage("failure");
+	issue.setRuleId("rule name");
+	issue.setLine(1);
+	final Map<String, List<EsLintIssue>> issues = new HashMap<>();
+	issues.put(unchangedFile.absolutePath(), Collections.singletonList(issue));
+	// ESLint does not report the file again once it is in its own cache
+	givenReportedIssues(issues, new HashMap<>());
+
+	final SensorContextTester firstAnalysis = SensorContextTester.create(baseDir);
+	firstAnalysis.fileSystem().setWorkDir(temp.getRoot().toPath());
+	firstAnalysis.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_NATIVE_CACHE, true);
+	firstAnalysis.fileSystem().add(unchangedFile);
+	firstAnalysis.setActiveRules(context.activeRules());
+	sensor.execute(firstAnalysis);
+
+	final SensorContextTester secondAnalysis = SensorContextTester.create(baseDir);
+	secondAnalysis.fileSystem().setWorkDir(temp.getRoot().toPath());
+	secondAnalysis.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_NATIVE_CACHE, true);
+	secondAnalysis.fileSystem().add(unchangedFile);
+	secondAnalysis.setActiveRules(context.activeRules());
+	sensor.execute(secondAnalysis);
+
+	verify(executor, times(2)).execute(any(EsLintExecutorConfig.class), any(List.class), any(Consumer.class));
+	assertEquals(1, firstAnalysis.allIssues().size());
+	assertEquals(1, secondAnalysis.allIssues().size());
+	assertEquals("rule name", secondAnalysis.allIssues().iterator().next().ruleKey().rule());
+    }
+
+    @Test
+    public void execute_lintsOnlyChangedFiles_whenChangedFilesOnly() throws IOException {
+	final File baseDir = temp.newFolder();
+	final DefaultInputFile unchangedFile = givenSourceFile(baseDir, "unchanged.js", InputFile.Status.SAME);
+	final DefaultInputFile changedFile = givenSourceFile(baseDir, "changed.js", InputFile.Status.CHANGED);
+	final DefaultInputFile addedFile = givenSourceFile(baseDir, "added.js", InputFile.Status.ADDED);
+
+	final EsLintIssue issue = new EsLintIssue();
+	issue.setMessage("failure");
+	issue.setRuleId("rule name");
+	issue.setLine(1);
+	final Map<String, List<EsLintIssue>> issues = new HashMap<>();
+	issues.put(unchangedFile.absolutePath(), Collections.singletonList(issue));
+	when(settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_CHANGED_FILES_ONLY)).thenReturn(Optional.of(true));
+	when(settings.get("sonar.pullrequest.key")).thenReturn(Optional.of("42"));
+	when(settings.get(EsLintPlugin.SETTING_ES_LINT_CACHE_DIR))
+		.thenReturn(Optional.of(new File(baseDir, "cache").getAbsolutePath()));
+	givenReportedIssues(issues, new HashMap<>());
+
+	final List<SensorContextTester> analyses = new ArrayList<>();
+	for (int i = 0; i < 2; i++) {
+	    final SensorContextTester analysis = SensorContextTester.create(baseDir);
+	    analysis.fileSystem().setWorkDir(temp.getRoot().toPath());
+	    analysis.fileSystem().add(unchangedFile);
+	    analysis.fileSystem().add(changedFile);
+	    analysis.fileSystem().add(addedFile);
+	    analysis.setActiveRules(context.activeRules());
+	    sensor.execute(analysis);
+	    analyses.add(analysis);
+	}
+
+	// The unchanged file has no last known issues on the first analysis, so it is linted as well
+	final ArgumentCaptor<List> lintedFiles = ArgumentCaptor.forClass(List.class);
+	verify(executor, times(2)).execute(any(EsLintExecutorConfig.class), lintedFiles.capture(), any(Consumer.class));
+	assertEquals(3, lintedFiles.getAllValues().get(0).size());
+	assertEquals(2, lintedFiles.getAllValues().get(1).size());
+	assertTrue(lintedFiles.getAllValues().get(1).contains(changedFile.absolutePath()));
+	assertTrue(lintedFiles.getAllValues().get(1).contains(addedFile.absolutePath()));
+	assertEquals(1, analyses.get(1).allIssues().size());
+    }
+
+    @Test
+    public void execute_lintsEveryFile_whenChangedFilesOnlyOutsideOfAPullRequest() throws IOException {
+	final File baseDir = temp.newFolder();
+	final DefaultInputFile unchangedFile = givenSourceFile(baseDir, "unchanged.js", InputFile.Status.SAME);
+	final DefaultInputFile changedFile = givenSourceFile(baseDir, "changed.js", InputFile.Status.CHANGED);
+	when(settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_CHANGED_FILES_ONLY)).thenReturn(Optional.of(true));
+	when(settings.get(EsLintPlugin.SETTING_ES_LINT_CACHE_DIR))
+		.thenReturn(Optional.of(new File(baseDir, "cache").getAbsolutePath()));
+	givenReportedIssues(new HashMap<>(), new HashMap<>());
+
+	for (int i = 0; i < 2; i++) {
+	    final SensorContextTester analysis = SensorContextTester.create(baseDir);
+	    analysis.fileSystem().setWorkDir(temp.getRoot().toPath());
+	    analysis.fileSystem().add(unchangedFile);
+	    analysis.fileSystem().add(changedFile);
+	    analysis.setActiveRules(context.activeRules());
+	    sensor.execute(analysis);
+	}
+
+	final ArgumentCaptor<List> lintedFiles = ArgumentCaptor.forClass(List.class);
+	verify(executor, times(2)).execute(any(EsLintExecutorConfig.class), lintedFiles.capture(), any(Consumer.class));
+	assertEquals(2, lintedFiles.getAllValues().get(1).size());
+    }
+
+    @Test
+    public void execute_doesNotLintTheMinifiedFiles_whenGeneratedFilesAreSkipped() throws IOException {
+	final DefaultInputFile bundleFile = givenMinifiedFile();
+	when(settings.getBoolean(EsLintPlugin.SETTING_ES_LINT_SKIP_GENERATED)).thenReturn(Optional.of(true));
+
 	sensor.execute(context);
+
+	final ArgumentCaptor<List> lintedFiles = ArgumentCaptor.forClass(List.class);
+	verify(executor).execute(any(EsLintExecutorConfig.class), lintedFiles.capture(), any(Consumer.class));
+	assertTrue(lintedFiles.getValue().contains(file.absolutePath()));
+	assertTrue(!lintedFiles.getValue().contains(bundleFile.absolutePath()));
+    }
+
+    @Test
+    public void execute_lintsTheMinifiedFiles_byDefault() throws IOException {
+	final DefaultInputFile bundleFile = givenMinifiedFile();
+
+	sensor.execute(context);
+
+	final ArgumentCaptor<List> lintedFiles = ArgumentCaptor.forClass(List.class);
+	verify(executor).execute(any(EsLintExecutorConfig.class), lintedFiles.capture(), any(Consumer.class));
+	assertTrue(lintedFiles.getValue().contains(bundleFile.absolutePath()));
+    }
+
+    private static DefaultInputFile givenSourceFile(final File baseDir, final String name,
+	    final InputFile.Status status) throws IOException {
+	final File source = new File(baseDir, name);
+	Files.write(source.toPath(), "var a = 1\n".getBytes(StandardCharsets.UTF_8));
+	return TestInputFileBuilder.create("", baseDir, source).setLanguage(EsLintLanguage.LANGUAGE_KEY)
+		.initMetadata("var a = 1\n").setStatus(status).build();
+    }
+
+    private DefaultInputFile givenMinifiedFile() throws IOException {
+	final File baseDir = temp.newFolder();
+	final File bundle = new File(baseDir, "vendor.min.js");
+	Files.write(bundle.toPath(), "var a=1;".getBytes(StandardCharsets.UTF_8));
+	final DefaultInputFile bundleFile = TestInputFileBuilder.create("", baseDir, bundle)
+		.setLanguage(EsLintLanguage.LANGUAGE_KEY).build();
+	context.fileSystem().add(bundleFile);
+	givenReportedIssues(new HashMap<>());
+	return bundleFile;
+    }
+
+    @Test
+    public void execute_parsesStreamedReports_whenStreamOutput() {
+	final String path = file.absolutePath().replace("\\", "/");
+	doAnswer(invocation -> {
+	    invocation.<Consumer<Reader>>getArgument(2).accept(new StringReader("[{\"filePath\":\"" + path
+		    + "\",\"messages\":[{\"ruleId\":\"rule name\",\"message\":\"failure\",\"line\":1}]}]"));
+	    return null;
+	}).when(executor).execute(any(EsLintExecutorConfig.class), any(List.class), any(Consumer.class));
+	doAnswer(invocation -> {
+	    new EsLintParserImpl().parse(invocation.<Reader>getArgument(0), invocation.getArgument(1));
+	    return null;
+	}).when(parser).parse(any(Reader.class), any(Consumer.class));
+
+	context.settings().setProperty(EsLintPlugin.SETTING_ES_LINT_STREAM_OUTPUT, true);
+	sensor.execute(context);
+
+	verify(executor, never()).execute(any(EsLintExecutorConfig.class), any(List.class));
+	assertEquals(1, context.allIssues().size());
+	assertEquals("rule name", context.allIssues().iterator().next().ruleKey().rule());
     }
 
     @Test
@@ -271,8 +578,31 @@ public class EsLintSensorTest {
 
 	sensor.execute(context);
 
-	verify(executor, times(0)).execute(any(EsLintExecutorConfig.class), any(List.class));
+	verify(executor, times(0)).execute(any(EsLintExecutorConfig.class), any(List.class), any(Consumer.class));
 
 	assertEquals(0, context.allIssues().size());
     }
+
+    /**
+     * Makes ESLint report the given issues by file path, one map per analysis.
+     */
+    @SafeVarargs
+    private final void givenReportedIssues(final Map<String, List<EsLintIssue>>... reports) {
+	final Deque<Map<String, List<EsLintIssue>>> pendingReports = new ArrayDeque<>(Arrays.asList(reports));
+	doAnswer(invocation -> {
+	    invocation.<Consumer<Reader>>getArgument(2).accept(new StringReader(""));
+	    return null;
+	}).when(executor).execute(any(EsLintExecutorConfig.class), any(List.class), any(Consumer.class));
+	doAnswer(invocation -> {
+	    final Map<String, List<EsLintIssue>> report = pendingReports.isEmpty() ? new HashMap<>()
+		    : pendingReports.poll();
+	    for (final Map.Entry<String, List<EsLintIssue>> reportedFile : report.entrySet()) {
+		final EsLintFile esLintFile = new EsLintFile();
+		esLintFile.setFilePath(reportedFile.getKey());
+		esLintFile.setMessages(reportedFile.getValue());
+		invocation.<Consumer<EsLintFile>>getArgument(1).accept(esLintFile);
+	    }
+	    return null;
+	}).when(parser).parse(any(Reader.class), any(Consumer.class));
+    }
 }
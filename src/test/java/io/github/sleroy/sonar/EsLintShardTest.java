@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOS Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: contact@sylvainleroy.com, or visit : https://sylvainleroy.com
+ */
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import io.github.sleroy.sonar.model.EsLintFile;
+import io.github.sleroy.sonar.model.EsLintFileIssues;
+import io.github.sleroy.sonar.model.EsLintIssue;
+import io.github.sleroy.sonar.model.EsLintIssueStore;
+
+public class EsLintShardTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void select_putsEveryFileInOneShard_whateverTheCheckoutDirectory() {
+	final Path firstCheckout = Paths.get("/builds/1/project").toAbsolutePath();
+	final Path secondCheckout = Paths.get("/agent/_work/project").toAbsolutePath();
+	final List<String> firstPaths = new ArrayList<>();
+	final List<String> secondPaths = new ArrayList<>();
+	for (int i = 0; i < 1000; i++) {
+	    firstPaths.add(firstCheckout.resolve("src/module" + i % 10 + "/file" + i + ".js").toString());
+	    secondPaths.add(secondCheckout.resolve("src/module" + i % 10 + "/file" + i + ".js").toString());
+	}
+
+	final Set<String> linted = new HashSet<>();
+	for (int index = 1; index <= 4; index++) {
+	    final EsLintShard shard = EsLintShard.parse(index + "/4");
+	    final List<String> selected = shard.select(firstCheckout, firstPaths);
+	    assertTrue(selected.size() > 150);
+	    for (final String path : selected) {
+		assertTrue(linted.add(path));
+		assertTrue(secondPaths.contains(secondCheckout.resolve(firstCheckout.relativize(Paths.get(path))).toString()));
+	    }
+	    assertEquals(selected.size(), shard.select(secondCheckout, secondPaths).size());
+	}
+	assertEquals(firstPaths.size(), linted.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_rejectsAShardOutOfRange() {
+	EsLintShard.parse("9/8");
+    }
+
+    @Test
+    public void resultWriter_writesAReportWithRelativePaths() throws IOException {
+	final File baseDir = temp.newFolder("project");
+	final String appPath = new File(baseDir, "src/app.js").getAbsolutePath().replace('\\', '/');
+	final String indexPath = new File(baseDir, "src/index.js").getAbsolutePath().replace('\\', '/');
+	final EsLintIssue issue = new EsLintIssue();
+	issue.setRuleId("no-unused-vars");
+	issue.setMessage("'a' is \"unused\"");
+	issue.setSeverity(2);
+	issue.setLine(3);
+	issue.setColumn(7);
+	final EsLintIssueStore issues = new EsLintIssueStore();
+	issues.put(appPath, Collections.singletonList(issue));
+	issues.put(indexPath, new EsLintFileIssues(0));
+
+	final EsLintShard shard = new EsLintShard(2, 3);
+	final File resultFile = new File(temp.getRoot(), "shards/" + shard.getResultFileName());
+	try (EsLintShard.ResultWriter writer = new EsLintShard.ResultWriter(baseDir.toPath(), resultFile)) {
+	    writer.write(appPath, issues);
+	    writer.write(indexPath, issues);
+	    assertFalse(resultFile.exists());
+	    writer.commit();
+	}
+
+	final List<EsLintFile> files = new ArrayList<>();
+	try (Reader reader = Files.newBufferedReader(resultFile.toPath(), StandardCharsets.UTF_8)) {
+	    new EsLintParserImpl().parse(reader, files::add);
+	}
+	assertEquals(2, files.size());
+	assertEquals("src/app.js", files.get(0).getFilePath());
+	assertEquals("'a' is \"unused\"", files.get(0).getMessages().get(0).getMessage());
+	assertEquals(3, files.get(0).getMessages().get(0).getLine());
+	assertEquals("src/index.js", files.get(1).getFilePath());
+	assertTrue(files.get(1).getMessages().isEmpty());
+    }
+
+    @Test
+    public void resultWriter_leavesNoFile_whenTheShardIsNotCommitted() throws IOException {
+	final File baseDir = temp.newFolder("project");
+	final String appPath = new File(baseDir, "src/app.js").getAbsolutePath().replace('\\', '/');
+	final EsLintIssueStore issues = new EsLintIssueStore();
+	issues.put(appPath, new EsLintFileIssues(0));
+	final File resultFile = new File(temp.getRoot(), "shards/" + new EsLintShard(1, 2).getResultFileName());
+	resultFile.getParentFile().mkdirs();
+	Files.write(resultFile.toPath(), "[]".getBytes(StandardCharsets.UTF_8));
+
+	try (EsLintShard.ResultWriter writer = new EsLintShard.ResultWriter(baseDir.toPath(), resultFile)) {
+	    writer.write(appPath, issues);
+	}
+
+	assertFalse(resultFile.exists());
+	assertEquals(0, resultFile.getParentFile().list().length);
+    }
+
+    @Test
+    public void findMissingShards_listsTheShardsWithoutResult() {
+	assertEquals(new TreeSet<>(Arrays.asList(2, 4)),
+		EsLintShard.findMissingShards(Arrays.asList(new File("eslint-shard-1-of-4.json"),
+			new File("eslint-shard-3-of-4.json"), new File("other.json"))).get(4));
+	assertTrue(EsLintShard.findMissingShards(Arrays.asList(new File("eslint-shard-1-of-2.json"),
+		new File("eslint-shard-2-of-2.json"))).isEmpty());
+    }
+}
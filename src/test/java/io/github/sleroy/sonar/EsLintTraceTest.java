@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOS Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: contact@sylvainleroy.com, or visit : https://sylvainleroy.com
+ */
+package io.github.sleroy.sonar;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+public class EsLintTraceTest {
+    @Rule
+    public TemporaryFolder temp = new TemporaryFolder();
+
+    @Test
+    public void writeTrace_writesASpanPerRunOnTheTrackOfItsThread() throws Exception {
+	final EsLintMetrics metrics = new EsLintMetrics();
+	final EsLintTrace trace = new EsLintTrace();
+	metrics.setTrace(trace);
+
+	final Thread worker = new Thread(() -> metrics.start(EsLintMetrics.PHASE_BATCH_RUN).stop(12, 3400, 0),
+		"eslint-worker-1");
+	worker.start();
+	worker.join();
+	metrics.start(EsLintMetrics.PHASE_SAVE).stop(1, 0, 5);
+	final File traceFile = new File(temp.getRoot(), EsLintTrace.TRACE_FILE_NAME);
+
+	trace.writeTrace(traceFile);
+
+	final JsonArray events = new Gson()
+		.fromJson(new String(Files.readAllBytes(traceFile.toPath()), StandardCharsets.UTF_8), JsonObject.class)
+		.getAsJsonArray("traceEvents");
+	assertEquals(4, events.size());
+	final JsonObject workerTrack = events.get(0).getAsJsonObject();
+	assertEquals("M", workerTrack.get("ph").getAsString());
+	assertEquals("eslint-worker-1", workerTrack.getAsJsonObject("args").get("name").getAsString());
+
+	final JsonObject batch = events.get(2).getAsJsonObject();
+	assertEquals(EsLintMetrics.PHASE_BATCH_RUN, batch.get("name").getAsString());
+	assertEquals("X", batch.get("ph").getAsString());
+	assertEquals(workerTrack.get("tid").getAsInt(), batch.get("tid").getAsInt());
+	assertEquals(12, batch.getAsJsonObject("args").get("files").getAsInt());
+	assertEquals(3400, batch.getAsJsonObject("args").get("bytes").getAsLong());
+
+	final JsonObject save = events.get(3).getAsJsonObject();
+	assertEquals(events.get(1).getAsJsonObject().get("tid").getAsInt(), save.get("tid").getAsInt());
+	assertEquals(5, save.getAsJsonObject("args").get("issues").getAsLong());
+    }
+}
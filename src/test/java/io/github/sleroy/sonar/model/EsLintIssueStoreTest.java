@@ -0,0 +1,130 @@
+/*
+ * Copyright (C) 2017 Sylvain Leroy - BYOS Company All Rights Reserved
+ * You may use, distribute and modify this code under the
+ * terms of the MIT license, which unfortunately won't be
+ * written for another century.
+ *
+ * You should have received a copy of the MIT license with
+ * this file. If not, please write to: contact@sylvainleroy.com, or visit : https://sylvainleroy.com
+ */
+package io.github.sleroy.sonar.model;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class EsLintIssueStoreTest {
+    private static final int FILE_COUNT = 2000;
+    private static final int ISSUES_PER_FILE = 100;
+
+    @Test
+    public void forEach_visitsTheIssuesOfAFileInOrder() {
+	final EsLintIssueStore store = new EsLintIssueStore();
+	store.put("a.js", Arrays.asList(issue("semi", "Missing semicolon.", 3, 10, 2),
+		issue(null, "Parsing error", 7, 1, 2)));
+
+	final List<String> visited = new ArrayList<>();
+	store.forEach("a.js", (ruleId, message, line, column, severity) -> visited
+		.add(ruleId + "|" + message + "|" + line + "|" + column + "|" + severity));
+
+	assertEquals(Arrays.asList("semi|Missing semicolon.|3|10|2", "null|Parsing error|7|1|2"), visited);
+	assertEquals(2, store.issueCount("a.js"));
+    }
+
+    @Test
+    public void put_replacesTheIssuesOfAFile() {
+	final EsLintIssueStore store = new EsLintIssueStore();
+	store.put("a.js", Arrays.asList(issue("semi", "Missing semicolon.", 3, 10, 2)));
+	store.put("b.js", new EsLintFileIssues(0));
+	store.put("a.js", new ArrayList<>());
+
+	assertEquals(Arrays.asList("a.js", "b.js"), store.filePaths());
+	assertEquals(0, store.issueCount("a.js"));
+	assertEquals(0, store.issueCount("b.js"));
+	assertTrue(store.contains("b.js"));
+	assertFalse(store.contains("c.js"));
+	assertNull(store.copyOf("c.js"));
+    }
+
+    /**
+     * The issues go from the parser to the store column by column: the rule ids and messages, created anew for every
+     * message as the report is read, are interned once for all the files.
+     */
+    @Test
+    public void put_internsTheRuleIdsAndMessagesOfEveryFile() {
+	final EsLintIssueStore store = new EsLintIssueStore();
+	for (int f = 0; f < 3; f++) {
+	    final EsLintFileIssues parsed = new EsLintFileIssues();
+	    for (int i = 0; i < 20; i++) {
+		parsed.add(new String("rule-" + i % 4), new String("Message number " + i % 5 + "."), i + 1, f, 1 + i % 2);
+	    }
+	    store.put("file" + f + ".js", parsed);
+	}
+
+	final Map<String, String> ruleIds = new HashMap<>();
+	final Map<String, String> messages = new HashMap<>();
+	final List<String> first = new ArrayList<>();
+	for (final String filePath : store.filePaths()) {
+	    final EsLintFileIssues copy = store.copyOf(filePath);
+	    assertEquals(20, copy.size());
+	    copy.forEach((ruleId, message, line, column, severity) -> {
+		assertSame(ruleIds.computeIfAbsent(ruleId, r -> ruleId), ruleId);
+		assertSame(messages.computeIfAbsent(message, m -> message), message);
+		if ("file0.js".equals(filePath)) {
+		    first.add(ruleId + "|" + message + "|" + line + "|" + column + "|" + severity);
+		}
+	    });
+	}
+
+	assertEquals(4, ruleIds.size());
+	assertEquals(5, messages.size());
+	assertEquals("rule-0|Message number 0.|1|0|1", first.get(0));
+	assertEquals("rule-3|Message number 4.|20|0|2", first.get(19));
+    }
+
+    /**
+     * Compares the objects retained by the issues of a lint-heavy analysis, once parsed as objects and once in the
+     * store. Counting them rather than measuring the heap keeps the test independent of when the GC runs.
+     */
+    @Test
+    public void store_retainsAFractionOfTheObjectsOfParsedIssues() {
+	final EsLintIssueStore store = new EsLintIssueStore();
+	for (int f = 0; f < FILE_COUNT; f++) {
+	    final EsLintFileIssues parsed = new EsLintFileIssues();
+	    for (int i = 0; i < ISSUES_PER_FILE; i++) {
+		// As the parser creates them, every message has strings of its own
+		parsed.add(new String("rule-" + i % 20), new String("Message number " + i % 50 + " of the rule."), i + 1,
+			f % 80, 1 + i % 2);
+	    }
+	    store.put("file" + f + ".js", parsed);
+	}
+	// Per parsed issue: the issue, its rule id and message, and their characters, plus a list per file
+	final long parsedObjects = (long) FILE_COUNT * ISSUES_PER_FILE * 5 + FILE_COUNT * 2L;
+
+	assertEquals(FILE_COUNT * 7L + (20 + 50) * 4L, store.retainedObjects());
+	assertTrue("Store " + store.retainedObjects() + " objects, parsed issues " + parsedObjects + " objects",
+		store.retainedObjects() * 50 < parsedObjects);
+	assertEquals(ISSUES_PER_FILE, store.issueCount("file0.js"));
+    }
+
+    private static EsLintIssue issue(final String ruleId, final String message, final int line, final int column,
+	    final int severity) {
+	final EsLintIssue issue = new EsLintIssue();
+	issue.setRuleId(ruleId);
+	issue.setMessage(message);
+	issue.setLine(line);
+	issue.setColumn(column);
+	issue.setSeverity(severity);
+	return issue;
+    }
+}
@@ -0,0 +1 @@
+// Stand-in for the ESLint command line, only its location matters to the bridge
@@ -0,0 +1,27 @@
+/*
+ * Minimal stand-in for the ESLint Node API : every linted file gets one "semi" violation whose message tells how
+ * many engines were created so far.
+ */
+'use strict';
+
+let engines = 0;
+
+class CLIEngine {
+    constructor(options) {
+        engines++;
+        this.options = options;
+    }
+
+    executeOnFiles(files) {
+        return {
+            results: files.map(file => ({
+                filePath: file,
+                messages: [{ruleId: 'semi', severity: 2, message: 'engines=' + engines, line: 1, column: 1}],
+                errorCount: 1,
+                warningCount: 0
+            }))
+        };
+    }
+}
+
+module.exports = {CLIEngine: CLIEngine};